@@ -0,0 +1,17 @@
+package com.reflex.inventario.alert;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AlertAckReqDTO {
+    @NotEmpty(message = "Debe indicar al menos un lote")
+    private List<Integer> lotIds;
+    private ExpiryAlertType tipo;//vacío: se confirman las alertas de ambos tipos
+}
@@ -0,0 +1,21 @@
+package com.reflex.inventario.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+//Un solo frame con las alertas acumuladas de un destino durante la ventana
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AlertBatchDTO {
+    private int count;
+    private List<Object> items;
+    private long dropped;//alertas descartadas desde el frame anterior porque la cola estaba llena
+    private LocalDateTime sentAt;
+}
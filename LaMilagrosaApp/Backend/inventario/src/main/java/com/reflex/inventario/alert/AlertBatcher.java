@@ -0,0 +1,130 @@
+package com.reflex.inventario.alert;
+
+import com.reflex.inventario.alert.cluster.ClusterMessageBridge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Junta las alertas de cada destino y las envía cada window-ms en frames de hasta max-size.
+//La cola por destino es acotada: si se llena se descartan las más viejas y el siguiente frame lo indica
+@Slf4j
+@Component
+public class AlertBatcher {
+
+    private final ClusterMessageBridge clusterMessageBridge;
+    private final int maxBatchSize;
+    private final int queueCapacity;
+    private final Map<String, DestinationQueue> queues = new ConcurrentHashMap<>();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong alertsSent = new AtomicLong();
+    private final AtomicLong batchesRejected = new AtomicLong();
+
+    public AlertBatcher(ClusterMessageBridge clusterMessageBridge,
+                        @Value("${app.websocket.batch.max-size:100}") int maxBatchSize,
+                        @Value("${app.websocket.batch.queue-capacity:1000}") int queueCapacity) {
+        this.clusterMessageBridge = clusterMessageBridge;
+        this.maxBatchSize = maxBatchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void offer(String destination, Object alert) {
+        DestinationQueue queue = queues.computeIfAbsent(destination, key -> new DestinationQueue());
+        synchronized (queue) {
+            if (queue.items.size() >= queueCapacity) {
+                queue.items.pollFirst();
+                queue.dropped++;
+                dropped.incrementAndGet();
+            }
+            queue.items.addLast(alert);
+        }
+        enqueued.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${app.websocket.batch.window-ms:250}")
+    public void flush() {
+        queues.forEach((destination, queue) -> {
+            while (true) {
+                List<Object> items;
+                long droppedSinceLast;
+                synchronized (queue) {
+                    if (queue.items.isEmpty()) {
+                        return;
+                    }
+                    items = new ArrayList<>(Math.min(maxBatchSize, queue.items.size()));
+                    while (!queue.items.isEmpty() && items.size() < maxBatchSize) {
+                        items.add(queue.items.pollFirst());
+                    }
+                    droppedSinceLast = queue.dropped;
+                    queue.dropped = 0;
+                }
+                send(destination, items, droppedSinceLast);
+            }
+        });
+    }
+
+    //Si el canal de salida está lleno el frame se pierde: se cuenta como descartado en vez de bloquear
+    private void send(String destination, List<Object> items, long droppedSinceLast) {
+        try {
+            clusterMessageBridge.publish(destination, AlertBatchDTO.builder()
+                    .count(items.size())
+                    .items(items)
+                    .dropped(droppedSinceLast)
+                    .sentAt(LocalDateTime.now())
+                    .build());
+            batchesSent.incrementAndGet();
+            alertsSent.addAndGet(items.size());
+        } catch (MessageDeliveryException e) {
+            batchesRejected.incrementAndGet();
+            dropped.addAndGet(items.size());
+            log.warn("Canal de salida saturado: se descartaron {} alertas para {}", items.size(), destination);
+        }
+    }
+
+    public long getQueued() {
+        long queued = 0;
+        for (DestinationQueue queue : queues.values()) {
+            synchronized (queue) {
+                queued += queue.items.size();
+            }
+        }
+        return queued;
+    }
+
+    public long getEnqueued() {
+        return enqueued.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getBatchesSent() {
+        return batchesSent.get();
+    }
+
+    public long getAlertsSent() {
+        return alertsSent.get();
+    }
+
+    public long getBatchesRejected() {
+        return batchesRejected.get();
+    }
+
+    private static class DestinationQueue {
+        private final ArrayDeque<Object> items = new ArrayDeque<>();
+        private long dropped;
+    }
+}
@@ -1,16 +1,38 @@
 package com.reflex.inventario.alert;
 
+import com.reflex.inventario.alert.cluster.ClusterMessageBridge;
+import com.reflex.inventario.order.job.ApprovalJobDTO;
+import com.reflex.inventario.report.job.ReportJobDTO;
 import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+//Todo pasa por el puente: así los clientes conectados a otras instancias también reciben los mensajes.
+//Las alertas sueltas se agrupan en AlertBatcher; el resumen de vencimientos y los estados de trabajos van directo,
+//cada uno en su propio destino para que un suscriptor reciba siempre el mismo tipo de mensaje
 @Service
 @RequiredArgsConstructor
 public class AlertWebSocketService {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterMessageBridge clusterMessageBridge;
+    private final AlertBatcher alertBatcher;
 
     public void sendProductExpiredAlert(String message) {
-        messagingTemplate.convertAndSend("/topic/alertas", message);
+        alertBatcher.offer("/topic/alertas", message);
     }
-}
\ No newline at end of file
+
+    public void sendExpiryDigest(ExpiryDigestDTO digest) {
+        clusterMessageBridge.publish("/topic/vencimientos", digest);
+    }
+
+    public void sendLowStockAlert(LowStockAlertDTO alert) {
+        alertBatcher.offer("/topic/stock", alert);
+    }
+
+    public void sendOrderJobStatus(ApprovalJobDTO job) {
+        clusterMessageBridge.publish("/topic/ordenes", job);
+    }
+
+    public void sendReportJobStatus(ReportJobDTO job) {
+        clusterMessageBridge.publish("/topic/reportes", job);
+    }
+}
@@ -0,0 +1,46 @@
+package com.reflex.inventario.alert;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("alert/vencimientos")
+@RequiredArgsConstructor
+public class ExpiryAlertController {
+
+    private final InventoryAlertScheduler inventoryAlertScheduler;
+
+    //Ejecuta la revisión ahora (además de la de las 8 AM) y devuelve el resumen enviado
+    @PostMapping("/revisar")
+    public ResponseEntity<ExpiryDigestDTO> scanNow() {
+        return ResponseEntity.ok(inventoryAlertScheduler.scan());
+    }
+
+    @GetMapping("/pendientes")
+    public ResponseEntity<List<PendingAlertDTO>> getPending(@RequestParam(value = "page", defaultValue = "0") int page,
+                                                            @RequestParam(value = "size", defaultValue = "50") int size) {
+        return ResponseEntity.ok(inventoryAlertScheduler.pending(page, size));
+    }
+
+    //Las alertas confirmadas salen de pendientes; ninguna se vuelve a enviar para el mismo lote y tipo
+    @PostMapping("/ack")
+    public ResponseEntity<String> acknowledge(@Valid @RequestBody AlertAckReqDTO request, Authentication connectedUser) {
+        int count = inventoryAlertScheduler.acknowledge(request.getLotIds(), request.getTipo(), connectedUser.getName());
+        return ResponseEntity.ok("Se confirmaron " + count + " alertas");
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<ExpiryScanStatsDTO> getStats() {
+        return ResponseEntity.ok(inventoryAlertScheduler.stats());
+    }
+}
@@ -0,0 +1,6 @@
+package com.reflex.inventario.alert;
+
+public enum ExpiryAlertType {
+    POR_VENCER,
+    VENCIDO
+}
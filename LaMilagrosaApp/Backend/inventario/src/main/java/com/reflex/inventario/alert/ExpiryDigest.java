@@ -0,0 +1,74 @@
+package com.reflex.inventario.alert;
+
+import com.reflex.inventario.productInventory.ExpiringLotRow;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Acumula los lotes leídos página por página agrupándolos por producto; solo guarda un contador por producto
+public class ExpiryDigest {
+
+    private final LocalDate today;
+    private final LocalDate expiringUntil;
+    private final Map<Integer, ExpiryProductDTO> products = new HashMap<>();
+    private int expiredLots;
+    private long expiredUnits;
+    private int expiringLots;
+    private long expiringUnits;
+
+    public ExpiryDigest(LocalDate today, LocalDate expiringUntil) {
+        this.today = today;
+        this.expiringUntil = expiringUntil;
+    }
+
+    public void add(ExpiringLotRow lot) {
+        ExpiryProductDTO product = products.computeIfAbsent(lot.getProductCode(), code -> ExpiryProductDTO.builder()
+                .productCode(code)
+                .productName(lot.getProductName())
+                .earliestExpiration(lot.getExpirationDate())
+                .build());
+        if (lot.getExpirationDate().isBefore(product.getEarliestExpiration())) {
+            product.setEarliestExpiration(lot.getExpirationDate());
+        }
+        if (!lot.getExpirationDate().isAfter(today)) {
+            product.setExpiredLots(product.getExpiredLots() + 1);
+            product.setExpiredUnits(product.getExpiredUnits() + lot.getStock());
+            expiredLots++;
+            expiredUnits += lot.getStock();
+        } else {
+            product.setExpiringLots(product.getExpiringLots() + 1);
+            product.setExpiringUnits(product.getExpiringUnits() + lot.getStock());
+            expiringLots++;
+            expiringUnits += lot.getStock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return products.isEmpty();
+    }
+
+    //Primero los productos con más unidades vencidas, luego los que vencen antes
+    public ExpiryDigestDTO build(int maxProducts) {
+        List<ExpiryProductDTO> top = products.values().stream()
+                .sorted(Comparator.comparingLong(ExpiryProductDTO::getExpiredUnits).reversed()
+                        .thenComparing(ExpiryProductDTO::getEarliestExpiration)
+                        .thenComparing(ExpiryProductDTO::getProductCode))
+                .limit(maxProducts)
+                .toList();
+        return ExpiryDigestDTO.builder()
+                .generatedAt(LocalDateTime.now())
+                .expiringUntil(expiringUntil)
+                .expiredLots(expiredLots)
+                .expiredUnits(expiredUnits)
+                .expiringLots(expiringLots)
+                .expiringUnits(expiringUnits)
+                .productCount(products.size())
+                .products(top)
+                .omittedProducts(products.size() - top.size())
+                .build();
+    }
+}
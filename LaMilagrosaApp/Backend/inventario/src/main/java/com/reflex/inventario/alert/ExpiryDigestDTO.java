@@ -0,0 +1,26 @@
+package com.reflex.inventario.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+//Resumen diario de vencimientos (en /topic/vencimientos): un solo mensaje con las alertas nuevas y los productos más afectados
+@Data
+@Builder
+@AllArgsConstructor
+public class ExpiryDigestDTO {
+    private LocalDateTime generatedAt;
+    private LocalDate expiringUntil;
+    private int expiredLots;
+    private long expiredUnits;
+    private int expiringLots;
+    private long expiringUnits;
+    private int productCount;
+    private List<ExpiryProductDTO> products;
+    private int omittedProducts;//productos que no entraron en la lista
+    private long pendingAlerts;//alertas enviadas (hoy o antes) que nadie ha confirmado
+}
@@ -0,0 +1,20 @@
+package com.reflex.inventario.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ExpiryProductDTO {
+    private Integer productCode;
+    private String productName;
+    private int expiredLots;
+    private long expiredUnits;
+    private int expiringLots;
+    private long expiringUnits;
+    private LocalDate earliestExpiration;
+}
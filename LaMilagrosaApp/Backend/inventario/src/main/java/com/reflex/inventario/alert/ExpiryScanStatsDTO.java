@@ -0,0 +1,21 @@
+package com.reflex.inventario.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ExpiryScanStatsDTO {
+    private long runs;
+    private long messagesSent;
+    private LocalDateTime lastRunAt;
+    private long lastScanMs;
+    private int lastPages;
+    private long lastLotsScanned;
+    private int lastNewAlerts;
+    private int lastProducts;
+}
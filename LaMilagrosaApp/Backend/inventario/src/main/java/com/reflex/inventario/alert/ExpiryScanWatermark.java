@@ -0,0 +1,25 @@
+package com.reflex.inventario.alert;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//Hasta dónde llegó la última revisión de vencimientos: la siguiente solo mira lo que cambió desde entonces
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table( name = "expiry_scan_watermark")
+public class ExpiryScanWatermark {
+    public static final String EXPIRY = "VENCIMIENTOS";
+
+    @Id
+    @Column(length = 20)
+    private String name;
+    private LocalDate lastToday;//"hoy" de la última revisión
+    private LocalDateTime lastRunAt;//inicio de la última revisión
+}
@@ -0,0 +1,8 @@
+package com.reflex.inventario.alert;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExpiryScanWatermarkRepository extends JpaRepository<ExpiryScanWatermark, String> {
+}
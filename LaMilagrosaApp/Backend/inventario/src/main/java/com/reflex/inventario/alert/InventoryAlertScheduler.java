@@ -1,41 +1,196 @@
 package com.reflex.inventario.alert;
 
-import com.reflex.inventario.alert.AlertWebSocketService;
-import com.reflex.inventario.productInventory.ProductInventory;
+import com.reflex.inventario.productInventory.ExpiringLotRow;
 import com.reflex.inventario.productInventory.ProductInvetoryRepository;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Component
-@RequiredArgsConstructor
 public class InventoryAlertScheduler {
 
+    //runAt se toma antes de leer: un lote con updatedAt anterior cuya transacción confirma después de la lectura
+    //no se vería en la pasada siguiente. Se relee desde un poco antes; los lotes que ya tienen alerta no se repiten
+    private static final Duration CHANGED_LOTS_MARGIN = Duration.ofMinutes(1);
+
     private final ProductInvetoryRepository productInventoryRepository;
+    private final InventoryAlertStateRepository inventoryAlertStateRepository;
+    private final ExpiryScanWatermarkRepository expiryScanWatermarkRepository;
     private final AlertWebSocketService alertWebSocketService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int expiringDays;
+    private final int pageSize;
+    private final int maxProducts;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private volatile ExpiryScanStatsDTO lastScan;
+
+    public InventoryAlertScheduler(ProductInvetoryRepository productInventoryRepository,
+                                   InventoryAlertStateRepository inventoryAlertStateRepository,
+                                   ExpiryScanWatermarkRepository expiryScanWatermarkRepository,
+                                   AlertWebSocketService alertWebSocketService,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.inventory.expiring-days:7}") int expiringDays,
+                                   @Value("${app.alerts.expiry.page-size:1000}") int pageSize,
+                                   @Value("${app.alerts.expiry.max-products:50}") int maxProducts) {
+        this.productInventoryRepository = productInventoryRepository;
+        this.inventoryAlertStateRepository = inventoryAlertStateRepository;
+        this.expiryScanWatermarkRepository = expiryScanWatermarkRepository;
+        this.alertWebSocketService = alertWebSocketService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expiringDays = expiringDays;
+        this.pageSize = pageSize;
+        this.maxProducts = maxProducts;
+    }
 
     @Scheduled(cron = "0 0 8 * * ?") // Todos los días a las 8 AM
     public void checkInventoryDates() {
-        LocalDate today = LocalDate.now();
-        LocalDate sevenDaysLater = today.plusDays(7);
-
-        // Productos ya vencidos
-        List<ProductInventory> expired = productInventoryRepository.findByExpirationDateLessThanEqual(today);
-        expired.forEach(product -> {
-            String msg = "⚠ Producto vencido: " + product.getProduct().getName() +
-                    " (Fecha: " + product.getExpirationDate() + ")";
-            alertWebSocketService.sendProductExpiredAlert(msg);
-        });
-
-        // Productos próximos a vencer (hoy + 7 días o menos)
-        List<ProductInventory> expiringSoon = productInventoryRepository.findByExpirationDateBetween(today.plusDays(1), sevenDaysLater);
-        expiringSoon.forEach(product -> {
-            String msg = "🔔 Producto por vencer pronto: " + product.getProduct().getName() +
-                    " (Vence: " + product.getExpirationDate() + ")";
-            alertWebSocketService.sendProductExpiredAlert(msg);
-        });
-    }
-}
\ No newline at end of file
+        scan();
+    }
+
+    //Envía un solo resumen con las alertas nuevas: lotes con stock vencidos o por vencer (hoy + expiringDays)
+    //que todavía no tienen estado de ese tipo. La primera vez se recorren todos; después solo lo que cambió
+    public synchronized ExpiryDigestDTO scan() {
+        long started = System.nanoTime();
+        LocalDateTime runAt = LocalDateTime.now();
+        LocalDate today = runAt.toLocalDate();
+        LocalDate until = today.plusDays(expiringDays);
+        ExpiryDigest digest = new ExpiryDigest(today, until);
+        Optional<ExpiryScanWatermark> watermark = expiryScanWatermarkRepository.findById(ExpiryScanWatermark.EXPIRY);
+
+        int pages = 0;
+        long lots = 0;
+        int newAlerts = 0;
+        List<ExpiringLotRow> page = firstPage(watermark, today, until);
+        while (!page.isEmpty()) {
+            pages++;
+            lots += page.size();
+            newAlerts += recordNewAlerts(page, today, runAt, digest);
+            if (page.size() < pageSize) {
+                break;
+            }
+            page = nextPage(watermark, today, until, page.get(page.size() - 1));
+        }
+        expiryScanWatermarkRepository.save(ExpiryScanWatermark.builder()
+                .name(ExpiryScanWatermark.EXPIRY)
+                .lastToday(today)
+                .lastRunAt(runAt)
+                .build());
+
+        ExpiryDigestDTO result = digest.build(maxProducts);
+        result.setPendingAlerts(inventoryAlertStateRepository.countPending());
+        if (!digest.isEmpty()) {
+            alertWebSocketService.sendExpiryDigest(result);
+            messagesSent.incrementAndGet();
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        runs.incrementAndGet();
+        lastScan = ExpiryScanStatsDTO.builder()
+                .lastRunAt(runAt)
+                .lastScanMs(elapsedMs)
+                .lastPages(pages)
+                .lastLotsScanned(lots)
+                .lastNewAlerts(newAlerts)
+                .lastProducts(result.getProductCount())
+                .build();
+        log.info("Revisión de vencimientos: {} lotes revisados en {} páginas, {} alertas nuevas, {} ms",
+                lots, pages, newAlerts, elapsedMs);
+        return result;
+    }
+
+    //Confirma las alertas de los lotes indicados (de un tipo o de ambos); devuelve cuántas se confirmaron
+    @Transactional
+    public int acknowledge(List<Integer> lotIds, ExpiryAlertType type, String user) {
+        LocalDateTime now = LocalDateTime.now();
+        return type == null
+                ? inventoryAlertStateRepository.acknowledge(lotIds, now, user)
+                : inventoryAlertStateRepository.acknowledge(lotIds, type, now, user);
+    }
+
+    public List<PendingAlertDTO> pending(int page, int size) {
+        return inventoryAlertStateRepository.findPending(PageRequest.of(page, size));
+    }
+
+    //La ventana anterior terminaba en lastToday + expiringDays: solo lo que quedó después es nuevo "por vencer"
+    private List<ExpiringLotRow> firstPage(Optional<ExpiryScanWatermark> watermark, LocalDate today, LocalDate until) {
+        PageRequest limit = PageRequest.of(0, pageSize);
+        return watermark
+                .map(last -> productInventoryRepository.findChangedExpiringLots(until, last.getLastToday().plusDays(expiringDays),
+                        today, last.getLastToday(), changedSince(last), limit))
+                .orElseGet(() -> productInventoryRepository.findExpiringLots(until, limit));
+    }
+
+    private List<ExpiringLotRow> nextPage(Optional<ExpiryScanWatermark> watermark, LocalDate today, LocalDate until, ExpiringLotRow after) {
+        PageRequest limit = PageRequest.of(0, pageSize);
+        return watermark
+                .map(last -> productInventoryRepository.findChangedExpiringLotsAfter(until, last.getLastToday().plusDays(expiringDays),
+                        today, last.getLastToday(), changedSince(last), after.getExpirationDate(), after.getLotId(), limit))
+                .orElseGet(() -> productInventoryRepository.findExpiringLotsAfter(until, after.getExpirationDate(), after.getLotId(), limit));
+    }
+
+    private static LocalDateTime changedSince(ExpiryScanWatermark last) {
+        return last.getLastRunAt().minus(CHANGED_LOTS_MARGIN);
+    }
+
+    //Los lotes de la página que aún no tienen alerta de su tipo entran al resumen y quedan registrados
+    private int recordNewAlerts(List<ExpiringLotRow> page, LocalDate today, LocalDateTime runAt, ExpiryDigest digest) {
+        Set<InventoryAlertStateId> known = inventoryAlertStateRepository
+                .findByLotIdIn(page.stream().map(ExpiringLotRow::getLotId).toList()).stream()
+                .map(state -> new InventoryAlertStateId(state.getLotId(), state.getAlertType()))
+                .collect(Collectors.toSet());
+        List<Object[]> rows = new ArrayList<>();
+        for (ExpiringLotRow lot : page) {
+            ExpiryAlertType type = lot.getExpirationDate().isAfter(today) ? ExpiryAlertType.POR_VENCER : ExpiryAlertType.VENCIDO;
+            if (known.contains(new InventoryAlertStateId(lot.getLotId(), type))) {
+                continue;
+            }
+            digest.add(lot);
+            rows.add(new Object[]{lot.getLotId(), type.name(), lot.getProductCode(),
+                    Date.valueOf(lot.getExpirationDate()), Timestamp.valueOf(runAt)});
+        }
+        if (!rows.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate("""
+                    INSERT INTO inventory_alert_state (lot_id, alert_type, product_code, expiration_date, sent_at)
+                    VALUES (?, ?, ?, ?, ?)
+                    """, rows));
+        }
+        return rows.size();
+    }
+
+    public ExpiryScanStatsDTO stats() {
+        ExpiryScanStatsDTO last = lastScan;
+        return ExpiryScanStatsDTO.builder()
+                .runs(runs.get())
+                .messagesSent(messagesSent.get())
+                .lastRunAt(last == null ? null : last.getLastRunAt())
+                .lastScanMs(last == null ? 0 : last.getLastScanMs())
+                .lastPages(last == null ? 0 : last.getLastPages())
+                .lastLotsScanned(last == null ? 0 : last.getLastLotsScanned())
+                .lastNewAlerts(last == null ? 0 : last.getLastNewAlerts())
+                .lastProducts(last == null ? 0 : last.getLastProducts())
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.reflex.inventario.alert;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//Alerta ya enviada para un lote: mientras exista no se vuelve a notificar el mismo tipo para ese lote
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@IdClass(InventoryAlertStateId.class)
+@Table( name = "inventory_alert_state",
+        indexes = @Index(name = "idx_inventory_alert_state_pending", columnList = "acknowledgedAt, sentAt"))
+public class InventoryAlertState {
+    @Id
+    private Integer lotId;
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 12)
+    private ExpiryAlertType alertType;
+    private Integer productCode;
+    private LocalDate expirationDate;//fecha del lote cuando se envió la alerta
+    private LocalDateTime sentAt;
+    private LocalDateTime acknowledgedAt;
+    private String acknowledgedBy;
+}
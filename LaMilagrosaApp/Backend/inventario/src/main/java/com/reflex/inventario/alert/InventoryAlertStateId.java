@@ -0,0 +1,15 @@
+package com.reflex.inventario.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryAlertStateId implements Serializable {
+    private Integer lotId;
+    private ExpiryAlertType alertType;
+}
@@ -0,0 +1,66 @@
+package com.reflex.inventario.alert;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InventoryAlertStateRepository extends JpaRepository<InventoryAlertState, InventoryAlertStateId> {
+
+    List<InventoryAlertState> findByLotIdIn(Collection<Integer> lotIds);
+
+    //Alertas sin confirmar de lotes que todavía tienen stock, las más recientes primero
+    @Query("""
+    SELECT new com.reflex.inventario.alert.PendingAlertDTO(s.lotId, pi.batchNumber, p.code, p.name, pi.stock,
+                                                            pi.expirationDate, s.alertType, s.sentAt)
+    FROM InventoryAlertState s
+    JOIN ProductInventory pi ON pi.id = s.lotId
+    JOIN pi.product p
+    WHERE s.acknowledgedAt IS NULL
+      AND pi.stock > 0
+    ORDER BY s.sentAt DESC, s.lotId ASC
+    """)
+    List<PendingAlertDTO> findPending(Pageable page);
+
+    //Mismo filtro que findPending: el total coincide con lo que se puede listar
+    @Query("""
+    SELECT COUNT(s)
+    FROM InventoryAlertState s
+    JOIN ProductInventory pi ON pi.id = s.lotId
+    WHERE s.acknowledgedAt IS NULL
+      AND pi.stock > 0
+    """)
+    long countPending();
+
+    @Modifying
+    @Query("""
+    UPDATE InventoryAlertState s
+    SET s.acknowledgedAt = :now, s.acknowledgedBy = :user
+    WHERE s.lotId IN :lotIds AND s.acknowledgedAt IS NULL
+    """)
+    int acknowledge(@Param("lotIds") Collection<Integer> lotIds,
+                    @Param("now") LocalDateTime now,
+                    @Param("user") String user);
+
+    @Modifying
+    @Query("""
+    UPDATE InventoryAlertState s
+    SET s.acknowledgedAt = :now, s.acknowledgedBy = :user
+    WHERE s.lotId IN :lotIds AND s.alertType = :type AND s.acknowledgedAt IS NULL
+    """)
+    int acknowledge(@Param("lotIds") Collection<Integer> lotIds,
+                    @Param("type") ExpiryAlertType type,
+                    @Param("now") LocalDateTime now,
+                    @Param("user") String user);
+
+    @Modifying
+    @Query("DELETE FROM InventoryAlertState s WHERE s.lotId = :lotId")
+    void deleteByLotId(@Param("lotId") Integer lotId);
+}
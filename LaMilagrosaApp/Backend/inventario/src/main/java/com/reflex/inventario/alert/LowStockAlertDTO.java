@@ -0,0 +1,21 @@
+package com.reflex.inventario.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LowStockAlertDTO {
+    private Integer productCode;
+    private String productName;
+    private int totalUnits;
+    private int threshold;
+    private StockLevel level;
+    private LocalDateTime detectedAt;
+}
@@ -0,0 +1,89 @@
+package com.reflex.inventario.alert;
+
+import com.reflex.inventario.productInventory.StockChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Alertas de stock bajo y agotado a partir de los movimientos de stock. La transacción que mueve stock solo
+//anota los productos tocados (después del commit); cada ventana se revisan todos juntos con una consulta
+//y se envía a lo más una alerta por producto
+@Slf4j
+@Service
+public class LowStockAlertService {
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final StockThresholds stockThresholds;
+    private final AlertWebSocketService alertWebSocketService;
+    private final LowStockDetector detector;
+
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong alertsSent = new AtomicLong();
+
+    public LowStockAlertService(NamedParameterJdbcTemplate namedJdbcTemplate,
+                                StockThresholds stockThresholds,
+                                AlertWebSocketService alertWebSocketService,
+                                @Value("${app.alerts.low-stock.cooldown-seconds:900}") long cooldownSeconds) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.stockThresholds = stockThresholds;
+        this.alertWebSocketService = alertWebSocketService;
+        this.detector = new LowStockDetector(Duration.ofSeconds(cooldownSeconds));
+    }
+
+    //Si la transacción se revierte no llega el evento: no hubo movimiento
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        events.incrementAndGet();
+        pending.addAll(event.productCodes());
+    }
+
+    @Scheduled(fixedDelayString = "${app.alerts.low-stock.window-ms:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Integer> productCodes = new ArrayList<>(pending);
+        pending.removeAll(productCodes);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<LowStockAlertDTO> alerts = new ArrayList<>();
+        namedJdbcTemplate.query("""
+                SELECT s.product_code, p.name, s.total_units
+                FROM product_stock s
+                JOIN product p ON p.code = s.product_code
+                WHERE s.product_code IN (:productCodes)
+                """, new MapSqlParameterSource("productCodes", productCodes), rs -> {
+            int productCode = rs.getInt(1);
+            Optional<LowStockAlertDTO> alert = detector.evaluate(productCode, rs.getString(2), rs.getInt(3),
+                    stockThresholds.thresholdOf(productCode), now);
+            alert.ifPresent(alerts::add);
+        });
+        alerts.forEach(alertWebSocketService::sendLowStockAlert);
+        alertsSent.addAndGet(alerts.size());
+        if (!alerts.isEmpty()) {
+            log.info("Stock bajo: {} alertas de {} productos revisados", alerts.size(), productCodes.size());
+        }
+    }
+
+    public long getEvents() {
+        return events.get();
+    }
+
+    public long getAlertsSent() {
+        return alertsSent.get();
+    }
+}
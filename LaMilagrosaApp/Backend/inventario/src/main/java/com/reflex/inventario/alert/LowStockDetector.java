@@ -0,0 +1,66 @@
+package com.reflex.inventario.alert;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+//Decide cuándo un producto merece alerta: solo al empeorar de nivel (NORMAL → BAJO → AGOTADO).
+//Si vuelve a NORMAL se olvida, pero una nueva caída a BAJO dentro de cooldown no se repite
+//(evita el ir y venir alrededor del mínimo); caer a AGOTADO siempre avisa. No es thread-safe
+class LowStockDetector {
+
+    private final Duration cooldown;
+    private final Map<Integer, ProductState> states = new HashMap<>();
+
+    LowStockDetector(Duration cooldown) {
+        this.cooldown = cooldown;
+    }
+
+    static StockLevel levelOf(int totalUnits, int threshold) {
+        if (totalUnits <= 0) {
+            return StockLevel.AGOTADO;
+        }
+        return totalUnits <= threshold ? StockLevel.BAJO : StockLevel.NORMAL;
+    }
+
+    Optional<LowStockAlertDTO> evaluate(Integer productCode, String productName, int totalUnits, int threshold,
+                                        LocalDateTime now) {
+        StockLevel level = levelOf(totalUnits, threshold);
+        ProductState state = states.computeIfAbsent(productCode, code -> new ProductState());
+        StockLevel previous = state.level;
+        state.level = level;
+        if (level.compareTo(previous) <= 0) {
+            //Sin alerta reciente que recordar, el producto normal no necesita estado
+            if (level == StockLevel.NORMAL && (state.alertedAt == null || !state.alertedAt.plus(cooldown).isAfter(now))) {
+                states.remove(productCode);
+            }
+            return Optional.empty();
+        }
+        boolean recentlyAlerted = state.alertedAt != null && state.alertedAt.plus(cooldown).isAfter(now);
+        if (recentlyAlerted && level.compareTo(state.alertedLevel) <= 0) {
+            return Optional.empty();
+        }
+        state.alertedLevel = level;
+        state.alertedAt = now;
+        return Optional.of(LowStockAlertDTO.builder()
+                .productCode(productCode)
+                .productName(productName)
+                .totalUnits(totalUnits)
+                .threshold(threshold)
+                .level(level)
+                .detectedAt(now)
+                .build());
+    }
+
+    int trackedProducts() {
+        return states.size();
+    }
+
+    private static class ProductState {
+        private StockLevel level = StockLevel.NORMAL;
+        private StockLevel alertedLevel;
+        private LocalDateTime alertedAt;
+    }
+}
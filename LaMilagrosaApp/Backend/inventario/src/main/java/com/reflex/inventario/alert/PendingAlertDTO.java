@@ -0,0 +1,20 @@
+package com.reflex.inventario.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class PendingAlertDTO {
+    private Integer lotId;
+    private Integer batchNumber;
+    private Integer productCode;
+    private String productName;
+    private Integer stock;
+    private LocalDate expirationDate;
+    private ExpiryAlertType alertType;
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,8 @@
+package com.reflex.inventario.alert;
+
+//Ordenado de mejor a peor: una alerta se envía cuando el producto empeora de nivel
+public enum StockLevel {
+    NORMAL,
+    BAJO,
+    AGOTADO
+}
@@ -0,0 +1,58 @@
+package com.reflex.inventario.alert;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Stock mínimo por producto en memoria para no consultar product en cada movimiento.
+//Los cambios de este nodo se aplican al guardar el producto; los de otros nodos llegan con la recarga periódica
+@Slf4j
+@Component
+public class StockThresholds {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int defaultThreshold;
+    private volatile Map<Integer, Integer> thresholds = new ConcurrentHashMap<>();
+
+    public StockThresholds(JdbcTemplate jdbcTemplate,
+                           @Value("${app.alerts.low-stock.default-threshold:5}") int defaultThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultThreshold = defaultThreshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.alerts.low-stock.thresholds-refresh-ms:300000}",
+            fixedDelayString = "${app.alerts.low-stock.thresholds-refresh-ms:300000}")
+    public void reload() {
+        Map<Integer, Integer> loaded = new ConcurrentHashMap<>();
+        jdbcTemplate.query("SELECT code, min_stock FROM product WHERE min_stock IS NOT NULL",
+                rs -> {
+                    loaded.put(rs.getInt(1), rs.getInt(2));
+                });
+        thresholds = loaded;
+        log.debug("Stock mínimo cargado para {} productos", loaded.size());
+    }
+
+    public int thresholdOf(Integer productCode) {
+        return thresholds.getOrDefault(productCode, defaultThreshold);
+    }
+
+    public void update(Integer productCode, Integer minStock) {
+        if (minStock == null) {
+            thresholds.remove(productCode);
+        } else {
+            thresholds.put(productCode, minStock);
+        }
+    }
+
+    public void remove(Integer productCode) {
+        thresholds.remove(productCode);
+    }
+}
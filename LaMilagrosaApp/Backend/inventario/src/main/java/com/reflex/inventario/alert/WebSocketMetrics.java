@@ -0,0 +1,135 @@
+package com.reflex.inventario.alert;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//Interceptor del canal de salida (clientOutboundChannel): cuánto espera cada mensaje en la cola del executor
+//y cuánto tarda en escribirse a la sesión. Un cliente lento se nota en el tiempo de envío
+@Component
+public class WebSocketMetrics implements ExecutorChannelInterceptor {
+
+    private static final String QUEUED_AT = "inventario.queuedAt";
+    //Límites superiores de los rangos del histograma de envío, en microsegundos
+    private static final long[] BUCKETS_MICROS = {1_000, 10_000, 100_000, 1_000_000};
+
+    private final ThreadLocal<Long> handleStart = new ThreadLocal<>();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Timing queueWait = new Timing();
+    private final Timing send = new Timing();
+    private final AtomicLongArray sendBuckets = new AtomicLongArray(BUCKETS_MICROS.length + 1);
+
+    //Los mensajes del broker llegan con encabezados mutables; si no, simplemente no se mide la espera
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, MessageHeaderAccessor.class);
+        if (accessor != null && accessor.isMutable()) {
+            accessor.setHeader(QUEUED_AT, System.nanoTime());
+        }
+        return message;
+    }
+
+    //Executor lleno: el broker registra el error y sigue, aquí se cuenta como mensaje perdido
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (ex != null || !sent) {
+            rejected.incrementAndGet();
+        }
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        long now = System.nanoTime();
+        Object queuedAt = message.getHeaders().get(QUEUED_AT);
+        if (queuedAt instanceof Long start) {
+            queueWait.record((now - start) / 1_000);
+        }
+        handleStart.set(now);
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        Long start = handleStart.get();
+        handleStart.remove();
+        if (ex != null) {
+            failed.incrementAndGet();
+        }
+        if (start == null) {
+            return;
+        }
+        long micros = (System.nanoTime() - start) / 1_000;
+        send.record(micros);
+        sendBuckets.incrementAndGet(bucketOf(micros));
+        sent.incrementAndGet();
+    }
+
+    private int bucketOf(long micros) {
+        for (int i = 0; i < BUCKETS_MICROS.length; i++) {
+            if (micros <= BUCKETS_MICROS[i]) {
+                return i;
+            }
+        }
+        return BUCKETS_MICROS.length;
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public Timing getQueueWait() {
+        return queueWait;
+    }
+
+    public Timing getSend() {
+        return send;
+    }
+
+    public Map<String, Long> getSendHistogram() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS_MICROS.length; i++) {
+            histogram.put("<=" + BUCKETS_MICROS[i] / 1_000 + "ms", sendBuckets.get(i));
+        }
+        histogram.put(">" + BUCKETS_MICROS[BUCKETS_MICROS.length - 1] / 1_000 + "ms", sendBuckets.get(BUCKETS_MICROS.length));
+        return histogram;
+    }
+
+    public static class Timing {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        void record(long micros) {
+            count.incrementAndGet();
+            totalMicros.addAndGet(micros);
+            maxMicros.accumulateAndGet(micros, Math::max);
+        }
+
+        public long getAverageMicros() {
+            long n = count.get();
+            return n == 0 ? 0 : totalMicros.get() / n;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros.get();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.reflex.inventario.alert;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("alert/websocket")
+@RequiredArgsConstructor
+public class WebSocketStatsController {
+
+    private final WebSocketStatsService webSocketStatsService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<WebSocketStatsDTO> getStats() {
+        return ResponseEntity.ok(webSocketStatsService.stats());
+    }
+}
@@ -0,0 +1,54 @@
+package com.reflex.inventario.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WebSocketStatsDTO {
+    //Sesiones en /ws-alertas
+    private int sessions;
+    private int webSocketSessions;
+    private int httpStreamingSessions;
+    private int httpPollingSessions;
+    //Sesiones cerradas por el servidor: limitExceeded = cliente lento que superó el buffer o el tiempo de envío
+    private int limitExceededSessions;
+    private int noMessagesReceivedSessions;
+    private int transportErrorSessions;
+
+    //Executors de los canales
+    private int inboundQueued;
+    private int inboundActive;
+    private int outboundQueued;
+    private int outboundActive;
+
+    //Envío a clientes (canal de salida)
+    private long messagesSent;
+    private long messagesRejected;
+    private long messagesFailed;
+    private long queueWaitAvgMicros;
+    private long queueWaitMaxMicros;
+    private long sendAvgMicros;
+    private long sendMaxMicros;
+    private Map<String, Long> sendHistogram;
+
+    //Agrupación de alertas
+    private long alertsQueued;
+    private long alertsEnqueued;
+    private long alertsSent;
+    private long alertsDropped;
+    private long batchesSent;
+    private long batchesRejected;
+
+    //Reenvío entre nodos
+    private boolean clustered;
+    private long clusterPublished;
+    private long clusterReceived;
+    private long clusterFailed;
+}
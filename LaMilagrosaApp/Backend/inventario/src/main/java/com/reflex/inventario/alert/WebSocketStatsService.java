@@ -0,0 +1,70 @@
+package com.reflex.inventario.alert;
+
+import com.reflex.inventario.alert.cluster.ClusterMessageBridge;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+@Service
+public class WebSocketStatsService {
+
+    private final WebSocketMessageBrokerStats brokerStats;
+    private final ThreadPoolTaskExecutor inboundExecutor;
+    private final ThreadPoolTaskExecutor outboundExecutor;
+    private final WebSocketMetrics webSocketMetrics;
+    private final AlertBatcher alertBatcher;
+    private final ClusterMessageBridge clusterMessageBridge;
+
+    public WebSocketStatsService(WebSocketMessageBrokerStats brokerStats,
+                                 @Qualifier("clientInboundChannelExecutor") ThreadPoolTaskExecutor inboundExecutor,
+                                 @Qualifier("clientOutboundChannelExecutor") ThreadPoolTaskExecutor outboundExecutor,
+                                 WebSocketMetrics webSocketMetrics,
+                                 AlertBatcher alertBatcher,
+                                 ClusterMessageBridge clusterMessageBridge) {
+        this.brokerStats = brokerStats;
+        this.inboundExecutor = inboundExecutor;
+        this.outboundExecutor = outboundExecutor;
+        this.webSocketMetrics = webSocketMetrics;
+        this.alertBatcher = alertBatcher;
+        this.clusterMessageBridge = clusterMessageBridge;
+    }
+
+    public WebSocketStatsDTO stats() {
+        WebSocketStatsDTO.WebSocketStatsDTOBuilder builder = WebSocketStatsDTO.builder()
+                .inboundQueued(inboundExecutor.getQueueSize())
+                .inboundActive(inboundExecutor.getActiveCount())
+                .outboundQueued(outboundExecutor.getQueueSize())
+                .outboundActive(outboundExecutor.getActiveCount())
+                .messagesSent(webSocketMetrics.getSent())
+                .messagesRejected(webSocketMetrics.getRejected())
+                .messagesFailed(webSocketMetrics.getFailed())
+                .queueWaitAvgMicros(webSocketMetrics.getQueueWait().getAverageMicros())
+                .queueWaitMaxMicros(webSocketMetrics.getQueueWait().getMaxMicros())
+                .sendAvgMicros(webSocketMetrics.getSend().getAverageMicros())
+                .sendMaxMicros(webSocketMetrics.getSend().getMaxMicros())
+                .sendHistogram(webSocketMetrics.getSendHistogram())
+                .alertsQueued(alertBatcher.getQueued())
+                .alertsEnqueued(alertBatcher.getEnqueued())
+                .alertsSent(alertBatcher.getAlertsSent())
+                .alertsDropped(alertBatcher.getDropped())
+                .batchesSent(alertBatcher.getBatchesSent())
+                .batchesRejected(alertBatcher.getBatchesRejected())
+                .clustered(clusterMessageBridge.isClustered())
+                .clusterPublished(clusterMessageBridge.getPublished())
+                .clusterReceived(clusterMessageBridge.getReceived())
+                .clusterFailed(clusterMessageBridge.getFailed());
+        SubProtocolWebSocketHandler.Stats sessions = brokerStats.getWebSocketSessionStats();
+        if (sessions != null) {
+            builder.sessions(sessions.getTotalSessions())
+                    .webSocketSessions(sessions.getWebSocketSessions())
+                    .httpStreamingSessions(sessions.getHttpStreamingSessions())
+                    .httpPollingSessions(sessions.getHttpPollingSessions())
+                    .limitExceededSessions(sessions.getLimitExceededSessions())
+                    .noMessagesReceivedSessions(sessions.getNoMessagesReceivedSessions())
+                    .transportErrorSessions(sessions.getTransportErrorSessions());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,10 @@
+package com.reflex.inventario.alert.cluster;
+
+//Cómo llegan los mensajes /topic a los clientes cuando hay más de una instancia:
+//SIMPLE broker en memoria (una sola instancia), RELAY broker STOMP externo,
+//POSTGRES broker en memoria en cada nodo y LISTEN/NOTIFY entre nodos
+public enum BrokerMode {
+    SIMPLE,
+    RELAY,
+    POSTGRES
+}
@@ -0,0 +1,5 @@
+package com.reflex.inventario.alert.cluster;
+
+//Mensaje tal como viaja entre nodos: text indica si el payload es texto plano o JSON
+public record ClusterEnvelope(String node, String destination, boolean text, String payload, long sentAtMillis) {
+}
@@ -0,0 +1,25 @@
+package com.reflex.inventario.alert.cluster;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+//Mensajes que no caben en un NOTIFY (límite de 8000 bytes): viaja solo el id y el contenido se lee de aquí
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table( name = "cluster_message", indexes = {
+        @Index(name = "idx_cluster_message_created", columnList = "createdAt")
+})
+public class ClusterMessage {
+    @Id
+    @GeneratedValue
+    private Long id;
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,98 @@
+package com.reflex.inventario.alert.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Publica en los clientes de este nodo y, si hay transporte entre nodos, reenvía a los demás.
+//Sin transporte (modo SIMPLE o RELAY) es un envío directo al broker
+@Slf4j
+@Component
+public class ClusterMessageBridge {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final ClusterTransport transport;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Autowired
+    public ClusterMessageBridge(SimpMessagingTemplate messagingTemplate,
+                                ObjectMapper objectMapper,
+                                ObjectProvider<ClusterTransport> transport) {
+        this(messagingTemplate, objectMapper, transport.getIfAvailable());
+    }
+
+    public ClusterMessageBridge(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper, ClusterTransport transport) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.transport = transport;
+        if (transport != null) {
+            transport.subscribe(this::onMessage);
+        }
+    }
+
+    public void publish(String destination, Object payload) {
+        messagingTemplate.convertAndSend(destination, payload);
+        published.incrementAndGet();
+        if (transport == null) {
+            return;
+        }
+        try {
+            boolean text = payload instanceof String;
+            String body = text ? (String) payload : objectMapper.writeValueAsString(payload);
+            transport.send(objectMapper.writeValueAsString(
+                    new ClusterEnvelope(nodeId, destination, text, body, System.currentTimeMillis())));
+        } catch (JsonProcessingException | RuntimeException e) {
+            //Los clientes de este nodo ya lo recibieron; los demás nodos se pierden este mensaje
+            failed.incrementAndGet();
+            log.warn("No se pudo reenviar a los demás nodos el mensaje para {}", destination, e);
+        }
+    }
+
+    //Mensajes de otros nodos: se entregan solo a los clientes conectados aquí
+    private void onMessage(String message) {
+        try {
+            ClusterEnvelope envelope = objectMapper.readValue(message, ClusterEnvelope.class);
+            if (nodeId.equals(envelope.node())) {
+                return;
+            }
+            Object payload = envelope.text() ? envelope.payload() : objectMapper.readTree(envelope.payload());
+            messagingTemplate.convertAndSend(envelope.destination(), payload);
+            received.incrementAndGet();
+        } catch (JsonProcessingException | RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("Mensaje de otro nodo descartado", e);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isClustered() {
+        return transport != null;
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+
+    public long getReceived() {
+        return received.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+}
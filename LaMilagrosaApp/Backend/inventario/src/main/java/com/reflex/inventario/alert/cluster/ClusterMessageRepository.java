@@ -0,0 +1,17 @@
+package com.reflex.inventario.alert.cluster;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ClusterMessageRepository extends JpaRepository<ClusterMessage, Long> {
+
+    @Modifying
+    @Query("DELETE FROM ClusterMessage m WHERE m.createdAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
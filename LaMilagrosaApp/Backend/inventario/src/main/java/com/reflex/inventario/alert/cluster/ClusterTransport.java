@@ -0,0 +1,12 @@
+package com.reflex.inventario.alert.cluster;
+
+import java.util.function.Consumer;
+
+//Canal entre nodos para los mensajes de websocket. Todo lo enviado llega a todos los suscriptores,
+//incluido el nodo que lo envió; el puente descarta sus propios mensajes
+public interface ClusterTransport {
+
+    void send(String message);
+
+    void subscribe(Consumer<String> listener);
+}
@@ -0,0 +1,159 @@
+package com.reflex.inventario.alert.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+//Transporte entre nodos con LISTEN/NOTIFY de PostgreSQL. Escucha con una conexión propia (fuera del pool,
+//porque queda ocupada todo el tiempo) en un hilo que se reconecta si la base se cae.
+//NOTIFY solo llega a las sesiones que ya escuchaban: lo enviado mientras un nodo está desconectado se pierde
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.websocket.broker.mode", havingValue = "postgres")
+public class PostgresNotifyTransport implements ClusterTransport, InitializingBean, DisposableBean {
+
+    //El límite de NOTIFY es 8000 bytes; se deja margen para el prefijo de referencia
+    private static final int MAX_NOTIFY_BYTES = 7900;
+    private static final String REFERENCE_PREFIX = "@";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClusterMessageRepository clusterMessageRepository;
+    private final DataSourceProperties dataSourceProperties;
+    private final String channel;
+    private final int pollMillis;
+    private final int retentionMinutes;
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private Thread listenerThread;
+    private volatile boolean running = true;
+
+    public PostgresNotifyTransport(JdbcTemplate jdbcTemplate,
+                                   ClusterMessageRepository clusterMessageRepository,
+                                   DataSourceProperties dataSourceProperties,
+                                   @Value("${app.websocket.cluster.channel:inventario_ws}") String channel,
+                                   @Value("${app.websocket.cluster.poll-ms:500}") int pollMillis,
+                                   @Value("${app.websocket.cluster.retention-minutes:10}") int retentionMinutes) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Nombre de canal inválido: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.clusterMessageRepository = clusterMessageRepository;
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+        this.pollMillis = pollMillis;
+        this.retentionMinutes = retentionMinutes;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        listenerThread = new Thread(this::listen, "cluster-listen-" + channel);
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void send(String message) {
+        String notification = message;
+        if (message.getBytes(StandardCharsets.UTF_8).length > MAX_NOTIFY_BYTES) {
+            ClusterMessage stored = clusterMessageRepository.save(ClusterMessage.builder()
+                    .payload(message)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            notification = REFERENCE_PREFIX + stored.getId();
+        }
+        jdbcTemplate.queryForRowSet("SELECT pg_notify(?, ?)", channel, notification);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    //Los mensajes grandes solo se necesitan mientras los demás nodos los leen
+    @Scheduled(fixedDelayString = "${app.websocket.cluster.purge-ms:60000}")
+    @Transactional
+    public void purge() {
+        clusterMessageRepository.deleteOlderThan(LocalDateTime.now().minusMinutes(retentionMinutes));
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Escuchando el canal {} para los mensajes de otros nodos", channel);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        deliver(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Se perdió la conexión de escucha del canal {}; se reintenta", channel, e);
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void deliver(String notification) {
+        String message = notification;
+        if (notification.startsWith(REFERENCE_PREFIX)) {
+            message = clusterMessageRepository.findById(Long.valueOf(notification.substring(REFERENCE_PREFIX.length())))
+                    .map(ClusterMessage::getPayload)
+                    .orElse(null);
+            if (message == null) {
+                log.warn("El mensaje {} ya no está disponible", notification);
+                return;
+            }
+        }
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(message);
+            } catch (RuntimeException e) {
+                log.warn("Error entregando un mensaje de otro nodo", e);
+            }
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        listenerThread.interrupt();
+        listenerThread.join(pollMillis * 2L);
+    }
+}
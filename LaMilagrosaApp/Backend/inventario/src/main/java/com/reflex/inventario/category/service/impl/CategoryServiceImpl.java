@@ -4,8 +4,10 @@ import com.reflex.inventario.category.*;
 import com.reflex.inventario.category.dto.CategoryReqDTO;
 import com.reflex.inventario.category.dto.CategoryResDTO;
 import com.reflex.inventario.category.service.CategoryService;
+import com.reflex.inventario.product.CatalogChangedEvent;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -16,6 +18,7 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository repository;
     private final CategoryMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public CategoryResDTO createCategory(CategoryReqDTO dto) {
@@ -28,7 +31,9 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Category not found with id: " + id));
         mapper.updateCategoryFromDTO(dto, category);
-        return mapper.toDTO(repository.save(category));
+        CategoryResDTO updated = mapper.toDTO(repository.save(category));
+        eventPublisher.publishEvent(new CatalogChangedEvent());
+        return updated;
     }
 
     @Override
@@ -52,5 +57,6 @@ public class CategoryServiceImpl implements CategoryService {
             throw new EntityNotFoundException("Category not found with id: " + id);
         }
         repository.deleteById(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent());
     }
 }
\ No newline at end of file
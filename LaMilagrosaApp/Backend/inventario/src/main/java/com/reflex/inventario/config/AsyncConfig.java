@@ -0,0 +1,60 @@
+package com.reflex.inventario.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class AsyncConfig {
+
+    //Pool dedicado a las aprobaciones: la cola es acotada y al llenarse rechaza (429) en vez de crecer
+    @Bean
+    public ThreadPoolTaskExecutor orderApprovalExecutor(
+            @Value("${app.orders.approval.workers:4}") int workers,
+            @Value("${app.orders.approval.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("order-approval-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    //Reportes en segundo plano: pocos hilos porque cada reporte recorre un rango completo de órdenes
+    @Bean
+    public ThreadPoolTaskExecutor reportExecutor(
+            @Value("${app.reports.jobs.workers:2}") int workers,
+            @Value("${app.reports.jobs.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("report-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    //Hilos que escriben las descargas de /reportes/export (solo esas): acotados para no agotar conexiones
+    @Bean
+    public ThreadPoolTaskExecutor exportExecutor(
+            @Value("${app.reports.export.workers:4}") int workers,
+            @Value("${app.reports.export.queue-capacity:10}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("export-");
+        return executor;
+    }
+
+    //Pool para imprimir segmentos de PDF en paralelo; por defecto un hilo por núcleo
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool reportRenderPool(@Value("${app.reports.parallel.threads:0}") int threads) {
+        return new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -1,25 +1,104 @@
 package com.reflex.inventario.config;
 
+import com.reflex.inventario.alert.WebSocketMetrics;
+import com.reflex.inventario.alert.cluster.BrokerMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${app.websocket.broker.mode:simple}")
+    private BrokerMode brokerMode;
+    @Value("${app.websocket.broker.relay.host:localhost}")
+    private String relayHost;
+    @Value("${app.websocket.broker.relay.port:61613}")
+    private int relayPort;
+    @Value("${app.websocket.broker.relay.login:guest}")
+    private String relayLogin;
+    @Value("${app.websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    // Límites por sesión: un cliente que no alcanza a leer se desconecta en vez de acumular memoria
+    @Value("${app.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+    @Value("${app.websocket.send-buffer-size-kb:512}")
+    private int sendBufferSizeKb;
+    @Value("${app.websocket.message-size-kb:64}")
+    private int messageSizeKb;
+    @Value("${app.websocket.sockjs.http-message-cache-size:100}")
+    private int sockJsMessageCacheSize;
+
+    @Value("${app.websocket.inbound.workers:4}")
+    private int inboundWorkers;
+    @Value("${app.websocket.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+    @Value("${app.websocket.outbound.workers:4}")
+    private int outboundWorkers;
+    @Value("${app.websocket.outbound.queue-capacity:5000}")
+    private int outboundQueueCapacity;
+
+    @Autowired
+    private WebSocketMetrics webSocketMetrics;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic"); // Mensajes enviados a clientes
+        if (brokerMode == BrokerMode.RELAY) {
+            // Broker STOMP externo (RabbitMQ, ActiveMQ): reparte entre todas las instancias
+            config.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+        } else {
+            // En memoria; con POSTGRES los demás nodos reciben los mensajes por ClusterMessageBridge
+            config.enableSimpleBroker("/topic"); // Mensajes enviados a clientes
+        }
         config.setApplicationDestinationPrefixes("/app"); // Prefijo para mensajes de cliente a servidor
+        // Sin setPreservePublishOrder: cada frame de alertas es independiente y así no hay otra cola por sesión,
+        // sin límite, delante del buffer acotado de configureWebSocketTransport
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeKb * 1024)
+                .setMessageSizeLimit(messageSizeKb * 1024);
+    }
+
+    // Colas acotadas: al llenarse se rechaza (y se cuenta en WebSocketMetrics) en vez de crecer sin límite
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(inboundWorkers)
+                .maxPoolSize(inboundWorkers)
+                .queueCapacity(inboundQueueCapacity);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundWorkers)
+                .maxPoolSize(outboundWorkers)
+                .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(webSocketMetrics);
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws-alertas")
                 .setAllowedOrigins("*")
-                .withSockJS();
+                .withSockJS()
+                .setHttpMessageCacheSize(sockJsMessageCacheSize);
     }
-}
\ No newline at end of file
+}
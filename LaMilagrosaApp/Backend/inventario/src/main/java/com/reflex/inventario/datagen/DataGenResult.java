@@ -0,0 +1,21 @@
+package com.reflex.inventario.datagen;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class DataGenResult {
+    private int products;
+    private int lots;
+    private int customerOrders;
+    private int purchaseOrders;
+    private long lines;
+    private LocalDate from;
+    private LocalDate to;
+    private long elapsedMs;
+}
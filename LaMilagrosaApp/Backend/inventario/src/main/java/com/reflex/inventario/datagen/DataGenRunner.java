@@ -0,0 +1,79 @@
+package com.reflex.inventario.datagen;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+//Generación desde la línea de comandos, por ejemplo:
+//mvn spring-boot:run -Dspring-boot.run.profiles=dev,datagen -Dspring-boot.run.arguments="--app.datagen.customer-orders=1000000"
+@Slf4j
+@Component
+@Profile("datagen")
+@RequiredArgsConstructor
+public class DataGenRunner implements ApplicationRunner {
+
+    private final DataGenerator dataGenerator;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.datagen.on-startup:true}")
+    private boolean onStartup;
+    @Value("${app.datagen.clear:false}")
+    private boolean clear;
+    @Value("${app.datagen.exit:true}")
+    private boolean exit;
+
+    @Value("${app.datagen.products:1000}")
+    private int products;
+    @Value("${app.datagen.categories:20}")
+    private int categories;
+    @Value("${app.datagen.lots-per-product:3}")
+    private int lotsPerProduct;
+    @Value("${app.datagen.users:10}")
+    private int users;
+    @Value("${app.datagen.providers:20}")
+    private int providers;
+    @Value("${app.datagen.customer-orders:100000}")
+    private int customerOrders;
+    @Value("${app.datagen.purchase-orders:20000}")
+    private int purchaseOrders;
+    @Value("${app.datagen.lines-per-order:5}")
+    private int linesPerOrder;
+    @Value("${app.datagen.days:365}")
+    private int days;
+    @Value("${app.datagen.seed:42}")
+    private long seed;
+    @Value("${app.datagen.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!onStartup) {
+            return;
+        }
+        if (clear) {
+            dataGenerator.clear();
+        }
+        dataGenerator.generate(DataGenSpec.builder()
+                .products(products)
+                .categories(categories)
+                .lotsPerProduct(lotsPerProduct)
+                .users(users)
+                .providers(providers)
+                .customerOrders(customerOrders)
+                .purchaseOrders(purchaseOrders)
+                .linesPerOrder(linesPerOrder)
+                .days(days)
+                .seed(seed)
+                .batchSize(batchSize)
+                .build());
+        if (exit) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.reflex.inventario.datagen;
+
+import lombok.Builder;
+import lombok.Getter;
+
+//Volúmenes a generar. Las órdenes se reparten en los últimos "days" días y cada una lleva en promedio linesPerOrder líneas
+@Getter
+@Builder
+public class DataGenSpec {
+    private int products;
+    private int categories;
+    private int lotsPerProduct;
+    private int users;
+    private int providers;
+    private int customerOrders;
+    private int purchaseOrders;
+    private int linesPerOrder;
+    private int days;
+    private long seed;
+    private int batchSize;
+}
@@ -0,0 +1,312 @@
+package com.reflex.inventario.datagen;
+
+import com.reflex.inventario.order.Money;
+import com.reflex.inventario.order.OrderChangedEvent;
+import com.reflex.inventario.productInventory.ProductStockReconciler;
+import com.reflex.inventario.report.rollup.RollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+//Carga volúmenes grandes de datos de prueba con inserts JDBC por lotes, sin pasar por las entidades.
+//Los ids se reservan con nextval sobre las mismas secuencias que usa Hibernate, así no chocan con los que
+//la aplicación en marcha ya tiene reservados
+@Slf4j
+@Component
+@Profile("datagen")
+public class DataGenerator {
+
+    private static final int SEQUENCE_INCREMENT = 50;
+    private static final String EMAIL_DOMAIN = "@datagen.local";
+    private static final String MARKER = "Generado por datagen";//descripción de productos y categorías generados
+    //Condiciones correlacionadas (EXISTS) para que cada fila se resuelva por índice al borrar
+    private static final String BY_GENERATED_USER = "EXISTS (SELECT 1 FROM _user u WHERE u.id = %s AND u.email LIKE '%%" + EMAIL_DOMAIN + "')";
+    private static final String BY_GENERATED_PRODUCT = "EXISTS (SELECT 1 FROM product p WHERE p.code = %s AND p.description = '" + MARKER + "')";
+    private static final int IVA = 19;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final RollupService rollupService;
+    private final ProductStockReconciler productStockReconciler;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DataGenerator(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         PasswordEncoder passwordEncoder,
+                         RollupService rollupService,
+                         ProductStockReconciler productStockReconciler,
+                         ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.rollupService = rollupService;
+        this.productStockReconciler = productStockReconciler;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public DataGenResult generate(DataGenSpec spec) {
+        validate(spec);
+        long started = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(spec.getSeed());
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(spec.getDays() - 1L);
+
+        int[] categories = insertCategories(spec);
+        int[] users = insertUsers(spec);
+        int[] providers = insertProviders(spec);
+        Products products = insertProducts(spec, categories, random);
+        int lots = insertLots(spec, products, random);
+
+        Set<LocalDate> days = new TreeSet<>();
+        long lines = insertOrders(spec, "customer_order", "customer_order_number", users, null,
+                spec.getCustomerOrders(), products, 100, from, random, days);
+        lines += insertOrders(spec, "purchase_order", "purchase_order_number", users, providers,
+                spec.getPurchaseOrders(), products, 60, from, random, days);
+
+        //Resumen de existencias, acumulados diarios y caché de reportes al día con lo cargado
+        productStockReconciler.reconcile();
+        rollupService.rollUp();
+        eventPublisher.publishEvent(new OrderChangedEvent(days));
+
+        DataGenResult result = DataGenResult.builder()
+                .products(products.codes().length)
+                .lots(lots)
+                .customerOrders(spec.getCustomerOrders())
+                .purchaseOrders(spec.getPurchaseOrders())
+                .lines(lines)
+                .from(from)
+                .to(to)
+                .elapsedMs(System.currentTimeMillis() - started)
+                .build();
+        log.info("Datos generados: {}", result);
+        return result;
+    }
+
+    //Borra solo lo creado por el generador: órdenes de sus usuarios, sus productos con sus lotes, sus categorías,
+    //usuarios y proveedores. Si una orden real usa un producto generado, el borrado falla completo y no toca nada
+    public void clear() {
+        Set<LocalDate> days = new TreeSet<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String table : List.of("customer_order", "purchase_order")) {
+                days.addAll(jdbcTemplate.queryForList("SELECT DISTINCT CAST(o.created_at AS DATE) FROM %s o WHERE %s"
+                        .formatted(table, BY_GENERATED_USER.formatted("o.user_id")), LocalDate.class));
+            }
+            jdbcTemplate.update("""
+                    DELETE FROM product_detail d
+                    WHERE EXISTS (SELECT 1 FROM customer_order o WHERE o.number = d.customer_order_number AND %s)
+                       OR EXISTS (SELECT 1 FROM purchase_order o WHERE o.number = d.purchase_order_number AND %s)
+                    """.formatted(BY_GENERATED_USER.formatted("o.user_id"), BY_GENERATED_USER.formatted("o.user_id")));
+            jdbcTemplate.update("DELETE FROM customer_order o WHERE " + BY_GENERATED_USER.formatted("o.user_id"));
+            jdbcTemplate.update("DELETE FROM purchase_order o WHERE " + BY_GENERATED_USER.formatted("o.user_id"));
+            jdbcTemplate.update("""
+                    DELETE FROM inventory_alert_state s
+                    WHERE EXISTS (SELECT 1 FROM product_inventory i WHERE i.id = s.lot_id AND %s)
+                    """.formatted(BY_GENERATED_PRODUCT.formatted("i.inventory_product_id")));
+            jdbcTemplate.update("DELETE FROM product_inventory i WHERE " + BY_GENERATED_PRODUCT.formatted("i.inventory_product_id"));
+            jdbcTemplate.update("DELETE FROM product_stock s WHERE " + BY_GENERATED_PRODUCT.formatted("s.product_code"));
+            jdbcTemplate.update("DELETE FROM product_category pc WHERE " + BY_GENERATED_PRODUCT.formatted("pc.product_code"));
+            jdbcTemplate.update("DELETE FROM product WHERE description = ?", MARKER);
+            jdbcTemplate.update("""
+                    DELETE FROM category c
+                    WHERE c.description = ? AND NOT EXISTS (SELECT 1 FROM product_category pc WHERE pc.category_id = c.id)
+                    """, MARKER);
+            jdbcTemplate.update("DELETE FROM _user WHERE email LIKE ?", "%" + EMAIL_DOMAIN);
+            jdbcTemplate.update("DELETE FROM provider WHERE email LIKE ?", "%" + EMAIL_DOMAIN);
+        });
+        //Los días que tenían órdenes generadas se vuelven a acumular sin ellas
+        eventPublisher.publishEvent(new OrderChangedEvent(days));
+        log.info("Datos generados eliminados; {} días de acumulados rehechos", days.size());
+    }
+
+    private void validate(DataGenSpec spec) {
+        if (spec.getProducts() < 1 || spec.getCategories() < 1 || spec.getUsers() < 1 || spec.getProviders() < 1
+                || spec.getLinesPerOrder() < 1 || spec.getDays() < 1 || spec.getBatchSize() < 1) {
+            throw new IllegalArgumentException("Productos, categorías, usuarios, proveedores, líneas, días y lote deben ser al menos 1");
+        }
+        if (spec.getCustomerOrders() < 0 || spec.getPurchaseOrders() < 0 || spec.getLotsPerProduct() < 0) {
+            throw new IllegalArgumentException("Las cantidades de órdenes y lotes no pueden ser negativas");
+        }
+    }
+
+    private int[] insertCategories(DataGenSpec spec) {
+        int[] ids = reserveIds("category", spec.getCategories());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            rows.add(new Object[]{ids[i], "Categoría " + (i + 1), MARKER});
+        }
+        batchInsert("INSERT INTO category (id, name, description) VALUES (?, ?, ?)", rows, spec.getBatchSize());
+        return ids;
+    }
+
+    private int[] insertUsers(DataGenSpec spec) {
+        int[] ids = reserveIds("_user", spec.getUsers());
+        String password = passwordEncoder.encode("datagen");
+        List<Object[]> rows = new ArrayList<>();
+        for (int id : ids) {
+            rows.add(new Object[]{id, "Vendedor " + id, "vendedor" + id + EMAIL_DOMAIN, password});
+        }
+        batchInsert("INSERT INTO _user (id, nombre, email, password) VALUES (?, ?, ?, ?)", rows, spec.getBatchSize());
+        return ids;
+    }
+
+    private int[] insertProviders(DataGenSpec spec) {
+        int[] ids = reserveIds("provider", spec.getProviders());
+        List<Object[]> rows = new ArrayList<>();
+        for (int id : ids) {
+            rows.add(new Object[]{id, "Proveedor " + id, "proveedor" + id + EMAIL_DOMAIN});
+        }
+        batchInsert("INSERT INTO provider (id, name, email) VALUES (?, ?, ?)", rows, spec.getBatchSize());
+        return ids;
+    }
+
+    private Products insertProducts(DataGenSpec spec, int[] categories, SplittableRandom random) {
+        int[] codes = reserveIds("product", spec.getProducts());
+        long[] prices = new long[spec.getProducts()];
+        List<Object[]> rows = new ArrayList<>();
+        List<Object[]> links = new ArrayList<>();
+        for (int i = 0; i < spec.getProducts(); i++) {
+            int code = codes[i];
+            prices[i] = random.nextLong(100, 50_000);
+            rows.add(new Object[]{code, "Producto " + code, MARKER, Money.fromCents(prices[i])});
+            int category = categories[random.nextInt(categories.length)];
+            links.add(new Object[]{code, category});
+            //Uno de cada cinco productos tiene una segunda categoría
+            int second = categories[random.nextInt(categories.length)];
+            if (second != category && random.nextInt(5) == 0) {
+                links.add(new Object[]{code, second});
+            }
+        }
+        batchInsert("INSERT INTO product (code, name, description, price) VALUES (?, ?, ?, ?)", rows, spec.getBatchSize());
+        batchInsert("INSERT INTO product_category (product_code, category_id) VALUES (?, ?)", links, spec.getBatchSize());
+        return new Products(codes, prices);
+    }
+
+    private int insertLots(DataGenSpec spec, Products products, SplittableRandom random) {
+        int[] ids = reserveIds("product_inventory", products.codes().length * spec.getLotsPerProduct());
+        Integer lastBatch = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(batch_number), 0) FROM product_inventory", Integer.class);
+        LocalDate today = LocalDate.now();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        int lot = 0;
+        for (int code : products.codes()) {
+            for (int i = 0; i < spec.getLotsPerProduct(); i++) {
+                //Algunos lotes ya vencidos, la mayoría vence dentro del próximo año
+                LocalDate expiration = today.plusDays(random.nextInt(-10, 365));
+                rows.add(new Object[]{ids[lot], random.nextInt(0, 200), lastBatch + lot + 1, Date.valueOf(expiration), code, now});
+                lot++;
+            }
+        }
+        batchInsert("INSERT INTO product_inventory (id, stock, batch_number, expiration_date, inventory_product_id, updated_at) VALUES (?, ?, ?, ?, ?, ?)",
+                rows, spec.getBatchSize());
+        return ids.length;
+    }
+
+    //Órdenes y líneas por bloques de batchSize órdenes, cada bloque en su propia transacción.
+    //pricePercent aplica sobre el precio de venta (las compras salen más baratas); providers solo en compras
+    private long insertOrders(DataGenSpec spec, String table, String detailColumn, int[] users, int[] providers,
+                              int count, Products products, int pricePercent, LocalDate from,
+                              SplittableRandom random, Set<LocalDate> days) {
+        long lines = 0;
+        LocalDateTime now = LocalDateTime.now();
+        long secondsInRange = Duration.between(from.atStartOfDay(), now).getSeconds();
+        int maxLines = Math.max(1, spec.getLinesPerOrder() * 2 - 1);
+
+        for (int start = 0; start < count; start += spec.getBatchSize()) {
+            int end = Math.min(count, start + spec.getBatchSize());
+            int[] numbers = reserveIds(table, end - start);
+            List<Object[]> orders = new ArrayList<>(end - start);
+            List<Object[]> details = new ArrayList<>((end - start) * spec.getLinesPerOrder());
+            for (int i = start; i < end; i++) {
+                int number = numbers[i - start];
+                LocalDateTime createdAt = from.atStartOfDay().plusSeconds(random.nextLong(secondsInRange));
+                days.add(createdAt.toLocalDate());
+                long subtotal = 0;
+                int orderLines = random.nextInt(1, maxLines + 1);
+                for (int l = 0; l < orderLines; l++) {
+                    int product = products.pick(random);
+                    int quantity = random.nextInt(1, 11);
+                    long unitCents = products.prices()[product] * pricePercent / 100;
+                    subtotal += Money.lineCents(unitCents, quantity);
+                    details.add(new Object[]{null, quantity, Money.fromCents(unitCents), products.codes()[product], number});
+                }
+                Object[] order = {number, Date.valueOf(createdAt.toLocalDate()), IVA, random.nextInt(10) != 0,
+                        Timestamp.valueOf(createdAt), Money.fromCents(subtotal),
+                        Money.fromCents(subtotal + Money.percentOf(subtotal, IVA)), users[random.nextInt(users.length)], null};
+                if (providers != null) {
+                    order[8] = providers[random.nextInt(providers.length)];
+                }
+                orders.add(providers != null ? order : Arrays.copyOf(order, 8));
+            }
+            int[] detailIds = reserveIds("product_detail", details.size());
+            for (int d = 0; d < detailIds.length; d++) {
+                details.get(d)[0] = detailIds[d];
+            }
+            lines += details.size();
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate("""
+                        INSERT INTO %s (number, date, iva, aproved, created_at, subtotal, total, user_id%s)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?%s)
+                        """.formatted(table, providers != null ? ", provider_id" : "", providers != null ? ", ?" : ""), orders);
+                jdbcTemplate.batchUpdate("""
+                        INSERT INTO product_detail (id, quantity, unit_price, product_code, %s)
+                        VALUES (?, ?, ?, ?, ?)
+                        """.formatted(detailColumn), details);
+            });
+            if (end % (spec.getBatchSize() * 50) == 0) {
+                log.info("{}: {} de {} órdenes", table, end, count);
+            }
+        }
+        return lines;
+    }
+
+    private void batchInsert(String sql, List<Object[]> rows, int batchSize) {
+        for (int start = 0; start < rows.size(); start += batchSize) {
+            List<Object[]> batch = rows.subList(start, Math.min(rows.size(), start + batchSize));
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, batch));
+        }
+    }
+
+    //Cada nextval entrega un bloque de 50 ids, igual que al optimizador pooled de Hibernate. Según la versión
+    //el bloque de un valor v es [v-50, v-1] o [v-49, v]: solo se usa la parte común, así nadie más lo reparte
+    private int[] reserveIds(String table, int count) {
+        int[] ids = new int[count];
+        int filled = 0;
+        while (filled < count) {
+            int calls = (count - filled + SEQUENCE_INCREMENT - 2) / (SEQUENCE_INCREMENT - 1);
+            List<Long> values = jdbcTemplate.queryForList("SELECT nextval('%s_seq') FROM generate_series(1, ?)".formatted(table),
+                    Long.class, calls);
+            for (long value : values) {
+                for (long id = Math.max(1, value - SEQUENCE_INCREMENT + 1); id < value && filled < count; id++) {
+                    ids[filled++] = (int) id;
+                }
+            }
+        }
+        return ids;
+    }
+
+    private record Products(int[] codes, long[] prices) {
+        //Unos pocos productos concentran la mayoría de las ventas
+        int pick(SplittableRandom random) {
+            double r = random.nextDouble();
+            return (int) (r * r * codes.length);
+        }
+    }
+}
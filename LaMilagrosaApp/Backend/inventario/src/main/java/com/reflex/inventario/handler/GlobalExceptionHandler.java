@@ -1,9 +1,20 @@
 package com.reflex.inventario.handler;
 
 import com.reflex.inventario.handler.dto.ErrorMessage;
+import com.reflex.inventario.handler.exceptions.ApprovalQueueFullException;
+import com.reflex.inventario.handler.exceptions.BatchNumberConflictException;
+import com.reflex.inventario.handler.exceptions.IdempotencyKeyReusedException;
+import com.reflex.inventario.handler.exceptions.InvalidCursorException;
+import com.reflex.inventario.handler.exceptions.InvalidIdempotencyKeyException;
+import com.reflex.inventario.handler.exceptions.InvalidReceiptLineException;
+import com.reflex.inventario.handler.exceptions.InvalidReportParameterException;
 import com.reflex.inventario.handler.exceptions.InventoryNotFoundException;
+import com.reflex.inventario.handler.exceptions.JobNotFoundException;
+import com.reflex.inventario.handler.exceptions.OrderAlreadyApprovedException;
 import com.reflex.inventario.handler.exceptions.OrderNotFoundException;
 import com.reflex.inventario.handler.exceptions.ProductNotFoundException;
+import com.reflex.inventario.handler.exceptions.ReportQueueFullException;
+import com.reflex.inventario.handler.exceptions.StockConflictException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -43,7 +54,88 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(message);
     }
 
+    @ExceptionHandler(StockConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT) //409
+    public ResponseEntity<ErrorMessage> stockConflictException(StockConflictException exception) {
+        ErrorMessage message = new ErrorMessage( HttpStatus.CONFLICT ,exception.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(message);
+    }
+
+    @ExceptionHandler(OrderAlreadyApprovedException.class)
+    @ResponseStatus(HttpStatus.CONFLICT) //409
+    public ResponseEntity<ErrorMessage> orderAlreadyApprovedException(OrderAlreadyApprovedException exception) {
+        ErrorMessage message = new ErrorMessage( HttpStatus.CONFLICT ,exception.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(message);
+    }
+
+
+
+    @ExceptionHandler(BatchNumberConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT) //409
+    public ResponseEntity<ErrorMessage> batchNumberConflictException(BatchNumberConflictException exception) {
+        ErrorMessage message = new ErrorMessage( HttpStatus.CONFLICT ,exception.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(message);
+    }
 
+    @ExceptionHandler(JobNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND) //404
+    public ResponseEntity<ErrorMessage> jobNotFoundException(JobNotFoundException exception) {
+        ErrorMessage message = new ErrorMessage( HttpStatus.NOT_FOUND ,exception.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(message);
+    }
+
+    @ExceptionHandler(ApprovalQueueFullException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS) //429
+    public ResponseEntity<ErrorMessage> approvalQueueFullException(ApprovalQueueFullException exception) {
+        ErrorMessage message = new ErrorMessage( HttpStatus.TOO_MANY_REQUESTS ,exception.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(message);
+    }
+
+    @ExceptionHandler(ReportQueueFullException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS) //429
+    public ResponseEntity<ErrorMessage> reportQueueFullException(ReportQueueFullException exception) {
+        ErrorMessage message = new ErrorMessage( HttpStatus.TOO_MANY_REQUESTS ,exception.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(message);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST) //400
+    public ResponseEntity<ErrorMessage> invalidCursorException(InvalidCursorException exception) {
+        ErrorMessage message = new ErrorMessage( HttpStatus.BAD_REQUEST ,exception.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
+    }
+
+    @ExceptionHandler(InvalidReportParameterException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST) //400
+    public ResponseEntity<ErrorMessage> invalidReportParameterException(InvalidReportParameterException exception) {
+        ErrorMessage message = new ErrorMessage( HttpStatus.BAD_REQUEST ,exception.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
+    }
+
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST) //400
+    public ResponseEntity<ErrorMessage> invalidIdempotencyKeyException(InvalidIdempotencyKeyException exception) {
+        ErrorMessage message = new ErrorMessage( HttpStatus.BAD_REQUEST ,exception.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY) //422
+    public ResponseEntity<ErrorMessage> idempotencyKeyReusedException(IdempotencyKeyReusedException exception) {
+        ErrorMessage message = new ErrorMessage( HttpStatus.UNPROCESSABLE_ENTITY ,exception.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(message);
+    }
+
+    @ExceptionHandler(InvalidReceiptLineException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST) //400
+    public ResponseEntity<ErrorMessage> invalidReceiptLineException(InvalidReceiptLineException exception) {
+        ErrorMessage message = new ErrorMessage( HttpStatus.BAD_REQUEST ,exception.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
+    }
 
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, HttpHeaders headers, HttpStatusCode status, WebRequest request) {
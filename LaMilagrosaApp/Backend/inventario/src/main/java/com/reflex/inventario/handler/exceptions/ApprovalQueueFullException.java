@@ -0,0 +1,7 @@
+package com.reflex.inventario.handler.exceptions;
+
+public class ApprovalQueueFullException extends RuntimeException {
+    public ApprovalQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.reflex.inventario.handler.exceptions;
+
+public class BatchNumberConflictException extends RuntimeException {
+    public BatchNumberConflictException(String message) {
+        super(message);
+    }
+}
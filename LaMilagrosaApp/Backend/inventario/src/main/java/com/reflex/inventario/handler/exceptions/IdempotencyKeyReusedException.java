@@ -0,0 +1,7 @@
+package com.reflex.inventario.handler.exceptions;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.reflex.inventario.handler.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.reflex.inventario.handler.exceptions;
+
+public class InvalidIdempotencyKeyException extends RuntimeException {
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.reflex.inventario.handler.exceptions;
+
+public class InvalidReceiptLineException extends RuntimeException {
+    public InvalidReceiptLineException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.reflex.inventario.handler.exceptions;
+
+public class InvalidReportParameterException extends RuntimeException {
+    public InvalidReportParameterException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.reflex.inventario.handler.exceptions;
+
+public class JobNotFoundException extends RuntimeException {
+    public JobNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.reflex.inventario.handler.exceptions;
+
+public class OrderAlreadyApprovedException extends RuntimeException {
+    public OrderAlreadyApprovedException(String message) {
+        super(message);
+    }
+}
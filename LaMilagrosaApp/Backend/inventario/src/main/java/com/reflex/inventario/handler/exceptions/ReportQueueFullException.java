@@ -0,0 +1,7 @@
+package com.reflex.inventario.handler.exceptions;
+
+public class ReportQueueFullException extends RuntimeException {
+    public ReportQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.reflex.inventario.handler.exceptions;
+
+public class StockConflictException extends RuntimeException {
+    public StockConflictException(String message) {
+        super(message);
+    }
+}
@@ -14,6 +14,12 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_customer_order_created", columnList = "created_at, number"),
+        @Index(name = "idx_customer_order_user_created", columnList = "user_id, created_at, number"),
+        @Index(name = "idx_customer_order_aproved_created", columnList = "aproved, created_at, number"),
+        @Index(name = "idx_customer_order_created_user", columnList = "created_at, user_id, subtotal")
+})
 public class CustomerOrder extends Order {
 
     @OneToMany(cascade = CascadeType.ALL,
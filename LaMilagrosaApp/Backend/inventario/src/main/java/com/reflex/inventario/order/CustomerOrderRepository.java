@@ -1,13 +1,78 @@
 package com.reflex.inventario.order;
 
-import com.reflex.inventario.product.Product;
+import com.reflex.inventario.order.dto.OrderDetailRow;
+import com.reflex.inventario.order.dto.ReportLineRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CustomerOrderRepository extends JpaRepository<CustomerOrder, Integer> {
+public interface CustomerOrderRepository extends JpaRepository<CustomerOrder, Integer>, JpaSpecificationExecutor<CustomerOrder> {
     List<CustomerOrder> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to);
+
+    //Rango semiabierto [from, to): to es el inicio del día siguiente al último del reporte
+    long countByCreatedAtGreaterThanEqualAndCreatedAtLessThan(LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT o.createdAt FROM CustomerOrder o WHERE o.number = :number")
+    Optional<LocalDateTime> findCreatedAtByNumber(@Param("number") Integer number);
+
+    //Cursor de solo lectura para los reportes: las filas llegan de a bloques de fetchSize
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT o FROM CustomerOrder o JOIN FETCH o.user
+            WHERE o.createdAt >= :from AND o.createdAt < :to
+            ORDER BY o.createdAt, o.number
+            """)
+    Stream<CustomerOrder> streamByCreatedAtRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("""
+            SELECT new com.reflex.inventario.order.dto.ReportLineRow(d.customerOrder.number, p.name, d.quantity, d.unitPrice)
+            FROM ProductDetail d
+            LEFT JOIN d.product p
+            WHERE d.customerOrder.number IN :numbers
+            ORDER BY d.customerOrder.number, d.id
+            """)
+    List<ReportLineRow> findReportLinesByOrderNumbers(@Param("numbers") Collection<Integer> numbers);
+
+    //Cabecera, líneas y productos de la orden en una sola sentencia SQL
+    @Query("""
+    SELECT new com.reflex.inventario.order.dto.OrderDetailRow(
+        o.number, o.date, o.IVA, o.aproved, o.createdAt, u.id, u.nombre,
+        d.id, p.code, p.name, d.quantity, d.unitPrice)
+    FROM CustomerOrder o
+    JOIN o.user u
+    LEFT JOIN o.productsDetails d
+    LEFT JOIN d.product p
+    WHERE o.number = :number
+    ORDER BY d.id
+    """)
+    List<OrderDetailRow> findDetailRowsByNumber(@Param("number") Integer number);
+
+    @Query("SELECT DISTINCT d.product.code FROM ProductDetail d WHERE d.customerOrder.number = :number")
+    List<Integer> findProductCodesByOrderNumber(@Param("number") Integer number);
+
+    //Solo una aprobación concurrente puede pasar la orden de pendiente a aprobada
+    @Modifying
+    @Query("""
+    UPDATE CustomerOrder o
+    SET o.aproved = true
+    WHERE o.number = :number
+      AND (o.aproved = false OR o.aproved IS NULL)
+    """)
+    int markAsApproved(@Param("number") Integer number);
 }
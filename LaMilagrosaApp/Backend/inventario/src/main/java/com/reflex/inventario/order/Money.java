@@ -0,0 +1,36 @@
+package com.reflex.inventario.order;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+//Montos en centavos (long) para los ciclos que suman muchas líneas: la suma es exacta y no crea objetos.
+//Hacia afuera (entidades, DTOs, base de datos) los montos siguen siendo BigDecimal con 2 decimales
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    //Redondea a centavos con HALF_UP; falla si el monto no cabe en un long
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static long lineCents(long unitCents, int quantity) {
+        return Math.multiplyExact(unitCents, (long) quantity);
+    }
+
+    //Porcentaje de un monto (IVA) redondeado a centavos con HALF_UP, igual que BigDecimal
+    public static long percentOf(long cents, int percent) {
+        long scaled = Math.multiplyExact(cents, (long) percent);
+        return scaled >= 0 ? (scaled + 50) / 100 : -((-scaled + 50) / 100);
+    }
+}
@@ -1,12 +1,13 @@
 package com.reflex.inventario.order;
 
-import jakarta.persistence.Entity;
+import jakarta.persistence.Column;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -24,6 +25,9 @@ public class Order {
     private Integer IVA;
     private Boolean aproved;
     private LocalDateTime createdAt;
-
+    @Column(precision = 14, scale = 2)
+    private BigDecimal subtotal;//suma de las líneas sin IVA
+    @Column(precision = 14, scale = 2)
+    private BigDecimal total;//subtotal + IVA
 
 }
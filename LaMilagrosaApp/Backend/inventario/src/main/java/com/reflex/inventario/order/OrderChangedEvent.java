@@ -0,0 +1,19 @@
+package com.reflex.inventario.order;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+//Se publica cuando se crean, modifican, eliminan o aprueban órdenes; lleva los días (createdAt) afectados
+public record OrderChangedEvent(Set<LocalDate> days) {
+
+    public static OrderChangedEvent of(Collection<LocalDateTime> createdAt) {
+        return new OrderChangedEvent(createdAt.stream()
+                .filter(Objects::nonNull)
+                .map(LocalDateTime::toLocalDate)
+                .collect(Collectors.toSet()));
+    }
+}
@@ -1,7 +1,15 @@
 package com.reflex.inventario.order;
 
+import com.reflex.inventario.order.dto.BulkOrderResultDTO;
+import com.reflex.inventario.order.job.ApprovalJobDTO;
+import com.reflex.inventario.order.job.ApprovalJobService;
+import com.reflex.inventario.order.dto.OrderDetailDTO;
+import com.reflex.inventario.order.dto.OrderFilterDTO;
+import com.reflex.inventario.order.dto.OrderPageDTO;
 import com.reflex.inventario.order.dto.OrderReqDTO;
 import com.reflex.inventario.order.dto.OrderResDTO;
+import com.reflex.inventario.order.dto.PurchaseReceiptReqDTO;
+import com.reflex.inventario.order.idempotency.IdempotencyService;
 import com.reflex.inventario.order.service.OrderService;
 import com.reflex.inventario.product.dto.ProductReqDTO;
 import com.reflex.inventario.product.dto.ProductResDTO;
@@ -11,20 +19,25 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Set;
+import java.util.List;
 
 @RestController
 @RequestMapping("order")
 @RequiredArgsConstructor
 public class OrderController {
     private final OrderService orderService;
+    private final ApprovalJobService approvalJobService;
+    private final IdempotencyService idempotencyService;
 
 
     //Customer Orders
 
     @GetMapping("customer/findAllOrders")
-    public ResponseEntity<Set<OrderResDTO>> getAllCustomerOrders() {
-        return ResponseEntity.ok(orderService.getCustomerOrders());
+    public ResponseEntity<OrderPageDTO> getAllCustomerOrders(
+            OrderFilterDTO filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(orderService.getCustomerOrders(filter, cursor, size));
     }
 
     @GetMapping("customer/{id}")
@@ -32,11 +45,26 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getCustomerOrderById(id));
     }
 
+    @GetMapping("customer/{id}/detail")
+    public ResponseEntity<OrderDetailDTO> getCustomerOrderDetail(@PathVariable Integer id) {
+        return ResponseEntity.ok(orderService.getCustomerOrderDetail(id));
+    }
+
     @PostMapping("customer/register/{email}")
     public ResponseEntity<OrderResDTO> createCustomerOrder(
             @PathVariable String email,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody OrderReqDTO orderReqDTO) {
-        return ResponseEntity.accepted().body(orderService.addCustomerOrder(email, orderReqDTO));
+        return ResponseEntity.accepted().body(idempotencyService.execute(
+                "customer:" + email, idempotencyKey, orderReqDTO, () -> orderService.addCustomerOrder(email, orderReqDTO)));
+    }
+
+    //Carga masiva desde los puntos de venta al recuperar la conexión
+    @PostMapping("customer/register/bulk/{email}")
+    public ResponseEntity<List<BulkOrderResultDTO>> createCustomerOrders(
+            @PathVariable String email,
+            @RequestBody List<OrderReqDTO> orders) {
+        return ResponseEntity.accepted().body(orderService.addCustomerOrders(email, orders));
     }
 
     @PutMapping("customer/update/{id}")
@@ -62,6 +90,19 @@ public class OrderController {
         return "La orden con id " + id + " ha sido aprovada";
     }
 
+    //Encola la aprobación y responde de inmediato con el trabajo; el resultado llega por /topic/ordenes
+    @PostMapping("customer/aproveOrder/{id}/async")
+    public ResponseEntity<ApprovalJobDTO> aproveCustomerOrderAsync(
+            @PathVariable Integer id
+    ) {
+        return ResponseEntity.accepted().body(approvalJobService.submitCustomerOrderApproval(id));
+    }
+
+    @GetMapping("jobs/{jobId}")
+    public ResponseEntity<ApprovalJobDTO> getApprovalJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(approvalJobService.getJob(jobId));
+    }
+
 
 
 
@@ -69,8 +110,11 @@ public class OrderController {
     //Purchase orders
 
     @GetMapping("purchase/findAllOrders")
-    public ResponseEntity<Set<OrderResDTO>> getAllPurchaseOrders() {
-        return ResponseEntity.ok(orderService.getPurchaseOrders());
+    public ResponseEntity<OrderPageDTO> getAllPurchaseOrders(
+            OrderFilterDTO filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(orderService.getPurchaseOrders(filter, cursor, size));
     }
 
     @GetMapping("purchase/{id}")
@@ -78,15 +122,29 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getPurchaseOrderById(id));
     }
 
+    @GetMapping("purchase/{id}/detail")
+    public ResponseEntity<OrderDetailDTO> getPurchaseOrderDetail(@PathVariable Integer id) {
+        return ResponseEntity.ok(orderService.getPurchaseOrderDetail(id));
+    }
+
     @PostMapping("purchase/register/{email}")
     public ResponseEntity<OrderResDTO> createPurchaseOrder(
             @PathVariable String email,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid  @RequestBody OrderReqDTO orderReqDTO) {
-        return ResponseEntity.accepted().body(orderService.addPurchaseOrder(email, orderReqDTO));
+        return ResponseEntity.accepted().body(idempotencyService.execute(
+                "purchase:" + email, idempotencyKey, orderReqDTO, () -> orderService.addPurchaseOrder(email, orderReqDTO)));
     }
 
 
 
+    @PostMapping("purchase/register/bulk/{email}")
+    public ResponseEntity<List<BulkOrderResultDTO>> createPurchaseOrders(
+            @PathVariable String email,
+            @RequestBody List<OrderReqDTO> orders) {
+        return ResponseEntity.accepted().body(orderService.addPurchaseOrders(email, orders));
+    }
+
     @PutMapping("purchase/update/{id}")
     public ResponseEntity<OrderResDTO> updatePurchaseOrder(
             @PathVariable Integer id,
@@ -102,11 +160,13 @@ public class OrderController {
     }
 
 
+    //Opcionalmente recibe la mercancía: un lote con número y vencimiento por cada detalle de la orden
     @PostMapping("purchase/aproveOrder/{id}")
     public String aprovePruchaseOrder(
-            @PathVariable Integer id
+            @PathVariable Integer id,
+            @Valid @RequestBody(required = false) PurchaseReceiptReqDTO receipt
     ) {
-        orderService.aprovePurchaseOrder(id);
+        orderService.aprovePurchaseOrder(id, receipt);
         return "La orden con id " + id + " ha sido aprovada";
     }
 
@@ -0,0 +1,38 @@
+package com.reflex.inventario.order;
+
+import com.reflex.inventario.handler.exceptions.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+//Posición (createdAt, number) de la última orden entregada; la siguiente página empieza justo después
+@Getter
+@AllArgsConstructor
+public class OrderCursor {
+    private LocalDateTime createdAt;
+    private Integer number;
+
+    public static OrderCursor of(Order order) {
+        return new OrderCursor(order.getCreatedAt(), order.getNumber());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + number;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new OrderCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Integer.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("El cursor de paginación no es válido");
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package com.reflex.inventario.order;
 
+import com.reflex.inventario.order.dto.OrderDetailDTO;
+import com.reflex.inventario.order.dto.OrderDetailRow;
+import com.reflex.inventario.order.dto.OrderLineDTO;
 import com.reflex.inventario.order.dto.OrderReqDTO;
 import com.reflex.inventario.order.dto.OrderResDTO;
+import com.reflex.inventario.order.dto.ProductDetailDTO;
 import com.reflex.inventario.product.Product;
 import com.reflex.inventario.product.ProductRepository;
-import com.reflex.inventario.product.dto.ProductReqDTO;
-import com.reflex.inventario.product.dto.ProductResDTO;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
@@ -21,24 +31,25 @@ public class OrderMapper {
     private final ProductRepository productRepository;
 
     public CustomerOrder DTOtoCustomerOrder(OrderReqDTO orderReqDTO) {
+        return DTOtoCustomerOrder(orderReqDTO, findProducts(List.of(orderReqDTO)));
+    }
+
+    public CustomerOrder DTOtoCustomerOrder(OrderReqDTO orderReqDTO, Map<Integer, Product> products) {
         var order = CustomerOrder.builder()
                 .date(orderReqDTO.getDate())
                 .IVA(orderReqDTO.getIVA())
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        Set<ProductDetail> details = orderReqDTO.getProductsDetails().stream().map(detailDto -> {
-            Product product = productRepository.findById(detailDto.getProductCode())
-                    .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado con código: " + detailDto.getProductCode()));
-
-            return ProductDetail.builder()
-                    .quantity(detailDto.getQuantity())
-                    .product(product)
-                    .customerOrder(order)
-                    .build();
-        }).collect(Collectors.toSet());
+        Set<ProductDetail> details = orderReqDTO.getProductsDetails().stream().map(detailDto -> ProductDetail.builder()
+                .quantity(detailDto.getQuantity())
+                .product(getProduct(products, detailDto.getProductCode()))
+                .customerOrder(order)
+                .build()
+        ).collect(Collectors.toSet());
 
         order.setProductsDetails(details);
+        applyTotals(order, details);
         return order;
     }
 
@@ -53,25 +64,26 @@ public class OrderMapper {
 
 
     public PurchaseOrder DTOtoPurchaseOrder(OrderReqDTO orderReqDTO) {
+        return DTOtoPurchaseOrder(orderReqDTO, findProducts(List.of(orderReqDTO)));
+    }
+
+    public PurchaseOrder DTOtoPurchaseOrder(OrderReqDTO orderReqDTO, Map<Integer, Product> products) {
         var order = PurchaseOrder.builder()
                 .date(orderReqDTO.getDate())
                 .IVA(orderReqDTO.getIVA())
                 .createdAt(LocalDateTime.now())
                 .build();
-        Set<ProductDetail> details = orderReqDTO.getProductsDetails().stream().map(detailDto -> {
-            Product product = productRepository.findById(detailDto.getProductCode())
-                    .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado con código: " + detailDto.getProductCode()));
-
-            return ProductDetail.builder()
-                    .quantity(detailDto.getQuantity())
-                    .product(product)
-                    .purchaseOrder(order)
-                    .build();
-        }).collect(Collectors.toSet());
+        Set<ProductDetail> details = orderReqDTO.getProductsDetails().stream().map(detailDto -> ProductDetail.builder()
+                .quantity(detailDto.getQuantity())
+                .product(getProduct(products, detailDto.getProductCode()))
+                .purchaseOrder(order)
+                .build()
+        ).collect(Collectors.toSet());
 
         order.setProductsDetails(details);
+        applyTotals(order, details);
         return order;
-        }
+    }
 
     public OrderResDTO purchaseOrderToDTO(PurchaseOrder purchaseOrder) {
         return OrderResDTO.builder()
@@ -82,4 +94,96 @@ public class OrderMapper {
                 .providerId(purchaseOrder.getProvider().getId())
                 .build();
     }
+
+    //Carga con una sola consulta todos los productos referenciados por las órdenes
+    public Map<Integer, Product> findProducts(Collection<OrderReqDTO> orders) {
+        Set<Integer> codes = orders.stream()
+                .filter(order -> order.getProductsDetails() != null)
+                .flatMap(order -> order.getProductsDetails().stream())
+                .map(ProductDetailDTO::getProductCode)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return productRepository.findAllById(codes).stream()
+                .collect(Collectors.toMap(Product::getCode, Function.identity()));
+    }
+
+    //Congela el precio de cada línea y deja calculados los totales de la orden al escribirla
+    private void applyTotals(Order order, Set<ProductDetail> details) {
+        long subtotalCents = 0;
+        for (ProductDetail detail : details) {
+            detail.setUnitPrice(toMoney(detail.getProduct().getPrice()));
+            subtotalCents = Math.addExact(subtotalCents,
+                    Money.lineCents(Money.toCents(detail.getUnitPrice()), detail.getQuantity()));
+        }
+        order.setSubtotal(Money.fromCents(subtotalCents));
+        order.setTotal(Money.fromCents(Math.addExact(subtotalCents, ivaCents(subtotalCents, order.getIVA()))));
+    }
+
+    private long ivaCents(long subtotalCents, Integer iva) {
+        return Money.percentOf(subtotalCents, iva == null ? 0 : iva);
+    }
+
+    private BigDecimal toMoney(BigDecimal price) {
+        return price == null
+                ? BigDecimal.ZERO.setScale(Money.SCALE)
+                : price.setScale(Money.SCALE, RoundingMode.HALF_UP);
+    }
+
+    private Product getProduct(Map<Integer, Product> products, Integer code) {
+        Product product = products.get(code);
+        if (product == null) {
+            throw new EntityNotFoundException("Producto no encontrado con código: " + code);
+        }
+        return product;
+    }
+
+    public OrderDetailDTO rowsToCustomerOrderDetail(List<OrderDetailRow> rows) {
+        OrderDetailRow header = rows.get(0);
+        OrderDetailDTO detail = rowsToOrderDetail(rows);
+        detail.setUserId(header.getPartyId());
+        detail.setUserName(header.getPartyName());
+        return detail;
+    }
+
+    public OrderDetailDTO rowsToPurchaseOrderDetail(List<OrderDetailRow> rows) {
+        OrderDetailRow header = rows.get(0);
+        OrderDetailDTO detail = rowsToOrderDetail(rows);
+        detail.setProviderId(header.getPartyId());
+        detail.setProviderName(header.getPartyName());
+        return detail;
+    }
+
+    private OrderDetailDTO rowsToOrderDetail(List<OrderDetailRow> rows) {
+        OrderDetailRow header = rows.get(0);
+        List<OrderLineDTO> lines = new ArrayList<>(rows.size());
+        long subtotalCents = 0;
+        for (OrderDetailRow row : rows) {
+            if (row.getDetailId() == null) {
+                continue;//orden sin líneas
+            }
+            BigDecimal unitPrice = row.getUnitPrice() == null ? BigDecimal.ZERO : row.getUnitPrice();
+            long lineCents = Money.lineCents(Money.toCents(unitPrice), row.getQuantity());
+            lines.add(OrderLineDTO.builder()
+                    .detailId(row.getDetailId())
+                    .productCode(row.getProductCode())
+                    .productName(row.getProductName())
+                    .quantity(row.getQuantity())
+                    .unitPrice(unitPrice)
+                    .subtotal(Money.fromCents(lineCents))
+                    .build());
+            subtotalCents = Math.addExact(subtotalCents, lineCents);
+        }
+        long ivaCents = ivaCents(subtotalCents, header.getIVA());
+        return OrderDetailDTO.builder()
+                .number(header.getNumber())
+                .date(header.getDate())
+                .IVA(header.getIVA())
+                .aproved(header.getAproved())
+                .createdAt(header.getCreatedAt())
+                .lines(lines)
+                .subtotal(Money.fromCents(subtotalCents))
+                .ivaAmount(Money.fromCents(ivaCents))
+                .total(Money.fromCents(Math.addExact(subtotalCents, ivaCents)))
+                .build();
+    }
 }
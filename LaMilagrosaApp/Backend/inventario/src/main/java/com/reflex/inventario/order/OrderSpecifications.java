@@ -0,0 +1,55 @@
+package com.reflex.inventario.order;
+
+import com.reflex.inventario.order.dto.OrderFilterDTO;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class OrderSpecifications {
+
+    //Orden estable para la paginación por cursor: más recientes primero
+    public static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "createdAt")
+            .and(Sort.by(Sort.Direction.DESC, "number"));
+
+    private OrderSpecifications() {
+    }
+
+    public static <T extends Order> Specification<T> filter(OrderFilterDTO filter, OrderCursor cursor) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getAproved() != null) {
+                predicates.add(cb.equal(root.get("aproved"), filter.getAproved()));
+            }
+            if (filter.getUserId() != null) {
+                predicates.add(cb.equal(root.get("user").get("id"), filter.getUserId()));
+            }
+            if (filter.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filter.getFrom().atStartOfDay()));
+            }
+            if (filter.getTo() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), filter.getTo().plusDays(1).atStartOfDay()));
+            }
+            if (cursor != null) {
+                //(createdAt, number) < (cursor.createdAt, cursor.number)
+                predicates.add(cb.or(
+                        cb.lessThan(root.get("createdAt"), cursor.getCreatedAt()),
+                        cb.and(
+                                cb.equal(root.get("createdAt"), cursor.getCreatedAt()),
+                                cb.lessThan(root.get("number"), cursor.getNumber()))));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    //Solo las órdenes de compra tienen proveedor; en las de venta el filtro providerId no aplica
+    public static Specification<PurchaseOrder> purchaseFilter(OrderFilterDTO filter, OrderCursor cursor) {
+        Specification<PurchaseOrder> specification = filter(filter, cursor);
+        if (filter.getProviderId() == null) {
+            return specification;
+        }
+        return specification.and((root, query, cb) -> cb.equal(root.get("provider").get("id"), filter.getProviderId()));
+    }
+}
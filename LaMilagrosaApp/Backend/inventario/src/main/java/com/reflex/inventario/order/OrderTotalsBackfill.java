@@ -0,0 +1,44 @@
+package com.reflex.inventario.order;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+//Completa precio de línea y totales en las órdenes creadas antes de que existieran esas columnas.
+//Solo toca filas con valores nulos, así que en arranques posteriores no hace nada
+@Component
+@RequiredArgsConstructor
+public class OrderTotalsBackfill {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        jdbcTemplate.update("""
+                UPDATE product_detail d
+                SET unit_price = (SELECT ROUND(CAST(p.price AS NUMERIC), 2) FROM product p WHERE p.code = d.product_code)
+                WHERE d.unit_price IS NULL
+                """);
+        backfillOrders("customer_order", "customer_order_number");
+        backfillOrders("purchase_order", "purchase_order_number");
+    }
+
+    private void backfillOrders(String table, String detailColumn) {
+        jdbcTemplate.update("""
+                UPDATE %s o
+                SET subtotal = (SELECT COALESCE(SUM(d.unit_price * d.quantity), 0)
+                                FROM product_detail d
+                                WHERE d.%s = o.number)
+                WHERE o.subtotal IS NULL
+                """.formatted(table, detailColumn));
+        jdbcTemplate.update("""
+                UPDATE %s
+                SET total = ROUND(subtotal * (100 + COALESCE(iva, 0)) / 100, 2)
+                WHERE total IS NULL
+                """.formatted(table));
+    }
+}
@@ -4,7 +4,7 @@ import com.reflex.inventario.product.Product;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.time.LocalDate;
+import java.math.BigDecimal;
 
 @Getter
 @Setter
@@ -12,12 +12,17 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table( name = "product_detail")
+@Table( name = "product_detail", indexes = {
+        @Index(name = "idx_product_detail_customer_order", columnList = "customer_order_number, product_code"),
+        @Index(name = "idx_product_detail_purchase_order", columnList = "purchase_order_number, product_code")
+})
 public class ProductDetail {
     @Id
     @GeneratedValue
     private Integer id;
     private Integer quantity;//cantidad - unidades
+    @Column(precision = 12, scale = 2)
+    private BigDecimal unitPrice;//precio del producto al momento de la venta/compra
 
     @ManyToOne()
     @JoinColumn(name = "product_code", nullable = true )
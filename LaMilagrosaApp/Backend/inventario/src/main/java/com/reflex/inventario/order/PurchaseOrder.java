@@ -16,6 +16,12 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_purchase_order_created", columnList = "created_at, number"),
+        @Index(name = "idx_purchase_order_user_created", columnList = "user_id, created_at, number"),
+        @Index(name = "idx_purchase_order_provider_created", columnList = "provider_id, created_at, number"),
+        @Index(name = "idx_purchase_order_aproved_created", columnList = "aproved, created_at, number")
+})
 public class PurchaseOrder extends  Order{
 
     @OneToMany(cascade = CascadeType.ALL,
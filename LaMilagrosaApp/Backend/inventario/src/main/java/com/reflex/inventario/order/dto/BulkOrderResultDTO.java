@@ -0,0 +1,15 @@
+package com.reflex.inventario.order.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkOrderResultDTO {
+    private Integer index;//posición de la orden en la petición
+    private Boolean created;
+    private OrderResDTO order;
+    private String error;
+}
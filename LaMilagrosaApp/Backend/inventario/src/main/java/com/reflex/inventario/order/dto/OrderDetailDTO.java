@@ -0,0 +1,29 @@
+package com.reflex.inventario.order.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderDetailDTO {
+    private Integer number;
+    private LocalDate date;
+    private Integer IVA;
+    private Boolean aproved;
+    private LocalDateTime createdAt;
+    private Integer userId;
+    private String userName;
+    private Integer providerId;
+    private String providerName;
+    private List<OrderLineDTO> lines;
+    private BigDecimal subtotal;
+    private BigDecimal ivaAmount;
+    private BigDecimal total;
+}
@@ -0,0 +1,26 @@
+package com.reflex.inventario.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//Fila plana (cabecera + línea) que devuelve la consulta de detalle de una orden
+@Getter
+@AllArgsConstructor
+public class OrderDetailRow {
+    private Integer number;
+    private LocalDate date;
+    private Integer IVA;
+    private Boolean aproved;
+    private LocalDateTime createdAt;
+    private Integer partyId;//usuario en ventas, proveedor en compras
+    private String partyName;
+    private Integer detailId;
+    private Integer productCode;
+    private String productName;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+}
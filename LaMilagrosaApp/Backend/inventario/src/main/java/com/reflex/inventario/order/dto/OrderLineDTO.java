@@ -0,0 +1,19 @@
+package com.reflex.inventario.order.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderLineDTO {
+    private Integer detailId;
+    private Integer productCode;
+    private String productName;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal subtotal;
+}
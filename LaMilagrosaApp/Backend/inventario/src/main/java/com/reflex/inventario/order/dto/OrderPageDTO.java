@@ -0,0 +1,15 @@
+package com.reflex.inventario.order.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderPageDTO {
+    private List<OrderResDTO> content;
+    private String nextCursor;//null cuando no hay más páginas
+}
@@ -0,0 +1,14 @@
+package com.reflex.inventario.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+//Cantidad de órdenes y suma de subtotales de un rango, calculadas en la base de datos
+@Getter
+@AllArgsConstructor
+public class OrderTotalsRow {
+    private Long count;
+    private BigDecimal amount;
+}
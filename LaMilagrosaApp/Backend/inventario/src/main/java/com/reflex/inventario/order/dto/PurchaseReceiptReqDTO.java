@@ -0,0 +1,16 @@
+package com.reflex.inventario.order.dto;
+
+import jakarta.validation.Valid;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PurchaseReceiptReqDTO {
+    @Valid
+    private List<ReceiptLineDTO> lines;
+}
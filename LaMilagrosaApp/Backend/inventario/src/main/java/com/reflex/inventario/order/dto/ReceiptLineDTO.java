@@ -0,0 +1,27 @@
+package com.reflex.inventario.order.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReceiptLineDTO {
+    @NotNull(message = "El detalle de la orden no puede estar vacío")
+    private Integer detailId;
+
+    @NotNull(message = "El número de lote no puede estar vacío")
+    @Positive(message = "El número de lote debe ser mayor que 0")
+    private Integer batchNumber;
+
+    @NotNull(message = "La fecha de vencimiento no puede estar vacía")
+    @Future(message = "La fecha de vencimiento debe ser en el futuro")
+    private LocalDate expirationDate;
+
+    @PositiveOrZero(message = "El stock debe ser mayor o igual a 0")
+    private Integer stock;//si no se envía se recibe la cantidad del detalle
+}
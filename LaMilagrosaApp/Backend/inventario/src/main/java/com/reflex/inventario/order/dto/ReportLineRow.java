@@ -0,0 +1,16 @@
+package com.reflex.inventario.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+//Línea de orden reducida a lo que imprime el reporte PDF
+@Getter
+@AllArgsConstructor
+public class ReportLineRow {
+    private Integer orderNumber;
+    private String productName;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+}
@@ -0,0 +1,25 @@
+package com.reflex.inventario.order.idempotency;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table( name = "idempotency_record",
+        indexes = @Index(name = "idx_idempotency_created", columnList = "created_at"))
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "idempotency_key", length = 64)
+    private String key;//SHA-256 de alcance + clave enviada por el cliente
+    @Column(length = 64)
+    private String requestHash;//SHA-256 del cuerpo de la petición original
+    @Column(columnDefinition = "text")
+    private String response;//OrderResDTO serializado
+    private LocalDateTime createdAt;
+}
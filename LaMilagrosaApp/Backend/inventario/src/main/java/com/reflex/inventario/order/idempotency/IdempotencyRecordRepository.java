@@ -0,0 +1,30 @@
+package com.reflex.inventario.order.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :limit")
+    int deleteOlderThan(@Param("limit") LocalDateTime limit);
+
+    //Sin merge: una clave repetida debe fallar dentro de la transacción de la orden
+    @Modifying
+    @Query(value = """
+            INSERT INTO idempotency_record (idempotency_key, request_hash, response, created_at)
+            VALUES (:key, :requestHash, :response, :createdAt)
+            """, nativeQuery = true)
+    void insert(@Param("key") String key,
+                @Param("requestHash") String requestHash,
+                @Param("response") String response,
+                @Param("createdAt") LocalDateTime createdAt);
+}
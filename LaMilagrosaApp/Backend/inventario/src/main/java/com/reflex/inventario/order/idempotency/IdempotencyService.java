@@ -0,0 +1,236 @@
+package com.reflex.inventario.order.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.reflex.inventario.handler.exceptions.IdempotencyKeyReusedException;
+import com.reflex.inventario.handler.exceptions.InvalidIdempotencyKeyException;
+import com.reflex.inventario.order.dto.OrderResDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+//Guarda la respuesta de cada creación de orden por Idempotency-Key para que los reintentos
+//del cliente reciban la misma orden en vez de crear un duplicado
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 200;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final boolean persistent;
+    private final Map<String, StoredResponse> responses;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${app.idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${app.idempotency.ttl-minutes:1440}") long ttlMinutes,
+                              @Value("${app.idempotency.persistent:false}") boolean persistent) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.persistent = persistent;
+        //LRU acotado: al superar el máximo se descarta la entrada usada hace más tiempo
+        this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    //La acción se ejecuta en la misma transacción que el registro idempotente: nunca queda
+    //una orden confirmada sin su registro, ni un registro sin su orden
+    public OrderResDTO execute(String scope, String idempotencyKey, Object request, Supplier<OrderResDTO> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException("El encabezado Idempotency-Key no puede superar " + MAX_KEY_LENGTH + " caracteres");
+        }
+        //Alcance + correo + clave pueden superar la columna: se guarda su SHA-256
+        String key = sha256(scope + ":" + idempotencyKey);
+        String requestHash = sha256(canonicalJson(request));
+        Optional<OrderResDTO> stored = find(key, requestHash);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        //Los duplicados concurrentes esperan a la primera petición en vez de competir con ella
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            checkSameRequest(running.requestHash(), requestHash);
+            return await(running.response());
+        }
+        try {
+            OrderResDTO response = find(key, requestHash).orElseGet(() -> create(key, requestHash, action));
+            mine.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60 * 60 * 1000)
+    public void evictExpired() {
+        LocalDateTime limit = LocalDateTime.now().minus(ttl);
+        synchronized (responses) {
+            responses.values().removeIf(stored -> stored.storedAt().isBefore(limit));
+        }
+        if (persistent) {
+            idempotencyRecordRepository.deleteOlderThan(limit);
+        }
+    }
+
+    private OrderResDTO create(String key, String requestHash, Supplier<OrderResDTO> action) {
+        LocalDateTime now = LocalDateTime.now();
+        OrderResDTO created = transactionTemplate.execute(status -> {
+            OrderResDTO response = action.get();
+            if (persistent) {
+                //INSERT explícito: si otra instancia ya registró la clave falla y la orden se revierte
+                idempotencyRecordRepository.insert(key, requestHash, toJson(response), now);
+            }
+            return response;
+        });
+        remember(key, new StoredResponse(created, requestHash, now));
+        return created;
+    }
+
+    private Optional<OrderResDTO> find(String key, String requestHash) {
+        LocalDateTime limit = LocalDateTime.now().minus(ttl);
+        synchronized (responses) {
+            StoredResponse stored = responses.get(key);
+            if (stored != null) {
+                if (stored.storedAt().isAfter(limit)) {
+                    checkSameRequest(stored.requestHash(), requestHash);
+                    return Optional.of(stored.response());
+                }
+                responses.remove(key);
+            }
+        }
+        if (!persistent) {
+            return Optional.empty();
+        }
+        return idempotencyRecordRepository.findById(key)
+                .filter(record -> record.getCreatedAt().isAfter(limit))
+                .map(record -> {
+                    checkSameRequest(record.getRequestHash(), requestHash);
+                    OrderResDTO response = fromJson(record.getResponse());
+                    remember(key, new StoredResponse(response, record.getRequestHash(), record.getCreatedAt()));
+                    return response;
+                });
+    }
+
+    private void checkSameRequest(String storedHash, String requestHash) {
+        if (!requestHash.equals(storedHash)) {
+            throw new IdempotencyKeyReusedException("La Idempotency-Key ya se usó con una petición distinta");
+        }
+    }
+
+    private void remember(String key, StoredResponse stored) {
+        synchronized (responses) {
+            responses.put(key, stored);
+        }
+    }
+
+    private OrderResDTO await(CompletableFuture<OrderResDTO> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió la espera de la petición original", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    //JSON con los campos ordenados; los arreglos también, porque en la orden son conjuntos
+    //(productsDetails) y su orden de serialización no lo decide el cliente
+    private String canonicalJson(Object request) {
+        return canonical(objectMapper.valueToTree(request)).toString();
+    }
+
+    private JsonNode canonical(JsonNode node) {
+        if (node.isObject()) {
+            Map<String, JsonNode> fields = new TreeMap<>();
+            node.fields().forEachRemaining(field -> fields.put(field.getKey(), canonical(field.getValue())));
+            ObjectNode sorted = objectMapper.createObjectNode();
+            fields.forEach(sorted::set);
+            return sorted;
+        }
+        if (node.isArray()) {
+            List<JsonNode> items = new ArrayList<>();
+            node.forEach(item -> items.add(canonical(item)));
+            items.sort(Comparator.comparing(JsonNode::toString));
+            ArrayNode sorted = objectMapper.createArrayNode();
+            items.forEach(sorted::add);
+            return sorted;
+        }
+        return node;
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(OrderResDTO response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo guardar la respuesta idempotente", e);
+        }
+    }
+
+    private OrderResDTO fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, OrderResDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer la respuesta idempotente", e);
+        }
+    }
+
+    private record StoredResponse(OrderResDTO response, String requestHash, LocalDateTime storedAt) {
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<OrderResDTO> response) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.reflex.inventario.order.job;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApprovalJobDTO {
+    private String jobId;
+    private Integer orderNumber;
+    private ApprovalJobStatus status;
+    private String message;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+}
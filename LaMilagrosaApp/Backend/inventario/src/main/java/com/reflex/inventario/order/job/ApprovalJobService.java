@@ -0,0 +1,87 @@
+package com.reflex.inventario.order.job;
+
+import com.reflex.inventario.alert.AlertWebSocketService;
+import com.reflex.inventario.handler.exceptions.ApprovalQueueFullException;
+import com.reflex.inventario.handler.exceptions.JobNotFoundException;
+import com.reflex.inventario.order.service.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+public class ApprovalJobService {
+
+    private static final long FINISHED_JOB_RETENTION_MINUTES = 60;
+
+    private final OrderService orderService;
+    private final ThreadPoolTaskExecutor orderApprovalExecutor;
+    private final AlertWebSocketService alertWebSocketService;
+    private final Map<String, ApprovalJobDTO> jobs = new ConcurrentHashMap<>();
+
+    public ApprovalJobService(OrderService orderService,
+                              @Qualifier("orderApprovalExecutor") ThreadPoolTaskExecutor orderApprovalExecutor,
+                              AlertWebSocketService alertWebSocketService) {
+        this.orderService = orderService;
+        this.orderApprovalExecutor = orderApprovalExecutor;
+        this.alertWebSocketService = alertWebSocketService;
+    }
+
+    public ApprovalJobDTO submitCustomerOrderApproval(Integer orderNumber) {
+        ApprovalJobDTO job = ApprovalJobDTO.builder()
+                .jobId(UUID.randomUUID().toString())
+                .orderNumber(orderNumber)
+                .status(ApprovalJobStatus.PENDIENTE)
+                .submittedAt(LocalDateTime.now())
+                .build();
+        jobs.put(job.getJobId(), job);
+        try {
+            orderApprovalExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getJobId());
+            throw new ApprovalQueueFullException("La cola de aprobaciones está llena, intente de nuevo en unos segundos");
+        }
+        return job;
+    }
+
+    public ApprovalJobDTO getJob(String jobId) {
+        ApprovalJobDTO job = jobs.get(jobId);
+        if (job == null) {
+            throw new JobNotFoundException("El trabajo con id " + jobId + " no ha sido encontrado.");
+        }
+        return job;
+    }
+
+    //Cada cambio de estado reemplaza la entrada del mapa para que los hilos que consultan vean una copia completa
+    private void run(ApprovalJobDTO job) {
+        jobs.put(job.getJobId(), job.toBuilder().status(ApprovalJobStatus.EN_PROCESO).build());
+        ApprovalJobDTO.ApprovalJobDTOBuilder finished = job.toBuilder();
+        try {
+            orderService.aproveCustomerOrder(job.getOrderNumber());
+            finished.status(ApprovalJobStatus.COMPLETADO)
+                    .message("La orden con id " + job.getOrderNumber() + " ha sido aprovada");
+        } catch (RuntimeException e) {
+            log.warn("No se pudo aprobar la orden {}: {}", job.getOrderNumber(), e.getMessage());
+            finished.status(ApprovalJobStatus.FALLIDO)
+                    .message(e.getMessage());
+        }
+        ApprovalJobDTO result = finished.finishedAt(LocalDateTime.now()).build();
+        jobs.put(job.getJobId(), result);
+        alertWebSocketService.sendOrderJobStatus(result);
+    }
+
+    //Los trabajos terminados solo se conservan el tiempo suficiente para ser consultados
+    @Scheduled(fixedDelay = 10 * 60 * 1000)
+    public void evictFinishedJobs() {
+        LocalDateTime limit = LocalDateTime.now().minusMinutes(FINISHED_JOB_RETENTION_MINUTES);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(limit));
+    }
+}
@@ -0,0 +1,8 @@
+package com.reflex.inventario.order.job;
+
+public enum ApprovalJobStatus {
+    PENDIENTE,
+    EN_PROCESO,
+    COMPLETADO,
+    FALLIDO
+}
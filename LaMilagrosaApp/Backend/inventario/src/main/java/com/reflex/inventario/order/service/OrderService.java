@@ -1,25 +1,33 @@
 package com.reflex.inventario.order.service;
 
+import com.reflex.inventario.order.dto.BulkOrderResultDTO;
+import com.reflex.inventario.order.dto.OrderDetailDTO;
+import com.reflex.inventario.order.dto.OrderFilterDTO;
+import com.reflex.inventario.order.dto.OrderPageDTO;
 import com.reflex.inventario.order.dto.OrderReqDTO;
 import com.reflex.inventario.order.dto.OrderResDTO;
+import com.reflex.inventario.order.dto.PurchaseReceiptReqDTO;
 
-
-import java.util.Set;
+import java.util.List;
 
 public interface OrderService {
     //Customer Order
     OrderResDTO getCustomerOrderById(Integer id);
-    Set<OrderResDTO> getCustomerOrders();
+    OrderDetailDTO getCustomerOrderDetail(Integer id);
+    OrderPageDTO getCustomerOrders(OrderFilterDTO filter, String cursor, int size);
     OrderResDTO addCustomerOrder(String email, OrderReqDTO orderReqDTO);
+    List<BulkOrderResultDTO> addCustomerOrders(String email, List<OrderReqDTO> orders);
     OrderResDTO updateCustomerOrder(Integer id, OrderReqDTO orderReqDTO);
     void deleteCustomerOrder(Integer id);
     void aproveCustomerOrder(Integer id);
 
     //Purchase order
     OrderResDTO getPurchaseOrderById(Integer id);
-    Set<OrderResDTO> getPurchaseOrders();
+    OrderDetailDTO getPurchaseOrderDetail(Integer id);
+    OrderPageDTO getPurchaseOrders(OrderFilterDTO filter, String cursor, int size);
     OrderResDTO addPurchaseOrder(String email, OrderReqDTO orderReqDTO);
+    List<BulkOrderResultDTO> addPurchaseOrders(String email, List<OrderReqDTO> orders);
     OrderResDTO updatePurchaseOrder(Integer id, OrderReqDTO orderReqDTO);
     void deletePurchaseOrder(Integer id);
-    void aprovePurchaseOrder(Integer id);
+    void aprovePurchaseOrder(Integer id, PurchaseReceiptReqDTO receipt);
 }
@@ -1,41 +1,78 @@
 package com.reflex.inventario.order.service.impl;
 
-import com.reflex.inventario.handler.exceptions.InventoryNotFoundException;
+import com.reflex.inventario.handler.exceptions.BatchNumberConflictException;
+import com.reflex.inventario.handler.exceptions.InvalidReceiptLineException;
+import com.reflex.inventario.handler.exceptions.OrderAlreadyApprovedException;
 import com.reflex.inventario.handler.exceptions.OrderNotFoundException;
+import com.reflex.inventario.handler.exceptions.StockConflictException;
 import com.reflex.inventario.order.*;
+import com.reflex.inventario.order.dto.BulkOrderResultDTO;
+import com.reflex.inventario.order.dto.OrderDetailDTO;
+import com.reflex.inventario.order.dto.OrderDetailRow;
+import com.reflex.inventario.order.dto.OrderFilterDTO;
+import com.reflex.inventario.order.dto.OrderPageDTO;
 import com.reflex.inventario.order.dto.OrderReqDTO;
 import com.reflex.inventario.order.dto.OrderResDTO;
+import com.reflex.inventario.order.dto.PurchaseReceiptReqDTO;
+import com.reflex.inventario.order.dto.ReceiptLineDTO;
 import com.reflex.inventario.order.service.OrderService;
 
 
 import com.reflex.inventario.product.Product;
 import com.reflex.inventario.product.ProductRepository;
+import com.reflex.inventario.productInventory.InventoryAllocation;
+import com.reflex.inventario.productInventory.InventoryAllocator;
+import com.reflex.inventario.productInventory.InventoryLot;
+import com.reflex.inventario.productInventory.InventoryStockWriter;
 import com.reflex.inventario.productInventory.ProductInventory;
 import com.reflex.inventario.productInventory.ProductInvetoryRepository;
+import com.reflex.inventario.productInventory.ProductLockStripes;
+import com.reflex.inventario.productInventory.service.ProductStockService;
 import com.reflex.inventario.provider.Provider;
 import com.reflex.inventario.provider.ProviderRepository;
 import com.reflex.inventario.user.User;
 import com.reflex.inventario.user.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class OrderServiceImpl implements OrderService {
 
+    private static final int MAX_STOCK_RETRIES = 3;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final CustomerOrderRepository customerOrderRepository;
     private final PurchaseOrderRepository purchaseOrderRepository;
     private final ProductInvetoryRepository productInvetoryRepository;
     private final ProviderRepository providerRepository;
     private final UserRepository userRepository;
     private final OrderMapper orderMapper;
+    private final InventoryAllocator inventoryAllocator;
+    private final InventoryStockWriter inventoryStockWriter;
+    private final ProductLockStripes productLockStripes;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductStockService productStockService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public OrderResDTO getCustomerOrderById(Integer id) {
@@ -47,10 +84,21 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public Set<OrderResDTO> getCustomerOrders() {
-        return customerOrderRepository.findAll().stream()
-                .map(orderMapper::customerOrderToDTO)
-                .collect(Collectors.toSet());
+    public OrderDetailDTO getCustomerOrderDetail(Integer id) {
+        List<OrderDetailRow> rows = customerOrderRepository.findDetailRowsByNumber(id);
+        if (rows.isEmpty()) {
+            throw new OrderNotFoundException("El la orden de pedido con el id " + id + " no ha sido encontrada.");
+        }
+        return orderMapper.rowsToCustomerOrderDetail(rows);
+    }
+
+    @Override
+    public OrderPageDTO getCustomerOrders(OrderFilterDTO filter, String cursor, int size) {
+        int pageSize = clampPageSize(size);
+        List<CustomerOrder> orders = customerOrderRepository.findBy(
+                OrderSpecifications.<CustomerOrder>filter(filter, cursor == null ? null : OrderCursor.decode(cursor)),
+                query -> query.sortBy(OrderSpecifications.KEYSET_SORT).limit(pageSize + 1).all());
+        return toPage(orders, pageSize, orderMapper::customerOrderToDTO);
     }
 
     @Override
@@ -69,10 +117,46 @@ public class OrderServiceImpl implements OrderService {
             newOrder.getProductsDetails().forEach(detail -> detail.setCustomerOrder(newOrder));
         }
         CustomerOrder savedOrder = customerOrderRepository.save(newOrder);
+        publishOrderChanged(savedOrder.getCreatedAt());
         return orderMapper.customerOrderToDTO(savedOrder);
     }
 
 
+    @Override
+    @Transactional
+    public List<BulkOrderResultDTO> addCustomerOrders(String email, List<OrderReqDTO> orders) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new EntityNotFoundException("El usuario con el correo " + email + " no ha sido encontrado."));
+        //Todos los productos de todas las órdenes se resuelven con una sola consulta
+        Map<Integer, Product> products = orderMapper.findProducts(orders);
+
+        List<BulkOrderResultDTO> results = new ArrayList<>(orders.size());
+        List<CustomerOrder> newOrders = new ArrayList<>(orders.size());
+        List<BulkOrderResultDTO> createdResults = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            BulkOrderResultDTO result = BulkOrderResultDTO.builder().index(i).created(false).build();
+            results.add(result);
+            try {
+                CustomerOrder newOrder = orderMapper.DTOtoCustomerOrder(validateBulkOrder(orders.get(i)), products);
+                newOrder.setUser(user);
+                newOrder.setAproved(false);
+                newOrders.add(newOrder);
+                createdResults.add(result);
+            } catch (EntityNotFoundException | IllegalArgumentException e) {
+                result.setError(e.getMessage());
+            }
+        }
+
+        //Las órdenes y sus detalles se insertan en batch (hibernate.jdbc.batch_size)
+        List<CustomerOrder> savedOrders = customerOrderRepository.saveAll(newOrders);
+        eventPublisher.publishEvent(OrderChangedEvent.of(savedOrders.stream().map(Order::getCreatedAt).toList()));
+        for (int i = 0; i < savedOrders.size(); i++) {
+            createdResults.get(i).setCreated(true);
+            createdResults.get(i).setOrder(orderMapper.customerOrderToDTO(savedOrders.get(i)));
+        }
+        return results;
+    }
+
     @Override
     public OrderResDTO updateCustomerOrder(Integer id, OrderReqDTO orderReqDTO) {
         Optional<CustomerOrder> customerOrder = customerOrderRepository.findById(id);
@@ -82,41 +166,69 @@ public class OrderServiceImpl implements OrderService {
         CustomerOrder updatedOrder = orderMapper.DTOtoCustomerOrder(orderReqDTO);
         updatedOrder.setNumber(id);
         customerOrderRepository.save(updatedOrder);
+        publishOrderChanged(customerOrder.get().getCreatedAt(), updatedOrder.getCreatedAt());
         return orderMapper.customerOrderToDTO(updatedOrder);
     }
 
     @Override
     public void deleteCustomerOrder(Integer id) {
+        Optional<LocalDateTime> createdAt = customerOrderRepository.findCreatedAtByNumber(id);
         customerOrderRepository.deleteById(id);
+        createdAt.ifPresent(this::publishOrderChanged);
     }
 
 
     @Override
-    @Transactional
     public void aproveCustomerOrder(Integer id) {
-        Optional<CustomerOrder> customerOrder = customerOrderRepository.findById(id);
-        if (customerOrder.isEmpty()) {
-            throw new OrderNotFoundException("El la orden de pedido con el id " + id + " no ha sido encontrada.");
-        }
-        CustomerOrder aprovedCustomerOrder = customerOrder.get();
-        aprovedCustomerOrder.setAproved(false);
-        //1. Verificar disponibilidad de productos
-        aprovedCustomerOrder.getProductsDetails().stream()
-                .forEach(productDetail -> {
-                    List<ProductInventory> availableInventories = productInvetoryRepository
-                            .findAvailableInventoriesByProductIdOrderByExpiration(productDetail.getProduct().getCode(), productDetail.getQuantity());
-                    if (availableInventories.isEmpty()) {
-                        throw new InventoryNotFoundException("No se han encontrado unidades diponibles para el producto + " + productDetail.getProduct().getName() + " asi que la orden fue cancelada");
-                    } else {
-                        Integer finalStock = availableInventories.get(0).getStock() - productDetail.getQuantity();
-                        ProductInventory updatedInventory = availableInventories.get(0);
-                        updatedInventory.setStock(finalStock);
-                        productInvetoryRepository.save(updatedInventory);
+        List<Integer> productCodes = customerOrderRepository.findProductCodesByOrderNumber(id);
+        productLockStripes.withLocks(productCodes, () -> {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> approveCustomerOrderStock(id));
+                    return null;
+                } catch (StockConflictException e) {
+                    //Otro nodo consumió el lote entre la lectura y el UPDATE: se vuelve a repartir
+                    if (attempt >= MAX_STOCK_RETRIES) {
+                        throw e;
                     }
-                });
-        aprovedCustomerOrder.setAproved(true);
-        customerOrderRepository.save(aprovedCustomerOrder);
+                }
+            }
+        });
+    }
 
+    private void approveCustomerOrderStock(Integer id) {
+        if (customerOrderRepository.markAsApproved(id) == 0) {
+            if (!customerOrderRepository.existsById(id)) {
+                throw new OrderNotFoundException("El la orden de pedido con el id " + id + " no ha sido encontrada.");
+            }
+            throw new OrderAlreadyApprovedException("La orden de pedido con el id " + id + " ya fue aprobada.");
+        }
+        customerOrderRepository.findCreatedAtByNumber(id).ifPresent(this::publishOrderChanged);
+        CustomerOrder aprovedCustomerOrder = customerOrderRepository.findById(id)
+                .orElseThrow(() -> new OrderNotFoundException("El la orden de pedido con el id " + id + " no ha sido encontrada."));
+        //1. Agrupar las unidades pedidas por producto
+        Map<Integer, Integer> requested = new LinkedHashMap<>();
+        Map<Integer, String> productNames = new HashMap<>();
+        aprovedCustomerOrder.getProductsDetails().forEach(productDetail -> {
+            Product product = productDetail.getProduct();
+            requested.merge(product.getCode(), productDetail.getQuantity(), Integer::sum);
+            productNames.put(product.getCode(), product.getName());
+        });
+
+        //2. Cargar todos los lotes disponibles en una sola consulta y repartir por vencimiento (FEFO)
+        Map<Integer, List<InventoryLot>> lotsByProduct = productInvetoryRepository
+                .findAvailableLotsByProductCodes(requested.keySet(), LocalDate.now()).stream()
+                .collect(Collectors.groupingBy(InventoryLot::getProductCode));
+        List<InventoryAllocation> allocations = new ArrayList<>();
+        requested.forEach((productCode, quantity) -> allocations.addAll(inventoryAllocator.allocate(
+                productCode,
+                productNames.get(productCode),
+                quantity,
+                lotsByProduct.getOrDefault(productCode, List.of()))));
+
+        //3. Descontar todos los lotes en un solo batch con UPDATE condicional
+        inventoryStockWriter.decrementStock(allocations);
+        productStockService.removeAllocations(allocations);
     }
 
 
@@ -131,10 +243,21 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public Set<OrderResDTO> getPurchaseOrders() {
-        return purchaseOrderRepository.findAll().stream()
-                .map(orderMapper::purchaseOrderToDTO)
-                .collect(Collectors.toSet());
+    public OrderDetailDTO getPurchaseOrderDetail(Integer id) {
+        List<OrderDetailRow> rows = purchaseOrderRepository.findDetailRowsByNumber(id);
+        if (rows.isEmpty()) {
+            throw new OrderNotFoundException("El la orden de compra con el id " + id + " no ha sido encontrada.");
+        }
+        return orderMapper.rowsToPurchaseOrderDetail(rows);
+    }
+
+    @Override
+    public OrderPageDTO getPurchaseOrders(OrderFilterDTO filter, String cursor, int size) {
+        int pageSize = clampPageSize(size);
+        List<PurchaseOrder> orders = purchaseOrderRepository.findBy(
+                OrderSpecifications.purchaseFilter(filter, cursor == null ? null : OrderCursor.decode(cursor)),
+                query -> query.sortBy(OrderSpecifications.KEYSET_SORT).limit(pageSize + 1).all());
+        return toPage(orders, pageSize, orderMapper::purchaseOrderToDTO);
     }
 
 
@@ -164,9 +287,56 @@ public class OrderServiceImpl implements OrderService {
             newOrder.getProductsDetails().forEach(detail -> detail.setPurchaseOrder(newOrder));
         }
         PurchaseOrder savedOrder = purchaseOrderRepository.save(newOrder);
+        publishOrderChanged(savedOrder.getCreatedAt());
         return orderMapper.purchaseOrderToDTO(savedOrder);
     }
 
+    @Override
+    @Transactional
+    public List<BulkOrderResultDTO> addPurchaseOrders(String email, List<OrderReqDTO> orders) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new EntityNotFoundException("El usuario con el correo " + email + " no ha sido encontrado."));
+        //Productos y proveedores de todas las órdenes se resuelven con una consulta cada uno
+        Map<Integer, Product> products = orderMapper.findProducts(orders);
+        Set<Integer> providerIds = orders.stream()
+                .map(OrderReqDTO::getProviderId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Integer, Provider> providers = providerRepository.findAllById(providerIds).stream()
+                .collect(Collectors.toMap(Provider::getId, Function.identity()));
+
+        List<BulkOrderResultDTO> results = new ArrayList<>(orders.size());
+        List<PurchaseOrder> newOrders = new ArrayList<>(orders.size());
+        List<BulkOrderResultDTO> createdResults = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            OrderReqDTO orderReqDTO = orders.get(i);
+            BulkOrderResultDTO result = BulkOrderResultDTO.builder().index(i).created(false).build();
+            results.add(result);
+            try {
+                Provider provider = providers.get(orderReqDTO.getProviderId());
+                if (provider == null) {
+                    throw new EntityNotFoundException("El proveedor con el  id " + orderReqDTO.getProviderId()  + " no ha sido encontrado.");
+                }
+                PurchaseOrder newOrder = orderMapper.DTOtoPurchaseOrder(validateBulkOrder(orderReqDTO), products);
+                newOrder.setUser(user);
+                newOrder.setProvider(provider);
+                newOrder.setAproved(false);
+                newOrders.add(newOrder);
+                createdResults.add(result);
+            } catch (EntityNotFoundException | IllegalArgumentException e) {
+                result.setError(e.getMessage());
+            }
+        }
+
+        List<PurchaseOrder> savedOrders = purchaseOrderRepository.saveAll(newOrders);
+        eventPublisher.publishEvent(OrderChangedEvent.of(savedOrders.stream().map(Order::getCreatedAt).toList()));
+        for (int i = 0; i < savedOrders.size(); i++) {
+            createdResults.get(i).setCreated(true);
+            createdResults.get(i).setOrder(orderMapper.purchaseOrderToDTO(savedOrders.get(i)));
+        }
+        return results;
+    }
+
     @Override
     public OrderResDTO updatePurchaseOrder(Integer id, OrderReqDTO orderReqDTO) {
         Optional<PurchaseOrder> purchaseOrder = purchaseOrderRepository.findById(id);
@@ -176,27 +346,89 @@ public class OrderServiceImpl implements OrderService {
         PurchaseOrder updatedOrder = orderMapper.DTOtoPurchaseOrder(orderReqDTO);
         updatedOrder.setNumber(id);
         purchaseOrderRepository.save(updatedOrder);
+        publishOrderChanged(purchaseOrder.get().getCreatedAt(), updatedOrder.getCreatedAt());
         return orderMapper.purchaseOrderToDTO(updatedOrder);
     }
 
     @Override
     public void deletePurchaseOrder(Integer id) {
+        Optional<LocalDateTime> createdAt = purchaseOrderRepository.findCreatedAtByNumber(id);
         purchaseOrderRepository.deleteById(id);
+        createdAt.ifPresent(this::publishOrderChanged);
     }
 
     @Override
-    public void aprovePurchaseOrder(Integer id) {
-        Optional<PurchaseOrder> purchaseOrder = purchaseOrderRepository.findById(id);
-        if (purchaseOrder.isEmpty()) {
-            throw new OrderNotFoundException("El la orden de compra con el id " + id + " no ha sido encontrada.");
+    @Transactional
+    public void aprovePurchaseOrder(Integer id, PurchaseReceiptReqDTO receipt) {
+        if (purchaseOrderRepository.markAsApproved(id) == 0) {
+            if (!purchaseOrderRepository.existsById(id)) {
+                throw new OrderNotFoundException("El la orden de compra con el id " + id + " no ha sido encontrada.");
+            }
+            throw new OrderAlreadyApprovedException("La orden de compra con el id " + id + " ya fue aprobada.");
+        }
+        purchaseOrderRepository.findCreatedAtByNumber(id).ifPresent(this::publishOrderChanged);
+        if (receipt == null || receipt.getLines() == null || receipt.getLines().isEmpty()) {
+            return;
+        }
+        PurchaseOrder aprovedPurchaseOrder = purchaseOrderRepository.findById(id)
+                .orElseThrow(() -> new OrderNotFoundException("El la orden de compra con el id " + id + " no ha sido encontrada."));
+        Map<Integer, ProductDetail> details = aprovedPurchaseOrder.getProductsDetails().stream()
+                .collect(Collectors.toMap(ProductDetail::getId, Function.identity()));
+
+        //1. Los lotes no se pueden repetir ni dentro de la entrega ni contra el inventario (una sola consulta)
+        Set<Integer> batchNumbers = new HashSet<>();
+        receipt.getLines().forEach(line -> {
+            if (!batchNumbers.add(line.getBatchNumber())) {
+                throw new BatchNumberConflictException("El lote " + line.getBatchNumber() + " está repetido en la entrega");
+            }
+        });
+        List<Integer> existing = productInvetoryRepository.findExistingBatchNumbers(batchNumbers);
+        if (!existing.isEmpty()) {
+            throw new BatchNumberConflictException("Los lotes " + existing + " ya existen en el inventario");
+        }
+
+        //2. Se crean todos los lotes de la entrega en un solo insert por batch
+        List<ProductInventory> inventories = new ArrayList<>(receipt.getLines().size());
+        for (ReceiptLineDTO line : receipt.getLines()) {
+            ProductDetail detail = details.get(line.getDetailId());
+            if (detail == null) {
+                throw new InvalidReceiptLineException("El detalle " + line.getDetailId() + " no pertenece a la orden de compra " + id);
+            }
+            inventories.add(ProductInventory.builder()
+                    .stock(line.getStock() != null ? line.getStock() : detail.getQuantity())
+                    .batchNumber(line.getBatchNumber())
+                    .expirationDate(line.getExpirationDate())
+                    .product(detail.getProduct())
+                    .build());
         }
-        PurchaseOrder aprovedPurchaseOrder = purchaseOrder.get();
-        aprovedPurchaseOrder.setAproved(true);
+        productInvetoryRepository.saveAll(inventories);
+        productStockService.addLots(inventories);
+    }
 
+    //Los reportes cacheados de esos días se descartan cuando la transacción confirma
+    private void publishOrderChanged(LocalDateTime... createdAt) {
+        eventPublisher.publishEvent(OrderChangedEvent.of(Arrays.asList(createdAt)));
+    }
 
-        purchaseOrderRepository.save(aprovedPurchaseOrder);
+    private OrderReqDTO validateBulkOrder(OrderReqDTO orderReqDTO) {
+        if (orderReqDTO.getProductsDetails() == null || orderReqDTO.getProductsDetails().isEmpty()) {
+            throw new IllegalArgumentException("La orden no tiene productos");
+        }
+        return orderReqDTO;
+    }
 
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
     }
 
+    //Se pide un elemento de más para saber si existe una página siguiente
+    private <T extends Order> OrderPageDTO toPage(List<T> orders, int pageSize, Function<T, OrderResDTO> mapper) {
+        boolean hasNext = orders.size() > pageSize;
+        List<T> page = hasNext ? orders.subList(0, pageSize) : orders;
+        return OrderPageDTO.builder()
+                .content(page.stream().map(mapper).collect(Collectors.toList()))
+                .nextCursor(hasNext ? OrderCursor.of(page.get(page.size() - 1)).encode() : null)
+                .build();
+    }
 
 }
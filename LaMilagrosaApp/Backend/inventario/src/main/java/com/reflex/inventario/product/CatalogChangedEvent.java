@@ -0,0 +1,6 @@
+package com.reflex.inventario.product;
+
+//Se publica cuando cambia algo del catálogo que muestran los reportes sin depender del día:
+//nombres de productos o categorías, o a qué categoría pertenece un producto
+public record CatalogChangedEvent() {
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -23,8 +24,10 @@ public class Product {
     private Integer code;
     private String name;
     private String description;
-    private Float price;
+    @Column(precision = 12, scale = 2)
+    private BigDecimal price;
     private String image;
+    private Integer minStock;//stock mínimo antes de avisar; null usa app.alerts.low-stock.default-threshold
 
     @ManyToMany(cascade = {CascadeType.PERSIST ,CascadeType.MERGE})
     @JoinTable(
@@ -25,7 +25,8 @@ public class ProductMapper {
                 .name(productReqDTO.getName())
                 .description(productReqDTO.getDescription())
                 .price(productReqDTO.getPrice())
-                .image(productReqDTO.getImage());
+                .image(productReqDTO.getImage())
+                .minStock(productReqDTO.getMinStock());
 
         if (categoryId != null) {
             Category category = categoryRepository.findById(categoryId)
@@ -46,6 +47,7 @@ public class ProductMapper {
                 .description(product.getDescription())
                 .price(product.getPrice())
                 .image(product.getImage())
+                .minStock(product.getMinStock())
                 .category(
                         product.getCategories().stream()
                                 .findFirst()
@@ -5,6 +5,7 @@ import jakarta.persistence.Table;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.util.Set;
 
 @Getter
@@ -17,8 +18,11 @@ public class ProductReqDTO {
     private String description;
     @NotNull(message = "El precio del producto no puede estar vacío")
     @PositiveOrZero(message = "El precio debe ser mayor o igual a 0")
-    private Float price;
+    @Digits(integer = 10, fraction = 2, message = "El precio admite como máximo 2 decimales")
+    private BigDecimal price;
     private String image;
+    @PositiveOrZero(message = "El stock mínimo debe ser mayor o igual a 0")
+    private Integer minStock;
 
     private Integer categoryId;
 
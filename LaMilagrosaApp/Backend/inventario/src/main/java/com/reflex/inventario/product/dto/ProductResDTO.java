@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.util.Set;
 
 @Getter
@@ -16,8 +17,9 @@ public class ProductResDTO {
     private Integer code;
     private String name;
     private String description;
-    private Float price;
+    private BigDecimal price;
     private String image;
+    private Integer minStock;
     private CategoryResDTO category;
 
 }
@@ -1,6 +1,8 @@
 package com.reflex.inventario.product.service.impl;
 
+import com.reflex.inventario.alert.StockThresholds;
 import com.reflex.inventario.handler.exceptions.ProductNotFoundException;
+import com.reflex.inventario.product.CatalogChangedEvent;
 import com.reflex.inventario.product.Product;
 import com.reflex.inventario.product.ProductMapper;
 import com.reflex.inventario.product.ProductRepository;
@@ -9,6 +11,7 @@ import com.reflex.inventario.product.dto.ProductResDTO;
 import com.reflex.inventario.product.service.ProductService;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -21,6 +24,8 @@ public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final StockThresholds stockThresholds;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public ProductResDTO getProductById(Integer id) {
@@ -42,6 +47,7 @@ public class ProductServiceImpl implements ProductService {
     public ProductResDTO addProduct(ProductReqDTO product) {
         Product newProduct = productMapper.DtoToProduct(product);
         Product savedProduct = productRepository.save(newProduct);
+        stockThresholds.update(savedProduct.getCode(), savedProduct.getMinStock());
         return productMapper.productToDTO(savedProduct);
     }
 
@@ -54,11 +60,15 @@ public class ProductServiceImpl implements ProductService {
         Product updatedProduct = productMapper.DtoToProduct(productReq);
         updatedProduct.setCode(id);
         productRepository.save(updatedProduct);
+        stockThresholds.update(id, updatedProduct.getMinStock());
+        eventPublisher.publishEvent(new CatalogChangedEvent());
         return productMapper.productToDTO(updatedProduct);
     }
 
     @Override
     public void deleteProduct(Integer id) {
         productRepository.deleteById(id);
+        stockThresholds.remove(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent());
     }
 }
@@ -0,0 +1,18 @@
+package com.reflex.inventario.productInventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+//Lote vencido o por vencer con el nombre del producto, leído sin cargar entidades
+@Getter
+@AllArgsConstructor
+public class ExpiringLotRow {
+    private Integer lotId;
+    private Integer batchNumber;
+    private Integer productCode;
+    private String productName;
+    private Integer stock;
+    private LocalDate expirationDate;
+}
@@ -0,0 +1,16 @@
+package com.reflex.inventario.productInventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+//Unidades que se descuentan de un lote concreto
+@Getter
+@AllArgsConstructor
+public class InventoryAllocation {
+    private Integer inventoryId;
+    private Integer productCode;
+    private Integer quantity;
+    private LocalDate expirationDate;
+}
@@ -0,0 +1,31 @@
+package com.reflex.inventario.productInventory;
+
+import com.reflex.inventario.handler.exceptions.InventoryNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class InventoryAllocator {
+
+    //Reparte la cantidad pedida entre los lotes (ya ordenados por vencimiento), primero el que vence antes (FEFO)
+    public List<InventoryAllocation> allocate(Integer productCode, String productName, int quantity, List<InventoryLot> lots) {
+        List<InventoryAllocation> allocations = new ArrayList<>();
+        int pending = quantity;
+        for (InventoryLot lot : lots) {
+            if (pending == 0) {
+                break;
+            }
+            int taken = Math.min(pending, lot.getStock());
+            if (taken > 0) {
+                allocations.add(new InventoryAllocation(lot.getId(), productCode, taken, lot.getExpirationDate()));
+                pending -= taken;
+            }
+        }
+        if (pending > 0) {
+            throw new InventoryNotFoundException("No se han encontrado unidades diponibles para el producto " + productName + " asi que la orden fue cancelada");
+        }
+        return allocations;
+    }
+}
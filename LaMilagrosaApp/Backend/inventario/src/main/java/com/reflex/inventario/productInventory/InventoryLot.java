@@ -0,0 +1,16 @@
+package com.reflex.inventario.productInventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+//Vista liviana de un lote, usada para asignar stock sin cargar entidades
+@Getter
+@AllArgsConstructor
+public class InventoryLot {
+    private Integer id;
+    private Integer productCode;
+    private Integer stock;
+    private LocalDate expirationDate;
+}
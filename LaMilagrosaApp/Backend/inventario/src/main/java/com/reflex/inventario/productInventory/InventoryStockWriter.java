@@ -0,0 +1,39 @@
+package com.reflex.inventario.productInventory;
+
+import com.reflex.inventario.handler.exceptions.StockConflictException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class InventoryStockWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    //Todos los descuentos de la orden viajan en un solo batch.
+    //El UPDATE es condicional: si otro proceso ya consumió el lote no se actualiza ninguna fila
+    public void decrementStock(List<InventoryAllocation> allocations) {
+        if (allocations.isEmpty()) {
+            return;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "UPDATE product_inventory SET stock = stock - ? WHERE id = ? AND stock >= ?",
+                allocations,
+                allocations.size(),
+                (ps, allocation) -> {
+                    ps.setInt(1, allocation.getQuantity());
+                    ps.setInt(2, allocation.getInventoryId());
+                    ps.setInt(3, allocation.getQuantity());
+                });
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    throw new StockConflictException("El stock de uno de los lotes cambió mientras se aprobaba la orden");
+                }
+            }
+        }
+    }
+}
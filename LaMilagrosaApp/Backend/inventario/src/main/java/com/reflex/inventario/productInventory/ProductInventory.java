@@ -3,8 +3,11 @@ package com.reflex.inventario.productInventory;
 import com.reflex.inventario.product.Product;
 import jakarta.persistence.*;
 import lombok.*;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Set;
 
 @Getter
@@ -13,7 +16,12 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table( name = "product_inventory")
+@EntityListeners(AuditingEntityListener.class)
+@Table( name = "product_inventory", indexes = {
+        @Index(name = "idx_product_inventory_product_expiration", columnList = "inventory_product_id, expirationDate"),
+        @Index(name = "idx_product_inventory_expiration", columnList = "expirationDate, id"),
+        @Index(name = "idx_product_inventory_updated", columnList = "updatedAt")
+})
 public class ProductInventory {
     @Id
     @GeneratedValue
@@ -22,6 +30,8 @@ public class ProductInventory {
     @Column(unique = true)
     private Integer batchNumber;
     private LocalDate expirationDate;
+    @LastModifiedDate
+    private LocalDateTime updatedAt;//alta o última modificación por JPA; la revisión de vencimientos parte de aquí
 
     @ManyToOne
     @JoinColumn(name = "inventory_product_id", nullable = false )
@@ -2,12 +2,15 @@ package com.reflex.inventario.productInventory;
 
 import com.reflex.inventario.productInventory.dto.ProductInventoryReqDTO;
 import com.reflex.inventario.productInventory.dto.ProductInventoryResDTO;
+import com.reflex.inventario.productInventory.dto.ProductStockResDTO;
 import com.reflex.inventario.productInventory.service.ProductInventoryService;
+import com.reflex.inventario.productInventory.service.ProductStockService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Set;
 
 @RestController
@@ -15,12 +18,24 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class ProductInventoryController {
     private final ProductInventoryService productInventoryService;
+    private final ProductStockService productStockService;
 
     @GetMapping("/findAll")
     public ResponseEntity<Set<ProductInventoryResDTO>> getAllInventories() {
         return ResponseEntity.ok(productInventoryService.getInventories());
     }
 
+    //Existencias agregadas: una fila por producto, sin recorrer los lotes
+    @GetMapping("/summary/{productCode}")
+    public ResponseEntity<ProductStockResDTO> getStockSummary(@PathVariable Integer productCode) {
+        return ResponseEntity.ok(productStockService.getStock(productCode));
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<List<ProductStockResDTO>> getStockSummaries(@RequestParam List<Integer> productCodes) {
+        return ResponseEntity.ok(productStockService.getStocks(productCodes));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductInventoryResDTO> getInventoryById(@Valid @PathVariable Integer id) {
         return ResponseEntity.ok(productInventoryService.getInventoryById(id));
@@ -1,27 +1,115 @@
 package com.reflex.inventario.productInventory;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProductInvetoryRepository extends JpaRepository<ProductInventory, Integer> {
 
+    //Los lotes ya vencidos no se venden: quedan fuera del reparto FEFO. Como en las alertas de vencimiento,
+    //un lote que vence hoy ya cuenta como vencido
     @Query("""
-    SELECT pi 
-    FROM ProductInventory pi 
-    WHERE pi.product.code = :productCode 
-      AND pi.stock >= :quantity 
-    ORDER BY pi.expirationDate ASC
+    SELECT new com.reflex.inventario.productInventory.InventoryLot(pi.id, pi.product.code, pi.stock, pi.expirationDate)
+    FROM ProductInventory pi
+    WHERE pi.product.code IN :productCodes
+      AND pi.stock > 0
+      AND (pi.expirationDate IS NULL OR pi.expirationDate > :today)
+    ORDER BY pi.product.code, pi.expirationDate ASC, pi.id ASC
     """)
-    List<ProductInventory> findAvailableInventoriesByProductIdOrderByExpiration(
-            @Param("productCode") Integer productCode,
-            @Param("quantity") Integer quantity);
+    List<InventoryLot> findAvailableLotsByProductCodes(@Param("productCodes") Collection<Integer> productCodes,
+                                                       @Param("today") LocalDate today);
 
-    List<ProductInventory> findByExpirationDateLessThanEqual(LocalDate date);
-    List<ProductInventory> findByExpirationDateBetween(LocalDate start, LocalDate end);
+    @Query("SELECT pi.batchNumber FROM ProductInventory pi WHERE pi.batchNumber IN :batchNumbers")
+    List<Integer> findExistingBatchNumbers(@Param("batchNumbers") Collection<Integer> batchNumbers);
+
+    //Ajuste manual del stock de un lote: solo se aplica si sigue siendo el que se leyó; si una aprobación
+    //descontó entre medio no se actualiza ninguna fila. Se limpia el contexto para no devolver el lote viejo
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+    UPDATE ProductInventory pi
+    SET pi.stock = :stock, pi.updatedAt = :now
+    WHERE pi.id = :id AND pi.stock = :expected
+    """)
+    int updateStockIfUnchanged(@Param("id") Integer id,
+                               @Param("expected") Integer expected,
+                               @Param("stock") Integer stock,
+                               @Param("now") LocalDateTime now);
+
+    //Lotes con stock que vencen hasta "until", por páginas en orden (expirationDate, id)
+    @Query("""
+    SELECT new com.reflex.inventario.productInventory.ExpiringLotRow(pi.id, pi.batchNumber, p.code, p.name, pi.stock, pi.expirationDate)
+    FROM ProductInventory pi
+    JOIN pi.product p
+    WHERE pi.expirationDate <= :until
+      AND pi.stock > 0
+    ORDER BY pi.expirationDate ASC, pi.id ASC
+    """)
+    List<ExpiringLotRow> findExpiringLots(@Param("until") LocalDate until, Pageable page);
+
+    //Página siguiente a partir del último lote leído (sin OFFSET)
+    @Query("""
+    SELECT new com.reflex.inventario.productInventory.ExpiringLotRow(pi.id, pi.batchNumber, p.code, p.name, pi.stock, pi.expirationDate)
+    FROM ProductInventory pi
+    JOIN pi.product p
+    WHERE pi.expirationDate <= :until
+      AND pi.stock > 0
+      AND (pi.expirationDate > :lastDate OR (pi.expirationDate = :lastDate AND pi.id > :lastId))
+    ORDER BY pi.expirationDate ASC, pi.id ASC
+    """)
+    List<ExpiringLotRow> findExpiringLotsAfter(@Param("until") LocalDate until,
+                                               @Param("lastDate") LocalDate lastDate,
+                                               @Param("lastId") Integer lastId,
+                                               Pageable page);
+
+    //Lotes que pudieron generar una alerta nueva desde la última revisión: los que entraron en la ventana
+    //de vencimiento (lastUntil, until], los que vencieron desde entonces (lastToday, today] y los dados de alta
+    //o modificados desde lastRunAt (el llamador lo adelanta un margen por las transacciones que confirmaron tarde).
+    //El resto ya se revisó en la pasada anterior con el mismo tipo de alerta
+    @Query("""
+    SELECT new com.reflex.inventario.productInventory.ExpiringLotRow(pi.id, pi.batchNumber, p.code, p.name, pi.stock, pi.expirationDate)
+    FROM ProductInventory pi
+    JOIN pi.product p
+    WHERE pi.expirationDate <= :until
+      AND pi.stock > 0
+      AND (pi.expirationDate > :lastUntil
+           OR (pi.expirationDate > :lastToday AND pi.expirationDate <= :today)
+           OR pi.updatedAt > :lastRunAt)
+    ORDER BY pi.expirationDate ASC, pi.id ASC
+    """)
+    List<ExpiringLotRow> findChangedExpiringLots(@Param("until") LocalDate until,
+                                                 @Param("lastUntil") LocalDate lastUntil,
+                                                 @Param("today") LocalDate today,
+                                                 @Param("lastToday") LocalDate lastToday,
+                                                 @Param("lastRunAt") LocalDateTime lastRunAt,
+                                                 Pageable page);
+
+    @Query("""
+    SELECT new com.reflex.inventario.productInventory.ExpiringLotRow(pi.id, pi.batchNumber, p.code, p.name, pi.stock, pi.expirationDate)
+    FROM ProductInventory pi
+    JOIN pi.product p
+    WHERE pi.expirationDate <= :until
+      AND pi.stock > 0
+      AND (pi.expirationDate > :lastUntil
+           OR (pi.expirationDate > :lastToday AND pi.expirationDate <= :today)
+           OR pi.updatedAt > :lastRunAt)
+      AND (pi.expirationDate > :lastDate OR (pi.expirationDate = :lastDate AND pi.id > :lastId))
+    ORDER BY pi.expirationDate ASC, pi.id ASC
+    """)
+    List<ExpiringLotRow> findChangedExpiringLotsAfter(@Param("until") LocalDate until,
+                                                      @Param("lastUntil") LocalDate lastUntil,
+                                                      @Param("today") LocalDate today,
+                                                      @Param("lastToday") LocalDate lastToday,
+                                                      @Param("lastRunAt") LocalDateTime lastRunAt,
+                                                      @Param("lastDate") LocalDate lastDate,
+                                                      @Param("lastId") Integer lastId,
+                                                      Pageable page);
 }
@@ -0,0 +1,43 @@
+package com.reflex.inventario.productInventory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+//Candados por producto repartidos en franjas: dos aprobaciones del mismo producto se turnan
+//en memoria antes de competir en la base de datos, sin bloquear al resto de productos
+@Component
+public class ProductLockStripes {
+
+    private final ReentrantLock[] stripes;
+
+    public ProductLockStripes(@Value("${app.inventory.lock-stripes:64}") int stripeCount) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLocks(Collection<Integer> productCodes, Supplier<T> action) {
+        //Se toman siempre en el mismo orden para evitar interbloqueos
+        TreeSet<Integer> indexes = new TreeSet<>();
+        productCodes.forEach(code -> indexes.add(Math.floorMod(code.hashCode(), stripes.length)));
+        Integer[] acquired = indexes.toArray(new Integer[0]);
+        int locked = 0;
+        try {
+            for (Integer index : acquired) {
+                stripes[index].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[acquired[i]].unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.reflex.inventario.productInventory;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//Resumen de existencias por producto, mantenido en la misma transacción que cada movimiento de stock
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table( name = "product_stock")
+public class ProductStock {
+    @Id
+    private Integer productCode;
+    private Integer totalUnits;
+    private Integer expiringUnits;//unidades que vencen dentro de app.inventory.expiring-days
+    private LocalDate earliestExpiration;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,32 @@
+package com.reflex.inventario.productInventory;
+
+import com.reflex.inventario.productInventory.service.ProductStockService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.dao.DataAccessException;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductStockReconciler {
+
+    private final ProductStockService productStockService;
+
+    //Al arrancar y cada madrugada (la ventana de "por vencer" avanza un día) se cuadra el resumen contra los lotes
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 5 0 * * ?")
+    public void reconcile() {
+        try {
+            int mismatches = productStockService.reconcile();
+            if (mismatches > 0) {
+                log.warn("Resumen de existencias corregido para {} productos", mismatches);
+            }
+        } catch (DataAccessException e) {
+            log.error("No se pudo cuadrar el resumen de existencias", e);
+        }
+    }
+}
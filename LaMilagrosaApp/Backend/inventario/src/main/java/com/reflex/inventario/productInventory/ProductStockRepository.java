@@ -0,0 +1,8 @@
+package com.reflex.inventario.productInventory;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductStockRepository extends JpaRepository<ProductStock, Integer> {
+}
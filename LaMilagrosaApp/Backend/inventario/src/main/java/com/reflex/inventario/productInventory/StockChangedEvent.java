@@ -0,0 +1,16 @@
+package com.reflex.inventario.productInventory;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+//Se publica cada vez que cambian las existencias de uno o más productos (aprobar ventas, editar o borrar lotes, compras)
+public record StockChangedEvent(Set<Integer> productCodes) {
+
+    public static StockChangedEvent of(Collection<Integer> productCodes) {
+        return new StockChangedEvent(productCodes.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+    }
+}
@@ -0,0 +1,20 @@
+package com.reflex.inventario.productInventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductStockResDTO {
+    private Integer productCode;
+    private Integer totalUnits;
+    private Integer expiringUnits;
+    private Integer expiringDays;
+    private LocalDate earliestExpiration;
+}
@@ -0,0 +1,20 @@
+package com.reflex.inventario.productInventory.service;
+
+import com.reflex.inventario.productInventory.InventoryAllocation;
+import com.reflex.inventario.productInventory.ProductInventory;
+import com.reflex.inventario.productInventory.dto.ProductStockResDTO;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductStockService {
+
+    ProductStockResDTO getStock(Integer productCode);
+    List<ProductStockResDTO> getStocks(Collection<Integer> productCodes);
+    void addUnits(Integer productCode, int units, LocalDate expirationDate);
+    void addLots(Collection<ProductInventory> lots);
+    void removeUnits(Integer productCode, int units, LocalDate expirationDate);
+    void removeAllocations(List<InventoryAllocation> allocations);
+    int reconcile();
+}
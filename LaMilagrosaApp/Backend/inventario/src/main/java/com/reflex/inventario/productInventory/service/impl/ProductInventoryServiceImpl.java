@@ -1,7 +1,9 @@
 package com.reflex.inventario.productInventory.service.impl;
 
+import com.reflex.inventario.alert.InventoryAlertStateRepository;
 import com.reflex.inventario.handler.exceptions.InventoryNotFoundException;
 import com.reflex.inventario.handler.exceptions.ProductNotFoundException;
+import com.reflex.inventario.handler.exceptions.StockConflictException;
 import com.reflex.inventario.product.Product;
 import com.reflex.inventario.product.ProductRepository;
 import com.reflex.inventario.productInventory.InventoryMapper;
@@ -10,9 +12,14 @@ import com.reflex.inventario.productInventory.ProductInvetoryRepository;
 import com.reflex.inventario.productInventory.dto.ProductInventoryReqDTO;
 import com.reflex.inventario.productInventory.dto.ProductInventoryResDTO;
 import com.reflex.inventario.productInventory.service.ProductInventoryService;
+import com.reflex.inventario.productInventory.service.ProductStockService;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -24,6 +31,8 @@ public class ProductInventoryServiceImpl implements ProductInventoryService {
     private final ProductInvetoryRepository productInvetoryRepository;
     private final ProductRepository productRepository;
     private final InventoryMapper inventoryMapper;
+    private final ProductStockService productStockService;
+    private final InventoryAlertStateRepository inventoryAlertStateRepository;
 
     @Override
     public ProductInventoryResDTO getInventoryById(Integer id) {
@@ -42,6 +51,7 @@ public class ProductInventoryServiceImpl implements ProductInventoryService {
     }
 
     @Override
+    @Transactional
     public ProductInventoryResDTO addInventory(ProductInventoryReqDTO inventory) {
         //1. Validar que el producto asociado exista
         Optional<Product> product = productRepository.findById(inventory.getProductId());
@@ -52,25 +62,49 @@ public class ProductInventoryServiceImpl implements ProductInventoryService {
         ProductInventory newInventory = inventoryMapper.DtoToInventory(inventory);
         newInventory.setProduct(product.get());
         ProductInventory savedInventory = productInvetoryRepository.save(newInventory);
+        // 3. actualizar el resumen del producto en la misma transacción
+        productStockService.addLots(List.of(savedInventory));
         return inventoryMapper.inventoryToDTO(savedInventory);
     }
 
     @Override
+    @Transactional
     public ProductInventoryResDTO updateInventory(Integer id, ProductInventoryReqDTO inventoryReq) {
         Optional<ProductInventory> inventory = productInvetoryRepository.findById(id);
         if(!inventory.isPresent()) {
             throw new ProductNotFoundException("El inventario con id " + id + " no ha sido encontrado.");
         }
-        ProductInventory updatedInventory = inventory.get();
-        updatedInventory.setStock(inventoryReq.getStock());
+        ProductInventory current = inventory.get();
+        int delta = inventoryReq.getStock() - current.getStock();
+        Integer productCode = current.getProduct().getCode();
+        LocalDate expirationDate = current.getExpirationDate();
 
-        productInvetoryRepository.save(updatedInventory);
-        return inventoryMapper.inventoryToDTO(updatedInventory);
+        //UPDATE condicional sobre el stock leído: así ni se pisa un descuento concurrente ni el resumen recibe
+        //un delta calculado sobre un valor viejo. Queda escrito antes de que el resumen relea los lotes
+        if (productInvetoryRepository.updateStockIfUnchanged(id, current.getStock(), inventoryReq.getStock(), LocalDateTime.now()) == 0) {
+            throw new StockConflictException("El stock del lote con id " + id + " cambió mientras se actualizaba, intente de nuevo");
+        }
+        if (delta > 0) {
+            productStockService.addUnits(productCode, delta, expirationDate);
+        } else if (delta < 0) {
+            productStockService.removeUnits(productCode, -delta, expirationDate);
+        }
+        return inventoryMapper.inventoryToDTO(productInvetoryRepository.findById(id).orElseThrow());
     }
 
     @Override
+    @Transactional
     public void deleteInventory(Integer id) {
-        productInvetoryRepository.deleteById(id);
+        Optional<ProductInventory> inventory = productInvetoryRepository.findById(id);
+        if(!inventory.isPresent()) {
+            return;
+        }
+        ProductInventory deletedInventory = inventory.get();
+        //Las alertas del lote se van con él
+        inventoryAlertStateRepository.deleteByLotId(id);
+        productInvetoryRepository.delete(deletedInventory);
+        productInvetoryRepository.flush();
+        productStockService.removeUnits(deletedInventory.getProduct().getCode(), deletedInventory.getStock(), deletedInventory.getExpirationDate());
     }
 
     /*@Override
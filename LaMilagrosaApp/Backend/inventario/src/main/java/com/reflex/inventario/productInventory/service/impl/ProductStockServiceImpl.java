@@ -0,0 +1,253 @@
+package com.reflex.inventario.productInventory.service.impl;
+
+import com.reflex.inventario.handler.exceptions.ProductNotFoundException;
+import com.reflex.inventario.productInventory.InventoryAllocation;
+import com.reflex.inventario.productInventory.ProductInventory;
+import com.reflex.inventario.productInventory.ProductStock;
+import com.reflex.inventario.productInventory.ProductStockRepository;
+import com.reflex.inventario.productInventory.StockChangedEvent;
+import com.reflex.inventario.productInventory.dto.ProductStockResDTO;
+import com.reflex.inventario.productInventory.service.ProductStockService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductStockServiceImpl implements ProductStockService {
+
+    //Suma (o resta) unidades sobre la fila del producto, creándola si aún no existe. En PostgreSQL se usa ON CONFLICT:
+    //dos primeros movimientos concurrentes del mismo producto no chocan con la clave, cosa que MERGE no garantiza
+    private static final String UPSERT_DELTA_POSTGRES = """
+            INSERT INTO product_stock (product_code, total_units, expiring_units, earliest_expiration, updated_at)
+            VALUES (?, ?, ?, ?, now())
+            ON CONFLICT (product_code) DO UPDATE SET
+                total_units = product_stock.total_units + EXCLUDED.total_units,
+                expiring_units = product_stock.expiring_units + EXCLUDED.expiring_units,
+                earliest_expiration = CASE
+                    WHEN EXCLUDED.total_units <= 0 OR EXCLUDED.earliest_expiration IS NULL THEN product_stock.earliest_expiration
+                    WHEN product_stock.earliest_expiration IS NULL
+                         OR EXCLUDED.earliest_expiration < product_stock.earliest_expiration THEN EXCLUDED.earliest_expiration
+                    ELSE product_stock.earliest_expiration END,
+                updated_at = now()
+            """;
+
+    //Lo mismo con MERGE para H2 (pruebas), que no admite ON CONFLICT ... DO UPDATE
+    private static final String UPSERT_DELTA_MERGE = """
+            MERGE INTO product_stock s
+            USING (VALUES (CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS DATE)))
+                AS d (product_code, total_units, expiring_units, earliest_expiration)
+            ON s.product_code = d.product_code
+            WHEN MATCHED THEN UPDATE SET
+                total_units = s.total_units + d.total_units,
+                expiring_units = s.expiring_units + d.expiring_units,
+                earliest_expiration = CASE
+                    WHEN d.total_units <= 0 OR d.earliest_expiration IS NULL THEN s.earliest_expiration
+                    WHEN s.earliest_expiration IS NULL OR d.earliest_expiration < s.earliest_expiration THEN d.earliest_expiration
+                    ELSE s.earliest_expiration END,
+                updated_at = now()
+            WHEN NOT MATCHED THEN
+                INSERT (product_code, total_units, expiring_units, earliest_expiration, updated_at)
+                VALUES (d.product_code, d.total_units, d.expiring_units, d.earliest_expiration, now())
+            """;
+
+    //Al consumir o borrar lotes el primer vencimiento puede cambiar: se recalcula solo para esos productos
+    private static final String REFRESH_EARLIEST = """
+            UPDATE product_stock s
+            SET earliest_expiration = (SELECT MIN(pi.expiration_date)
+                                       FROM product_inventory pi
+                                       WHERE pi.inventory_product_id = s.product_code
+                                         AND pi.stock > 0)
+            WHERE s.product_code IN (:productCodes)
+            """;
+
+    private static final String LOT_AGGREGATE = """
+            SELECT p.code AS product_code,
+                   COALESCE(SUM(pi.stock), 0) AS total_units,
+                   COALESCE(SUM(CASE WHEN pi.expiration_date <= :limit THEN pi.stock ELSE 0 END), 0) AS expiring_units,
+                   MIN(pi.expiration_date) AS earliest_expiration
+            FROM product p
+            LEFT JOIN product_inventory pi ON pi.inventory_product_id = p.code AND pi.stock > 0
+            GROUP BY p.code
+            """;
+
+    //Sobrescribe el resumen con lo calculado desde los lotes, creando las filas que falten
+    private static final String REBUILD_POSTGRES = """
+            INSERT INTO product_stock (product_code, total_units, expiring_units, earliest_expiration, updated_at)
+            SELECT a.product_code, a.total_units, a.expiring_units, a.earliest_expiration, now()
+            FROM (%s) a
+            ON CONFLICT (product_code) DO UPDATE SET
+                total_units = EXCLUDED.total_units,
+                expiring_units = EXCLUDED.expiring_units,
+                earliest_expiration = EXCLUDED.earliest_expiration,
+                updated_at = now()
+            """.formatted(LOT_AGGREGATE);
+
+    private static final String REBUILD_MERGE = """
+            MERGE INTO product_stock s
+            USING (%s) a
+            ON s.product_code = a.product_code
+            WHEN MATCHED THEN UPDATE SET
+                total_units = a.total_units,
+                expiring_units = a.expiring_units,
+                earliest_expiration = a.earliest_expiration,
+                updated_at = now()
+            WHEN NOT MATCHED THEN
+                INSERT (product_code, total_units, expiring_units, earliest_expiration, updated_at)
+                VALUES (a.product_code, a.total_units, a.expiring_units, a.earliest_expiration, now())
+            """.formatted(LOT_AGGREGATE);
+
+
+    private final ProductStockRepository productStockRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int expiringDays;
+    private final String upsertDeltaSql;
+    private final String rebuildSql;
+
+    public ProductStockServiceImpl(ProductStockRepository productStockRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   NamedParameterJdbcTemplate namedJdbcTemplate,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${app.inventory.expiring-days:7}") int expiringDays) {
+        this.productStockRepository = productStockRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.expiringDays = expiringDays;
+        boolean postgres = "PostgreSQL".equals(databaseProductName(jdbcTemplate));
+        this.upsertDeltaSql = postgres ? UPSERT_DELTA_POSTGRES : UPSERT_DELTA_MERGE;
+        this.rebuildSql = postgres ? REBUILD_POSTGRES : REBUILD_MERGE;
+    }
+
+    @Override
+    public ProductStockResDTO getStock(Integer productCode) {
+        return productStockRepository.findById(productCode)
+                .map(this::toDTO)
+                .orElseThrow(() -> new ProductNotFoundException("No hay existencias registradas para el producto con id " + productCode));
+    }
+
+    @Override
+    public List<ProductStockResDTO> getStocks(Collection<Integer> productCodes) {
+        return productStockRepository.findAllById(productCodes).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public void addUnits(Integer productCode, int units, LocalDate expirationDate) {
+        applyDeltas(List.of(new StockDelta(productCode, units, expiringDelta(units, expirationDate), expirationDate)));
+    }
+
+    @Override
+    @Transactional
+    public void addLots(Collection<ProductInventory> lots) {
+        applyDeltas(lots.stream()
+                .map(lot -> new StockDelta(lot.getProduct().getCode(), lot.getStock(),
+                        expiringDelta(lot.getStock(), lot.getExpirationDate()), lot.getExpirationDate()))
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional
+    public void removeUnits(Integer productCode, int units, LocalDate expirationDate) {
+        applyDeltas(List.of(new StockDelta(productCode, -units, -expiringDelta(units, expirationDate), null)));
+        refreshEarliestExpiration(List.of(productCode));
+    }
+
+    @Override
+    @Transactional
+    public void removeAllocations(List<InventoryAllocation> allocations) {
+        //Un solo delta por producto aunque la línea se haya repartido en varios lotes
+        Map<Integer, StockDelta> deltas = new LinkedHashMap<>();
+        for (InventoryAllocation allocation : allocations) {
+            int units = allocation.getQuantity();
+            int expiring = expiringDelta(units, allocation.getExpirationDate());
+            deltas.merge(allocation.getProductCode(),
+                    new StockDelta(allocation.getProductCode(), -units, -expiring, null),
+                    (a, b) -> new StockDelta(a.productCode(), a.units() + b.units(), a.expiringUnits() + b.expiringUnits(), null));
+        }
+        applyDeltas(new ArrayList<>(deltas.values()));
+        refreshEarliestExpiration(deltas.keySet());
+    }
+
+    //Reconstruye el resumen a partir de los lotes y devuelve cuántos productos estaban descuadrados.
+    //Bloquea primero las filas del resumen: un movimiento en curso termina antes de leer los lotes y uno nuevo
+    //espera a que esto confirme, así ningún delta se pierde al sobrescribir
+    @Override
+    @Transactional
+    public int reconcile() {
+        jdbcTemplate.queryForList("SELECT product_code FROM product_stock ORDER BY product_code FOR UPDATE", Integer.class);
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", Date.valueOf(LocalDate.now().plusDays(expiringDays)));
+        Integer mismatches = namedJdbcTemplate.queryForObject("""
+                SELECT COUNT(*)
+                FROM (%s) a
+                LEFT JOIN product_stock s ON s.product_code = a.product_code
+                WHERE s.product_code IS NULL
+                   OR s.total_units <> a.total_units
+                   OR s.expiring_units <> a.expiring_units
+                   OR s.earliest_expiration IS DISTINCT FROM a.earliest_expiration
+                """.formatted(LOT_AGGREGATE), params, Integer.class);
+        if (mismatches != null && mismatches > 0) {
+            namedJdbcTemplate.update(rebuildSql, params);
+        }
+        jdbcTemplate.update("DELETE FROM product_stock s WHERE NOT EXISTS (SELECT 1 FROM product p WHERE p.code = s.product_code)");
+        return mismatches == null ? 0 : mismatches;
+    }
+
+    //Todo movimiento de stock pasa por aquí; las alertas de stock bajo se evalúan cuando la transacción confirma
+    private void applyDeltas(List<StockDelta> deltas) {
+        //Mismo orden de bloqueo que reconcile() para no cruzarse en un interbloqueo
+        deltas = deltas.stream().sorted(Comparator.comparing(StockDelta::productCode)).toList();
+        jdbcTemplate.batchUpdate(upsertDeltaSql, deltas, deltas.size(), (ps, delta) -> {
+            ps.setInt(1, delta.productCode());
+            ps.setInt(2, delta.units());
+            ps.setInt(3, delta.expiringUnits());
+            ps.setObject(4, delta.expirationDate());
+        });
+        eventPublisher.publishEvent(StockChangedEvent.of(deltas.stream().map(StockDelta::productCode).toList()));
+    }
+
+    private void refreshEarliestExpiration(Collection<Integer> productCodes) {
+        if (!productCodes.isEmpty()) {
+            namedJdbcTemplate.update(REFRESH_EARLIEST, new MapSqlParameterSource("productCodes", productCodes));
+        }
+    }
+
+    private static String databaseProductName(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+    }
+
+    private int expiringDelta(int units, LocalDate expirationDate) {
+        return expirationDate != null && !expirationDate.isAfter(LocalDate.now().plusDays(expiringDays)) ? units : 0;
+    }
+
+    private ProductStockResDTO toDTO(ProductStock stock) {
+        return ProductStockResDTO.builder()
+                .productCode(stock.getProductCode())
+                .totalUnits(stock.getTotalUnits())
+                .expiringUnits(stock.getExpiringUnits())
+                .expiringDays(expiringDays)
+                .earliestExpiration(stock.getEarliestExpiration())
+                .build();
+    }
+
+    private record StockDelta(Integer productCode, int units, int expiringUnits, LocalDate expirationDate) {
+    }
+}
@@ -0,0 +1,248 @@
+package com.reflex.inventario.report;
+
+import com.reflex.inventario.order.OrderChangedEvent;
+import com.reflex.inventario.product.CatalogChangedEvent;
+import com.reflex.inventario.user.UserChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+//Resultados de reportes por tipo y rango de fechas. Los rangos ya cerrados viven mucho más que los que
+//incluyen el día de hoy, y cualquier cambio en una orden descarta los rangos que contienen su día
+@Component
+public class ReportCache {
+
+    public enum Kind { RESUMEN, VENTAS, COMPRAS, TOP_PRODUCTOS, CATEGORIAS, EMPLEADOS }
+
+    //Reportes que muestran nombres de productos o agrupan por categoría
+    private static final Set<Kind> CATALOG_KINDS = Set.of(Kind.VENTAS, Kind.COMPRAS, Kind.TOP_PRODUCTOS, Kind.CATEGORIAS);
+
+    @FunctionalInterface
+    public interface PdfGenerator {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private final Map<Key, CachedReport> entries;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final Duration openRangeTtl;
+    private final Duration closedRangeTtl;
+    private long bytes;
+    private long generation;//cambia en cada invalidación: un resultado calculado antes no se guarda
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ReportCache(@Value("${app.reports.cache.max-entries:500}") int maxEntries,
+                       @Value("${app.reports.cache.max-mb:64}") long maxMb,
+                       @Value("${app.reports.cache.max-entry-mb:8}") long maxEntryMb,
+                       @Value("${app.reports.cache.open-ttl-minutes:5}") long openTtlMinutes,
+                       @Value("${app.reports.cache.closed-ttl-hours:168}") long closedTtlHours) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxMb * 1024 * 1024;
+        this.maxEntryBytes = maxEntryMb * 1024 * 1024;
+        this.openRangeTtl = Duration.ofMinutes(openTtlMinutes);
+        this.closedRangeTtl = Duration.ofHours(closedTtlHours);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public <T> T get(Kind kind, LocalDate from, LocalDate to, Supplier<T> loader) {
+        return get(kind, from, to, "", loader);
+    }
+
+    //variant distingue resultados del mismo tipo y rango que dependen de otros parámetros (orden, límite...)
+    @SuppressWarnings("unchecked")
+    public <T> T get(Kind kind, LocalDate from, LocalDate to, String variant, Supplier<T> loader) {
+        Key key = new Key(kind, from, to, variant);
+        CachedReport cached = lookup(key);
+        if (cached != null) {
+            return (T) cached.value();
+        }
+        long seen = currentGeneration();
+        T value = loader.get();
+        put(key, value, 0, seen);
+        return value;
+    }
+
+    //En un acierto se copian los bytes guardados; si no, se genera hacia la respuesta y a la vez se captura
+    public void writePdf(Kind kind, LocalDate from, LocalDate to, OutputStream out, PdfGenerator generator) throws IOException {
+        Key key = new Key(kind, from, to, "");
+        CachedReport cached = lookup(key);
+        if (cached != null) {
+            out.write((byte[]) cached.value());
+            return;
+        }
+        long seen = currentGeneration();
+        CapturingOutputStream capturing = new CapturingOutputStream(out, maxEntryBytes);
+        generator.write(capturing);
+        if (capturing.isComplete()) {
+            byte[] pdf = capturing.captured();
+            put(key, pdf, pdf.length, seen);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.days().isEmpty()) {
+            return;
+        }
+        invalidate(key -> event.days().stream().anyMatch(key::contains));
+    }
+
+    //Un cambio de catálogo afecta a cualquier rango, también a los ya cerrados
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        invalidate(key -> CATALOG_KINDS.contains(key.kind()));
+    }
+
+    //Las ventas por empleado muestran el nombre del usuario
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(key -> key.kind() == Kind.EMPLEADOS);
+    }
+
+    public ReportCacheStatsDTO stats() {
+        synchronized (entries) {
+            return ReportCacheStatsDTO.builder()
+                    .hits(hits.get())
+                    .misses(misses.get())
+                    .evictions(evictions.get())
+                    .invalidations(invalidations.get())
+                    .entries(entries.size())
+                    .bytes(bytes)
+                    .build();
+        }
+    }
+
+    private void invalidate(Predicate<Key> affected) {
+        synchronized (entries) {
+            generation++;
+            Iterator<Map.Entry<Key, CachedReport>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, CachedReport> entry = iterator.next();
+                if (affected.test(entry.getKey())) {
+                    bytes -= entry.getValue().size();
+                    iterator.remove();
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private CachedReport lookup(Key key) {
+        synchronized (entries) {
+            CachedReport cached = entries.get(key);
+            if (cached != null && cached.expiresAt().isAfter(LocalDateTime.now())) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            if (cached != null) {
+                entries.remove(key);
+                bytes -= cached.size();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    private void put(Key key, Object value, long size, long seen) {
+        Duration ttl = key.to().isBefore(LocalDate.now()) ? closedRangeTtl : openRangeTtl;
+        synchronized (entries) {
+            if (generation != seen) {
+                return;
+            }
+            CachedReport previous = entries.put(key, new CachedReport(value, size, LocalDateTime.now().plus(ttl)));
+            if (previous != null) {
+                bytes -= previous.size();
+            }
+            bytes += size;
+            //LRU: se descartan las entradas usadas hace más tiempo hasta volver a los límites
+            Iterator<CachedReport> eldest = entries.values().iterator();
+            while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+                bytes -= eldest.next().size();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private long currentGeneration() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    private record Key(Kind kind, LocalDate from, LocalDate to, String variant) {
+        boolean contains(LocalDate day) {
+            return !day.isBefore(from) && !day.isAfter(to);
+        }
+    }
+
+    private record CachedReport(Object value, long size, LocalDateTime expiresAt) {
+    }
+
+    //Copia lo que se escribe a la respuesta mientras no supere el máximo por entrada
+    private static class CapturingOutputStream extends OutputStream {
+        private final OutputStream target;
+        private final long limit;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        CapturingOutputStream(OutputStream target, long limit) {
+            this.target = target;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            capture(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            capture(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        boolean isComplete() {
+            return buffer != null;
+        }
+
+        byte[] captured() {
+            return buffer.toByteArray();
+        }
+
+        private void capture(byte[] b, int off, int len) {
+            if (buffer == null) {
+                return;
+            }
+            if (buffer.size() + len > limit) {
+                buffer = null;
+                return;
+            }
+            buffer.write(b, off, len);
+        }
+    }
+}
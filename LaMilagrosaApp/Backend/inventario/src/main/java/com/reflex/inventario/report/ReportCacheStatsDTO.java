@@ -0,0 +1,17 @@
+package com.reflex.inventario.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ReportCacheStatsDTO {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private int entries;
+    private long bytes;
+}
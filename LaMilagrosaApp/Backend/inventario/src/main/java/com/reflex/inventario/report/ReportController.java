@@ -1,16 +1,36 @@
 package com.reflex.inventario.report;
 
+import com.reflex.inventario.report.export.ExportFormat;
+import com.reflex.inventario.report.export.ReportExportService;
+import com.reflex.inventario.report.job.ReportFileSender;
+import com.reflex.inventario.report.job.ReportJobDTO;
+import com.reflex.inventario.report.job.ReportJobReqDTO;
+import com.reflex.inventario.report.job.ReportJobService;
+import com.reflex.inventario.report.rollup.RollupKind;
+import com.reflex.inventario.report.rollup.RollupService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("reportes")
@@ -18,23 +38,36 @@ import java.time.LocalDate;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportCache reportCache;
+    private final RollupService rollupService;
+    private final ReportJobService reportJobService;
+    private final ReportFileSender reportFileSender;
+    private final ReportExportService reportExportService;
 
     @GetMapping("/ventas")
     public void getVentasReport(@RequestParam String from,
                                 @RequestParam String to,
+                                @RequestParam(value = "paralelo", defaultValue = "false") boolean paralelo,
                                 HttpServletResponse response) throws IOException {
         LocalDate fromDate = LocalDate.parse(from);
         LocalDate toDate = LocalDate.parse(to);
-        reportService.generateSalesReport(fromDate, toDate, response);
+        response.setContentType("application/pdf");
+        response.setHeader("Content-Disposition", "attachment; filename=ventas.pdf");
+        reportCache.writePdf(ReportCache.Kind.VENTAS, fromDate, toDate, response.getOutputStream(),
+                out -> reportService.generateSalesReport(fromDate, toDate, paralelo, out));
     }
 
     @GetMapping("/compras")
     public void getComprasReport(@RequestParam String from,
                                  @RequestParam String to,
+                                 @RequestParam(value = "paralelo", defaultValue = "false") boolean paralelo,
                                  HttpServletResponse response) throws IOException {
         LocalDate fromDate = LocalDate.parse(from);
         LocalDate toDate = LocalDate.parse(to);
-        reportService.generatePurchaseReport(fromDate, toDate, response);
+        response.setContentType("application/pdf");
+        response.setHeader("Content-Disposition", "attachment; filename=compras.pdf");
+        reportCache.writePdf(ReportCache.Kind.COMPRAS, fromDate, toDate, response.getOutputStream(),
+                out -> reportService.generatePurchaseReport(fromDate, toDate, paralelo, out));
     }
 
 
@@ -43,7 +76,76 @@ public class ReportController {
             @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
             @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
 
-        ReportResumenDTO resumen = reportService.obtenerResumenEntreFechas(from, to);
+        ReportResumenDTO resumen = reportCache.get(ReportCache.Kind.RESUMEN, from, to,
+                () -> reportService.obtenerResumenEntreFechas(from, to));
         return ResponseEntity.ok(resumen);
     }
+
+    @GetMapping("/serie")
+    public ResponseEntity<List<ReportSeriePointDTO>> getSerie(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "agrupacion", defaultValue = "DIA") ReportGranularity agrupacion) {
+        return ResponseEntity.ok(reportService.obtenerSerie(from, to, agrupacion));
+    }
+
+    @GetMapping("/productos")
+    public ResponseEntity<List<ReportProductoDTO>> getTotalesPorProducto(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "tipo", defaultValue = "VENTAS") RollupKind tipo) {
+        return ResponseEntity.ok(reportService.obtenerTotalesPorProducto(from, to, tipo));
+    }
+
+    //Recalcula los acumulados diarios del rango (por ejemplo tras corregir datos directamente en la base)
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<String> rebuildRollups(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int days = rollupService.rebuild(from, to);
+        return ResponseEntity.ok("Se recalcularon " + days + " días de acumulados");
+    }
+
+    //Reportes pesados en segundo plano: se encolan, se consulta su estado (o llega por /topic/reportes) y se descargan
+    @PostMapping("/jobs")
+    public ResponseEntity<ReportJobDTO> submitReportJob(@Valid @RequestBody ReportJobReqDTO request) {
+        return ResponseEntity.accepted().body(reportJobService.submit(request));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ReportJobDTO> getReportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(reportJobService.getJob(jobId));
+    }
+
+    @GetMapping("/jobs/{jobId}/archivo")
+    public void downloadReportJob(@PathVariable String jobId,
+                                  HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        reportFileSender.send(reportJobService.getFile(jobId), reportJobService.downloadName(jobId), request, response);
+    }
+
+    //Líneas de venta o compra en CSV o NDJSON, escritas a medida que se leen de la base de datos
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportLines(
+            @RequestParam(value = "tipo", defaultValue = "VENTAS") RollupKind tipo,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "formato", defaultValue = "CSV") ExportFormat formato,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletResponse response) {
+        StreamingResponseBody body = reportExportService.export(tipo, from, to, formato, gzip);
+        String extension = formato == ExportFormat.CSV ? "csv" : "ndjson";
+        MediaType mediaType = formato == ExportFormat.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+        String filename = tipo.name().toLowerCase() + "_" + from + "_" + to + "." + extension + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : mediaType.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString());
+        return reportExportService.writeAsync(body, response);
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ReportCacheStatsDTO> getCacheStats() {
+        return ResponseEntity.ok(reportCache.stats());
+    }
 }
@@ -0,0 +1,6 @@
+package com.reflex.inventario.report;
+
+public enum ReportGranularity {
+    DIA,
+    MES
+}
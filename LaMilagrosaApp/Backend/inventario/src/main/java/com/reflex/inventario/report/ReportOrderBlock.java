@@ -0,0 +1,32 @@
+package com.reflex.inventario.report;
+
+import com.reflex.inventario.order.Money;
+import com.reflex.inventario.order.dto.ReportLineRow;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+//Una orden ya leída y desligada de la sesión, lista para imprimirse desde cualquier hilo
+@Getter
+@AllArgsConstructor
+public class ReportOrderBlock {
+    private Integer number;
+    private LocalDateTime createdAt;
+    private List<ReportLineRow> lines;
+    private long totalCents;
+
+    public static ReportOrderBlock of(Integer number, LocalDateTime createdAt, List<ReportLineRow> lines) {
+        long total = 0;
+        for (ReportLineRow line : lines) {
+            total = Math.addExact(total, Money.lineCents(Money.toCents(line.getUnitPrice()), line.getQuantity()));
+        }
+        return new ReportOrderBlock(number, createdAt, lines, total);
+    }
+
+    public BigDecimal getTotal() {
+        return Money.fromCents(totalCents);
+    }
+}
@@ -0,0 +1,163 @@
+package com.reflex.inventario.report;
+
+import com.lowagie.text.Chunk;
+import com.lowagie.text.Document;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfCopy;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfWriter;
+import com.reflex.inventario.order.Money;
+import com.reflex.inventario.order.dto.ReportLineRow;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+//Arma el PDF de ventas/compras a partir de bloques de órdenes, en un solo hilo o por segmentos en paralelo
+@Component
+public class ReportPdfRenderer {
+
+    public record ReportHeader(String title, String countLabel, String totalLabel) {
+    }
+
+    public void render(ReportHeader header, LocalDate from, LocalDate to, long count,
+                       Iterator<List<ReportOrderBlock>> chunks, OutputStream out) throws IOException {
+        DecimalFormat money = moneyFormat();
+        Document document = new Document();
+        PdfWriter.getInstance(document, out);
+        document.open();
+
+        writeHeader(document, header, from, to, count);
+        long totalCents = 0;
+        while (chunks.hasNext()) {
+            totalCents = Math.addExact(totalCents, writeOrders(document, chunks.next(), money));
+            //Lo ya generado se envía al cliente
+            out.flush();
+        }
+        writeFooter(document, header, totalCents, money);
+        document.close();
+    }
+
+    //Cada bloque se imprime como un PDF aparte en el pool y los segmentos se copian en orden a la salida.
+    //Solo hay como máximo 2 x paralelismo segmentos en memoria a la vez
+    public void renderParallel(ReportHeader header, LocalDate from, LocalDate to, long count,
+                               Iterator<List<ReportOrderBlock>> chunks, ForkJoinPool pool, OutputStream out) throws IOException {
+        Document merged = new Document();
+        PdfCopy copy = new PdfCopy(merged, out);
+        merged.open();
+
+        int window = pool.getParallelism() * 2;
+        Deque<ForkJoinTask<byte[]>> pending = new ArrayDeque<>();
+        long totalCents = 0;
+        boolean first = true;
+        try {
+            do {
+                List<ReportOrderBlock> chunk = chunks.hasNext() ? chunks.next() : List.of();
+                totalCents = Math.addExact(totalCents, sumCents(chunk));
+                boolean withHeader = first;
+                Long footerTotal = chunks.hasNext() ? null : totalCents;
+                first = false;
+                pending.addLast(pool.submit(() -> renderSegment(header, from, to, count, chunk, withHeader, footerTotal)));
+                while (pending.size() >= window) {
+                    appendSegment(copy, pending.removeFirst().join());
+                }
+            } while (chunks.hasNext());
+            while (!pending.isEmpty()) {
+                appendSegment(copy, pending.removeFirst().join());
+            }
+        } finally {
+            pending.forEach(task -> task.cancel(true));
+        }
+        merged.close();
+    }
+
+    private byte[] renderSegment(ReportHeader header, LocalDate from, LocalDate to, long count,
+                                 List<ReportOrderBlock> chunk, boolean withHeader, Long footerTotal) {
+        DecimalFormat money = moneyFormat();
+        ByteArrayOutputStream segment = new ByteArrayOutputStream();
+        Document document = new Document();
+        PdfWriter.getInstance(document, segment);
+        document.open();
+        if (withHeader) {
+            writeHeader(document, header, from, to, count);
+        }
+        writeOrders(document, chunk, money);
+        if (footerTotal != null) {
+            writeFooter(document, header, footerTotal, money);
+        }
+        document.close();
+        return segment.toByteArray();
+    }
+
+    private void appendSegment(PdfCopy copy, byte[] segment) throws IOException {
+        PdfReader reader = new PdfReader(segment);
+        for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+            copy.addPage(copy.getImportedPage(reader, page));
+        }
+        copy.freeReader(reader);
+        reader.close();
+    }
+
+    private void writeHeader(Document document, ReportHeader header, LocalDate from, LocalDate to, long count) {
+        document.add(new Paragraph(header.title()));
+        document.add(new Paragraph("Desde: " + from + "  Hasta: " + to));
+        document.add(new Paragraph(header.countLabel() + count));
+        document.add(Chunk.NEWLINE);
+    }
+
+    private void writeFooter(Document document, ReportHeader header, long totalCents, DecimalFormat money) {
+        document.add(new Paragraph(header.totalLabel() + money.format(Money.fromCents(totalCents))));
+    }
+
+    private long writeOrders(Document document, List<ReportOrderBlock> chunk, DecimalFormat money) {
+        for (ReportOrderBlock order : chunk) {
+            document.add(new Paragraph("Orden #" + order.getNumber() + " | Fecha: " + order.getCreatedAt()));
+            PdfPTable table = new PdfPTable(4);
+            table.setWidthPercentage(100);
+            table.setSpacingBefore(10);
+
+            table.addCell("Producto");
+            table.addCell("Cantidad");
+            table.addCell("Precio Unitario");
+            table.addCell("Subtotal");
+
+            for (ReportLineRow line : order.getLines()) {
+                long subtotalCents = Money.lineCents(Money.toCents(line.getUnitPrice()), line.getQuantity());
+                table.addCell(line.getProductName());
+                table.addCell(String.valueOf(line.getQuantity()));
+                table.addCell(money.format(line.getUnitPrice()));
+                table.addCell(money.format(Money.fromCents(subtotalCents)));
+            }
+
+            document.add(table);
+            document.add(new Paragraph("Total orden: " + money.format(order.getTotal())));
+            document.add(Chunk.NEWLINE);
+        }
+        return sumCents(chunk);
+    }
+
+    private long sumCents(List<ReportOrderBlock> chunk) {
+        long total = 0;
+        for (ReportOrderBlock order : chunk) {
+            total = Math.addExact(total, order.getTotalCents());
+        }
+        return total;
+    }
+
+    //DecimalFormat no es thread-safe: uno por documento (o segmento), reutilizado en todas las celdas
+    private DecimalFormat moneyFormat() {
+        return new DecimalFormat("$#,##0.00", DecimalFormatSymbols.getInstance(Locale.US));
+    }
+}
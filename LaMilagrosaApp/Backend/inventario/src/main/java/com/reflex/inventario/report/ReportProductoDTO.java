@@ -0,0 +1,18 @@
+package com.reflex.inventario.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ReportProductoDTO {
+    private Integer productCode;
+    private String productName;
+    private long units;
+    private BigDecimal amount;
+    private long orderCount;
+}
@@ -4,12 +4,14 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
+import java.math.BigDecimal;
+
 @Data
 @Builder
 @AllArgsConstructor
 public class ReportResumenDTO {
     private long totalVentas;
     private long totalCompras;
-    private double montoVentas;
-    private double montoCompras;
+    private BigDecimal montoVentas;
+    private BigDecimal montoCompras;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.reflex.inventario.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+//Un punto del gráfico: día o primer día del mes según la agrupación
+@Data
+@Builder
+@AllArgsConstructor
+public class ReportSeriePointDTO {
+    private LocalDate periodo;
+    private long totalVentas;
+    private BigDecimal montoVentas;
+    private long totalCompras;
+    private BigDecimal montoCompras;
+}
@@ -1,16 +1,31 @@
 package com.reflex.inventario.report;
 
-import com.lowagie.text.*;
-import com.lowagie.text.pdf.PdfPTable;
-import com.lowagie.text.pdf.PdfWriter;
 import com.reflex.inventario.order.*;
+import com.reflex.inventario.order.dto.OrderTotalsRow;
+import com.reflex.inventario.order.dto.ReportLineRow;
+import com.reflex.inventario.report.ReportPdfRenderer.ReportHeader;
+import com.reflex.inventario.report.rollup.RollupKind;
+import com.reflex.inventario.report.rollup.RollupService;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -18,125 +33,113 @@ public class ReportService {
 
     private final CustomerOrderRepository customerOrderRepository;
     private final PurchaseOrderRepository purchaseOrderRepository;
-
-    public void generateSalesReport(LocalDate from, LocalDate to, HttpServletResponse response) throws IOException {
-        List<CustomerOrder> orders = customerOrderRepository.findByCreatedAtBetween(from.atStartOfDay(), to.atTime(23, 59));
-
-        Document document = new Document();
-        response.setContentType("application/pdf");
-        response.setHeader("Content-Disposition", "attachment; filename=ventas.pdf");
-
-        PdfWriter.getInstance(document, response.getOutputStream());
-        document.open();
-
-        document.add(new Paragraph("Reporte de Ventas"));
-        document.add(new Paragraph("Desde: " + from + "  Hasta: " + to));
-        document.add(new Paragraph("Total órdenes: " + orders.size()));
-        document.add(Chunk.NEWLINE);
-
-        double totalVentas = 0.0;
-
-        for (CustomerOrder order : orders) {
-            document.add(new Paragraph("Orden #" + order.getNumber() + " | Fecha: " + order.getCreatedAt()));
-            PdfPTable table = new PdfPTable(4);
-            table.setWidthPercentage(100);
-            table.setSpacingBefore(10);
-
-            table.addCell("Producto");
-            table.addCell("Cantidad");
-            table.addCell("Precio Unitario");
-            table.addCell("Subtotal");
-
-            double totalOrden = 0.0;
-            for (ProductDetail detail : order.getProductsDetails()) {
-                table.addCell(detail.getProduct().getName());
-                table.addCell(String.valueOf(detail.getQuantity()));
-                table.addCell(String.format("$%.2f", detail.getProduct().getPrice()));
-                double subtotal = detail.getProduct().getPrice() * detail.getQuantity();
-                table.addCell(String.format("$%.2f", subtotal));
-                totalOrden += subtotal;
-            }
-
-            document.add(table);
-            document.add(new Paragraph("Total orden: $" + totalOrden));
-            document.add(Chunk.NEWLINE);
-
-            totalVentas += totalOrden;
+    private final EntityManager entityManager;
+    private final RollupService rollupService;
+    private final ReportPdfRenderer reportPdfRenderer;
+    private final ForkJoinPool reportRenderPool;
+
+    //Órdenes que se renderizan por bloque: una consulta de líneas por bloque y luego se liberan de la sesión
+    private static final int REPORT_CHUNK_SIZE = 200;
+
+    @Transactional(readOnly = true)
+    public void generateSalesReport(LocalDate from, LocalDate to, boolean parallel, OutputStream out) throws IOException {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        long count = customerOrderRepository.countByCreatedAtGreaterThanEqualAndCreatedAtLessThan(start, end);
+        try (Stream<CustomerOrder> orders = customerOrderRepository.streamByCreatedAtRange(start, end)) {
+            writeReport(new ReportHeader("Reporte de Ventas", "Total órdenes: ", "💰 Total global ventas: "),
+                    from, to, count, chunks(orders, customerOrderRepository::findReportLinesByOrderNumbers), parallel, out);
         }
-
-        document.add(new Paragraph("💰 Total global ventas: $" + totalVentas));
-        document.close();
     }
 
+    @Transactional(readOnly = true)
+    public void generatePurchaseReport(LocalDate from, LocalDate to, boolean parallel, OutputStream out) throws IOException {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        long count = purchaseOrderRepository.countByCreatedAtGreaterThanEqualAndCreatedAtLessThan(start, end);
+        try (Stream<PurchaseOrder> purchases = purchaseOrderRepository.streamByCreatedAtRange(start, end)) {
+            writeReport(new ReportHeader("Reporte de Compras", "Total compras: ", "💰 Total global compras: "),
+                    from, to, count, chunks(purchases, purchaseOrderRepository::findReportLinesByOrderNumbers), parallel, out);
+        }
+    }
 
-    public void generatePurchaseReport(LocalDate from, LocalDate to, HttpServletResponse response) throws IOException {
-        List<PurchaseOrder> purchases = purchaseOrderRepository.findByCreatedAtBetween(from.atStartOfDay(), to.atTime(23, 59));
-
-        Document document = new Document();
-        response.setContentType("application/pdf");
-        response.setHeader("Content-Disposition", "attachment; filename=compras.pdf");
-
-        PdfWriter.getInstance(document, response.getOutputStream());
-        document.open();
-
-        document.add(new Paragraph("Reporte de Compras"));
-        document.add(new Paragraph("Desde: " + from + "  Hasta: " + to));
-        document.add(new Paragraph("Total compras: " + purchases.size()));
-        document.add(Chunk.NEWLINE);
-
-        double totalCompras = 0.0;
-
-        for (PurchaseOrder order : purchases) {
-            document.add(new Paragraph("Orden #" + order.getNumber() + " | Fecha: " + order.getCreatedAt()));
-            PdfPTable table = new PdfPTable(4);
-            table.setWidthPercentage(100);
-            table.setSpacingBefore(10);
-
-            table.addCell("Producto");
-            table.addCell("Cantidad");
-            table.addCell("Precio Unitario");
-            table.addCell("Subtotal");
+    private void writeReport(ReportHeader header, LocalDate from, LocalDate to, long count,
+                             Iterator<List<ReportOrderBlock>> chunks, boolean parallel,
+                             OutputStream out) throws IOException {
+        if (parallel) {
+            reportPdfRenderer.renderParallel(header, from, to, count, chunks, reportRenderPool, out);
+        } else {
+            reportPdfRenderer.render(header, from, to, count, chunks, out);
+        }
+    }
 
-            double totalOrden = 0.0;
-            for (ProductDetail detail : order.getProductsDetails()) {
-                table.addCell(detail.getProduct().getName());
-                table.addCell(String.valueOf(detail.getQuantity()));
-                table.addCell(String.format("$%.2f", detail.getProduct().getPrice()));
-                double subtotal = detail.getProduct().getPrice() * detail.getQuantity();
-                table.addCell(String.format("$%.2f", subtotal));
-                totalOrden += subtotal;
+    //La lectura se queda en este hilo (la sesión no es thread-safe): cada bloque sale ya desligado de la sesión
+    private Iterator<List<ReportOrderBlock>> chunks(Stream<? extends Order> orders,
+                                                   Function<Collection<Integer>, List<ReportLineRow>> linesLoader) {
+        Iterator<? extends Order> iterator = orders.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
             }
 
-            document.add(table);
-            document.add(new Paragraph("Total orden: $" + totalOrden));
-            document.add(Chunk.NEWLINE);
+            @Override
+            public List<ReportOrderBlock> next() {
+                List<Order> chunk = new ArrayList<>(REPORT_CHUNK_SIZE);
+                while (iterator.hasNext() && chunk.size() < REPORT_CHUNK_SIZE) {
+                    chunk.add(iterator.next());
+                }
+                Map<Integer, List<ReportLineRow>> linesByOrder = linesLoader
+                        .apply(chunk.stream().map(Order::getNumber).collect(Collectors.toList())).stream()
+                        .collect(Collectors.groupingBy(ReportLineRow::getOrderNumber));
+                List<ReportOrderBlock> blocks = chunk.stream()
+                        .map(order -> ReportOrderBlock.of(order.getNumber(), order.getCreatedAt(),
+                                linesByOrder.getOrDefault(order.getNumber(), List.of())))
+                        .collect(Collectors.toList());
+                //Se sueltan las órdenes ya leídas
+                entityManager.clear();
+                return blocks;
+            }
+        };
+    }
 
-            totalCompras+= totalOrden;
-        }
+    //Los días ya acumulados se leen de los rollups diarios y solo el tramo reciente de las órdenes
+    public ReportResumenDTO obtenerResumenEntreFechas(LocalDate from, LocalDate to) {
+        OrderTotalsRow ventas = rollupService.totals(RollupKind.VENTAS, from, to);
+        OrderTotalsRow compras = rollupService.totals(RollupKind.COMPRAS, from, to);
 
-        document.add(new Paragraph("💰 Total global compras: $" + totalCompras));
-        document.close();
+        return ReportResumenDTO.builder()
+                .totalVentas(ventas.getCount())
+                .totalCompras(compras.getCount())
+                .montoVentas(ventas.getAmount())
+                .montoCompras(compras.getAmount())
+                .build();
     }
 
-    public ReportResumenDTO obtenerResumenEntreFechas(LocalDate from, LocalDate to) {
-        List<CustomerOrder> ventas = customerOrderRepository.findByCreatedAtBetween(from.atStartOfDay(), to.atTime(23, 59));
-        List<PurchaseOrder> compras = purchaseOrderRepository.findByCreatedAtBetween(from.atStartOfDay(), to.atTime(23, 59));
+    public List<ReportSeriePointDTO> obtenerSerie(LocalDate from, LocalDate to, ReportGranularity agrupacion) {
+        Map<LocalDate, ReportSeriePointDTO> puntos = new TreeMap<>();
+        rollupService.dailyTotals(RollupKind.VENTAS, from, to).forEach((day, totals) -> {
+            ReportSeriePointDTO punto = puntos.computeIfAbsent(periodo(day, agrupacion), this::puntoVacio);
+            punto.setTotalVentas(punto.getTotalVentas() + totals.getCount());
+            punto.setMontoVentas(punto.getMontoVentas().add(totals.getAmount()));
+        });
+        rollupService.dailyTotals(RollupKind.COMPRAS, from, to).forEach((day, totals) -> {
+            ReportSeriePointDTO punto = puntos.computeIfAbsent(periodo(day, agrupacion), this::puntoVacio);
+            punto.setTotalCompras(punto.getTotalCompras() + totals.getCount());
+            punto.setMontoCompras(punto.getMontoCompras().add(totals.getAmount()));
+        });
+        return new ArrayList<>(puntos.values());
+    }
 
-        double totalVentas = ventas.stream()
-                .flatMap(order -> order.getProductsDetails().stream())
-                .mapToDouble(detail -> detail.getProduct().getPrice() * detail.getQuantity())
-                .sum();
+    public List<ReportProductoDTO> obtenerTotalesPorProducto(LocalDate from, LocalDate to, RollupKind tipo) {
+        return rollupService.productTotals(tipo, from, to);
+    }
 
-        double totalCompras = compras.stream()
-                .flatMap(order -> order.getProductsDetails().stream())
-                .mapToDouble(detail -> detail.getProduct().getPrice() * detail.getQuantity())
-                .sum();
+    private LocalDate periodo(LocalDate day, ReportGranularity agrupacion) {
+        return agrupacion == ReportGranularity.MES ? day.withDayOfMonth(1) : day;
+    }
 
-        return ReportResumenDTO.builder()
-                .totalVentas(ventas.size())
-                .totalCompras(compras.size())
-                .montoVentas(totalVentas)
-                .montoCompras(totalCompras)
-                .build();
+    private ReportSeriePointDTO puntoVacio(LocalDate periodo) {
+        return new ReportSeriePointDTO(periodo, 0, BigDecimal.ZERO, 0, BigDecimal.ZERO);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package com.reflex.inventario.report.analytics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("reportes/analitica")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    @GetMapping("/productos")
+    public ResponseEntity<List<TopProductDTO>> getTopProducts(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "orden", defaultValue = "INGRESOS") AnalyticsMetric orden,
+            @RequestParam(value = "limite", defaultValue = "10") int limite) {
+        return ResponseEntity.ok(analyticsService.topProducts(from, to, orden, limite));
+    }
+
+    @GetMapping("/categorias")
+    public ResponseEntity<List<CategorySalesDTO>> getSalesByCategory(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(analyticsService.salesByCategory(from, to));
+    }
+
+    @GetMapping("/empleados")
+    public ResponseEntity<List<EmployeeSalesDTO>> getSalesByEmployee(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "limite", defaultValue = "10") int limite) {
+        return ResponseEntity.ok(analyticsService.salesByEmployee(from, to, limite));
+    }
+}
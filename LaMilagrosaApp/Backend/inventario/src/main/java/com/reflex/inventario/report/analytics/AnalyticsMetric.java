@@ -0,0 +1,16 @@
+package com.reflex.inventario.report.analytics;
+
+import lombok.Getter;
+
+//Criterio para ordenar el top de productos
+@Getter
+public enum AnalyticsMetric {
+    UNIDADES("units"),
+    INGRESOS("amount");
+
+    private final String column;
+
+    AnalyticsMetric(String column) {
+        this.column = column;
+    }
+}
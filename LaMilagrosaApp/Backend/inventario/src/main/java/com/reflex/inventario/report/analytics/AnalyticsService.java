@@ -0,0 +1,171 @@
+package com.reflex.inventario.report.analytics;
+
+import com.reflex.inventario.handler.exceptions.InvalidReportParameterException;
+import com.reflex.inventario.report.ReportCache;
+import com.reflex.inventario.report.rollup.RollupKind;
+import com.reflex.inventario.report.rollup.RollupService;
+import com.reflex.inventario.report.rollup.RollupService.RangeSplit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+//Rankings de ventas calculados en la base de datos: se agrupa, se ordena con funciones de ventana
+//y solo vuelven las filas pedidas. Las líneas por producto salen de los acumulados diarios más el tramo sin acumular
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RollupService rollupService;
+    private final ReportCache reportCache;
+
+    public List<TopProductDTO> topProducts(LocalDate from, LocalDate to, AnalyticsMetric metric, int limit) {
+        validate(from, to, limit);
+        return reportCache.get(ReportCache.Kind.TOP_PRODUCTOS, from, to, metric + ":" + limit,
+                () -> queryTopProducts(from, to, metric, limit));
+    }
+
+    public List<CategorySalesDTO> salesByCategory(LocalDate from, LocalDate to) {
+        validate(from, to, 1);
+        return reportCache.get(ReportCache.Kind.CATEGORIAS, from, to, () -> querySalesByCategory(from, to));
+    }
+
+    public List<EmployeeSalesDTO> salesByEmployee(LocalDate from, LocalDate to, int limit) {
+        validate(from, to, limit);
+        return reportCache.get(ReportCache.Kind.EMPLEADOS, from, to, String.valueOf(limit),
+                () -> querySalesByEmployee(from, to, limit));
+    }
+
+    private List<TopProductDTO> queryTopProducts(LocalDate from, LocalDate to, AnalyticsMetric metric, int limit) {
+        List<Object> params = new ArrayList<>();
+        String lines = saleLines(from, to, params);
+        params.add(limit);
+        return jdbcTemplate.query("""
+                WITH lineas AS (%s),
+                totales AS (
+                    SELECT product_code, MAX(product_name) AS product_name, SUM(units) AS units, SUM(amount) AS amount
+                    FROM lineas
+                    GROUP BY product_code
+                )
+                SELECT t.product_code, COALESCE(p.name, t.product_name), t.units, t.amount,
+                       RANK() OVER (ORDER BY t.units DESC) AS units_rank,
+                       RANK() OVER (ORDER BY t.amount DESC) AS amount_rank,
+                       ROUND(100 * t.amount / NULLIF(SUM(t.amount) OVER (), 0), 2) AS amount_share
+                FROM totales t
+                LEFT JOIN product p ON p.code = t.product_code
+                ORDER BY t.%s DESC, t.product_code
+                LIMIT ?
+                """.formatted(lines, metric.getColumn()), (rs, i) -> TopProductDTO.builder()
+                .productCode(rs.getInt(1))
+                .productName(rs.getString(2))
+                .units(rs.getLong(3))
+                .amount(rs.getBigDecimal(4))
+                .unitsRank(rs.getLong(5))
+                .amountRank(rs.getLong(6))
+                .amountShare(rs.getBigDecimal(7))
+                .build(), params.toArray());
+    }
+
+    //Cada producto suma en una sola categoría (la de menor id si tiene varias), así los porcentajes
+    //sobre el total vendido suman 100
+    private List<CategorySalesDTO> querySalesByCategory(LocalDate from, LocalDate to) {
+        List<Object> params = new ArrayList<>();
+        String lines = saleLines(from, to, params);
+        return jdbcTemplate.query("""
+                WITH lineas AS (%s),
+                totales AS (
+                    SELECT product_code, SUM(units) AS units, SUM(amount) AS amount
+                    FROM lineas
+                    GROUP BY product_code
+                ),
+                categoria AS (
+                    SELECT pc.product_code, MIN(pc.category_id) AS category_id
+                    FROM product_category pc
+                    WHERE EXISTS (SELECT 1 FROM totales t WHERE t.product_code = pc.product_code)
+                    GROUP BY pc.product_code
+                )
+                SELECT c.id, COALESCE(c.name, 'Sin categoría'), COUNT(*), SUM(t.units), SUM(t.amount),
+                       RANK() OVER (ORDER BY SUM(t.amount) DESC) AS amount_rank,
+                       ROUND(100 * SUM(t.amount) / NULLIF((SELECT SUM(amount) FROM totales), 0), 2)
+                FROM totales t
+                LEFT JOIN categoria pc ON pc.product_code = t.product_code
+                LEFT JOIN category c ON c.id = pc.category_id
+                GROUP BY c.id, c.name
+                ORDER BY amount_rank, c.id
+                """.formatted(lines), (rs, i) -> CategorySalesDTO.builder()
+                .categoryId(rs.getObject(1, Integer.class))
+                .categoryName(rs.getString(2))
+                .productCount(rs.getLong(3))
+                .units(rs.getLong(4))
+                .amount(rs.getBigDecimal(5))
+                .rank(rs.getLong(6))
+                .amountShare(rs.getBigDecimal(7))
+                .build(), params.toArray());
+    }
+
+    //Se lee de customer_order sin pasar por las líneas: el subtotal ya está en la orden
+    private List<EmployeeSalesDTO> querySalesByEmployee(LocalDate from, LocalDate to, int limit) {
+        return jdbcTemplate.query("""
+                SELECT u.id, u.nombre, COUNT(*), SUM(o.subtotal), ROUND(AVG(o.subtotal), 2),
+                       RANK() OVER (ORDER BY SUM(o.subtotal) DESC) AS amount_rank,
+                       ROUND(100 * SUM(o.subtotal) / NULLIF(SUM(SUM(o.subtotal)) OVER (), 0), 2)
+                FROM customer_order o
+                JOIN _user u ON u.id = o.user_id
+                WHERE o.created_at >= ? AND o.created_at < ?
+                GROUP BY u.id, u.nombre
+                ORDER BY amount_rank, u.id
+                LIMIT ?
+                """, (rs, i) -> EmployeeSalesDTO.builder()
+                .userId(rs.getInt(1))
+                .userName(rs.getString(2))
+                .orderCount(rs.getLong(3))
+                .amount(rs.getBigDecimal(4))
+                .averageTicket(rs.getBigDecimal(5))
+                .rank(rs.getLong(6))
+                .amountShare(rs.getBigDecimal(7))
+                .build(),
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()), limit);
+    }
+
+    //Unidades y monto por producto del rango: días acumulados de daily_product_rollup y el resto de product_detail.
+    //Los acumulados traen el nombre guardado, que se usa si el producto ya no existe
+    private String saleLines(LocalDate from, LocalDate to, List<Object> params) {
+        RangeSplit split = rollupService.split(RollupKind.VENTAS, from, to);
+        List<String> parts = new ArrayList<>();
+        if (split.hasRolled()) {
+            parts.add("""
+                    SELECT r.product_code, r.product_name, r.units, r.amount
+                    FROM daily_product_rollup r
+                    WHERE r.kind = ? AND r.rollup_day BETWEEN ? AND ?""");
+            params.add(RollupKind.VENTAS.name());
+            params.add(from);
+            params.add(split.rolledTo());
+        }
+        if (split.hasRaw()) {
+            parts.add("""
+                    SELECT d.product_code, CAST(NULL AS VARCHAR(255)) AS product_name, d.quantity AS units, d.quantity * d.unit_price AS amount
+                    FROM customer_order o
+                    JOIN product_detail d ON d.customer_order_number = o.number
+                    WHERE o.created_at >= ? AND o.created_at < ? AND d.product_code IS NOT NULL""");
+            params.add(split.rawStart());
+            params.add(split.rawEnd());
+        }
+        return String.join("\nUNION ALL\n", parts);
+    }
+
+    private void validate(LocalDate from, LocalDate to, int limit) {
+        if (from.isAfter(to)) {
+            throw new InvalidReportParameterException("La fecha inicial no puede ser posterior a la final");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidReportParameterException("El límite debe estar entre 1 y " + MAX_LIMIT);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.reflex.inventario.report.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+//Un producto con varias categorías suma solo en la de menor id: los porcentajes suman 100
+@Data
+@Builder
+@AllArgsConstructor
+public class CategorySalesDTO {
+    private Integer categoryId;//null para los productos sin categoría
+    private String categoryName;
+    private long productCount;
+    private long units;
+    private BigDecimal amount;
+    private long rank;
+    private BigDecimal amountShare;
+}
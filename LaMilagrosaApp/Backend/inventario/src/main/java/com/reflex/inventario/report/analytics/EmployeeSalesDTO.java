@@ -0,0 +1,20 @@
+package com.reflex.inventario.report.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class EmployeeSalesDTO {
+    private Integer userId;
+    private String userName;
+    private long orderCount;
+    private BigDecimal amount;
+    private BigDecimal averageTicket;
+    private long rank;
+    private BigDecimal amountShare;
+}
@@ -0,0 +1,20 @@
+package com.reflex.inventario.report.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class TopProductDTO {
+    private Integer productCode;
+    private String productName;
+    private long units;
+    private BigDecimal amount;
+    private long unitsRank;
+    private long amountRank;
+    private BigDecimal amountShare;//porcentaje del total vendido en el rango
+}
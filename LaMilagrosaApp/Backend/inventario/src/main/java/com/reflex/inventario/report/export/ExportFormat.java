@@ -0,0 +1,6 @@
+package com.reflex.inventario.report.export;
+
+public enum ExportFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,232 @@
+package com.reflex.inventario.report.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reflex.inventario.handler.exceptions.InvalidReportParameterException;
+import com.reflex.inventario.report.rollup.RollupKind;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+//Exporta las líneas de venta o compra fila por fila desde un cursor de la base de datos:
+//la memoria no depende de cuántas líneas tenga el rango
+@Service
+public class ReportExportService {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] COLUMNS = {
+            "numero", "fecha", "usuario", "proveedor", "producto", "cantidad", "precio_unitario", "subtotal"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnly;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor exportExecutor;
+
+    public ReportExportService(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               @Qualifier("exportExecutor") ThreadPoolTaskExecutor exportExecutor) {
+        this.jdbcTemplate = jdbcTemplate;
+        //PostgreSQL solo respeta el fetch size dentro de una transacción (sin autocommit)
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.exportExecutor = exportExecutor;
+    }
+
+    //La descarga se escribe en el pool acotado de exportaciones; el resto de las respuestas asíncronas
+    //de Spring MVC siguen en su ejecutor. El timeout es el de spring.mvc.async.request-timeout
+    public WebAsyncTask<Void> writeAsync(StreamingResponseBody body, HttpServletResponse response) {
+        return new WebAsyncTask<>(null, exportExecutor, () -> {
+            body.writeTo(response.getOutputStream());
+            return null;
+        });
+    }
+
+    public StreamingResponseBody export(RollupKind tipo, LocalDate from, LocalDate to, ExportFormat formato, boolean gzip) {
+        if (from.isAfter(to)) {
+            throw new InvalidReportParameterException("La fecha inicial no puede ser posterior a la final");
+        }
+        String sql = linesQuery(tipo);
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        return out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+            RowWriter rows = formato == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer, objectMapper);
+            rows.begin();
+            readOnly.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(FETCH_SIZE);
+                statement.setTimestamp(1, start);
+                statement.setTimestamp(2, end);
+                return statement;
+            }, rs -> {
+                try {
+                    rows.write(rs);
+                } catch (IOException e) {
+                    //El cliente cortó la descarga: se aborta la consulta
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            rows.end();
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+            out.flush();
+        };
+    }
+
+    private String linesQuery(RollupKind tipo) {
+        String provider = tipo == RollupKind.COMPRAS ? "pr.name" : "CAST(NULL AS VARCHAR(255))";
+        String providerJoin = tipo == RollupKind.COMPRAS ? "JOIN provider pr ON pr.id = o.provider_id" : "";
+        return """
+                SELECT o.number, o.created_at, u.nombre, %s, p.name, d.quantity, d.unit_price
+                FROM %s o
+                JOIN _user u ON u.id = o.user_id
+                %s
+                JOIN product_detail d ON d.%s = o.number
+                LEFT JOIN product p ON p.code = d.product_code
+                WHERE o.created_at >= ? AND o.created_at < ?
+                ORDER BY o.created_at, o.number, d.id
+                """.formatted(provider, tipo.getOrderTable(), providerJoin, tipo.getDetailColumn());
+    }
+
+    private abstract static class RowWriter {
+        protected final Writer writer;
+
+        RowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        abstract void begin() throws IOException;
+
+        abstract void write(ResultSet rs) throws IOException, SQLException;
+
+        void end() throws IOException {
+            writer.flush();
+        }
+
+        protected static BigDecimal subtotal(int quantity, BigDecimal unitPrice) {
+            return unitPrice == null ? null : unitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+
+    private static class CsvRowWriter extends RowWriter {
+        private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+        CsvRowWriter(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void begin() throws IOException {
+            //BOM para que Excel reconozca UTF-8 (tildes y ñ en nombres)
+            writer.write('\uFEFF');
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        void write(ResultSet rs) throws IOException, SQLException {
+            int quantity = rs.getInt(6);
+            BigDecimal unitPrice = rs.getBigDecimal(7);
+            BigDecimal subtotal = subtotal(quantity, unitPrice);
+            writer.write(String.valueOf(rs.getInt(1)));
+            writer.write(',');
+            writer.write(rs.getTimestamp(2).toLocalDateTime().toString());
+            writer.write(',');
+            writeText(rs.getString(3));
+            writer.write(',');
+            writeText(rs.getString(4));
+            writer.write(',');
+            writeText(rs.getString(5));
+            writer.write(',');
+            writer.write(String.valueOf(quantity));
+            writer.write(',');
+            writer.write(unitPrice == null ? "" : unitPrice.toPlainString());
+            writer.write(',');
+            writer.write(subtotal == null ? "" : subtotal.toPlainString());
+            writer.write("\r\n");
+        }
+
+        private void writeText(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            //Excel y similares interpretan como fórmula una celda que empieza con = + - @ (o tab/retorno):
+            //se antepone una comilla simple para que se muestre como texto
+            if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private static class NdjsonRowWriter extends RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer, ObjectMapper objectMapper) throws IOException {
+            super(writer);
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void begin() {
+        }
+
+        @Override
+        void write(ResultSet rs) throws IOException, SQLException {
+            int quantity = rs.getInt(6);
+            BigDecimal unitPrice = rs.getBigDecimal(7);
+            generator.writeStartObject();
+            generator.writeNumberField(COLUMNS[0], rs.getInt(1));
+            generator.writeStringField(COLUMNS[1], rs.getTimestamp(2).toLocalDateTime().toString());
+            generator.writeStringField(COLUMNS[2], rs.getString(3));
+            generator.writeStringField(COLUMNS[3], rs.getString(4));
+            generator.writeStringField(COLUMNS[4], rs.getString(5));
+            generator.writeNumberField(COLUMNS[5], quantity);
+            generator.writeNumberField(COLUMNS[6], unitPrice);
+            generator.writeNumberField(COLUMNS[7], subtotal(quantity, unitPrice));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void end() throws IOException {
+            generator.flush();
+            super.end();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.reflex.inventario.report.job;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+//Envía un archivo de reporte soportando Range (un solo rango) y, si el conector lo permite,
+//con sendfile de Tomcat para que el contenido no pase por la JVM
+@Component
+public class ReportFileSender {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    public void send(Path file, String downloadName, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = Files.size(file);
+        long start = 0;
+        long end = length - 1;
+
+        response.setContentType("application/pdf");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(downloadName)
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null) {
+            List<HttpRange> ranges = parseRanges(rangeHeader);
+            //Varios rangos en una petición no se usan para PDFs: se responde el archivo completo
+            if (ranges.size() == 1) {
+                boolean satisfiable;
+                try {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    //HttpRange no valida un inicio en o después del final del archivo
+                    satisfiable = start < length && start <= end;
+                } catch (IllegalArgumentException e) {
+                    satisfiable = false;
+                }
+                if (!satisfiable) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, target);
+            }
+        }
+    }
+
+    private List<HttpRange> parseRanges(String rangeHeader) {
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.reflex.inventario.report.job;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportJobDTO {
+    private String jobId;
+    private ReportJobType tipo;
+    private LocalDate from;
+    private LocalDate to;
+    private boolean paralelo;
+    private ReportJobStatus status;
+    private String message;
+    private Long sizeBytes;
+    private String downloadUrl;//solo cuando el archivo está listo
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+}
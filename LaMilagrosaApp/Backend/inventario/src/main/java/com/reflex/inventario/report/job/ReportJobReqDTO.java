@@ -0,0 +1,23 @@
+package com.reflex.inventario.report.job;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportJobReqDTO {
+    @NotNull(message = "El tipo de reporte no puede estar vacío")
+    private ReportJobType tipo;
+
+    @NotNull(message = "La fecha inicial no puede estar vacía")
+    private LocalDate from;
+
+    @NotNull(message = "La fecha final no puede estar vacía")
+    private LocalDate to;
+
+    private Boolean paralelo;//opcional: imprime el PDF por segmentos en paralelo
+}
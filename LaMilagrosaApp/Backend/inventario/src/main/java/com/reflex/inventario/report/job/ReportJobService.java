@@ -0,0 +1,191 @@
+package com.reflex.inventario.report.job;
+
+import com.reflex.inventario.alert.AlertWebSocketService;
+import com.reflex.inventario.handler.exceptions.InvalidReportParameterException;
+import com.reflex.inventario.handler.exceptions.JobNotFoundException;
+import com.reflex.inventario.handler.exceptions.ReportQueueFullException;
+import com.reflex.inventario.report.ReportCache;
+import com.reflex.inventario.report.ReportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+//Genera los PDF pesados fuera del hilo de la petición y los deja en disco hasta que vence la retención
+@Slf4j
+@Service
+public class ReportJobService {
+
+    private final ReportService reportService;
+    private final ReportCache reportCache;
+    private final ThreadPoolTaskExecutor reportExecutor;
+    private final AlertWebSocketService alertWebSocketService;
+    private final Path reportDir;
+    private final Duration retention;
+    private final String contextPath;
+    private final Map<String, ReportJobDTO> jobs = new ConcurrentHashMap<>();
+
+    public ReportJobService(ReportService reportService,
+                            ReportCache reportCache,
+                            @Qualifier("reportExecutor") ThreadPoolTaskExecutor reportExecutor,
+                            AlertWebSocketService alertWebSocketService,
+                            @Value("${app.reports.dir:${java.io.tmpdir}/lamilagrosa-reportes}") String reportDir,
+                            @Value("${app.reports.retention-hours:24}") long retentionHours,
+                            @Value("${server.servlet.context-path:}") String contextPath) {
+        this.reportService = reportService;
+        this.reportCache = reportCache;
+        this.reportExecutor = reportExecutor;
+        this.alertWebSocketService = alertWebSocketService;
+        this.reportDir = Paths.get(reportDir);
+        this.retention = Duration.ofHours(retentionHours);
+        //El trabajo termina fuera de la petición: la URL de descarga se arma con el context-path configurado
+        this.contextPath = contextPath.endsWith("/") ? contextPath.substring(0, contextPath.length() - 1) : contextPath;
+        try {
+            Files.createDirectories(this.reportDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de reportes " + reportDir, e);
+        }
+    }
+
+    public ReportJobDTO submit(ReportJobReqDTO request) {
+        if (request.getFrom().isAfter(request.getTo())) {
+            throw new InvalidReportParameterException("La fecha inicial no puede ser posterior a la final");
+        }
+        ReportJobDTO job = ReportJobDTO.builder()
+                .jobId(UUID.randomUUID().toString())
+                .tipo(request.getTipo())
+                .from(request.getFrom())
+                .to(request.getTo())
+                .paralelo(Boolean.TRUE.equals(request.getParalelo()))
+                .status(ReportJobStatus.PENDIENTE)
+                .submittedAt(LocalDateTime.now())
+                .build();
+        jobs.put(job.getJobId(), job);
+        try {
+            reportExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getJobId());
+            throw new ReportQueueFullException("Hay demasiados reportes en cola, intente de nuevo en unos segundos");
+        }
+        return job;
+    }
+
+    public ReportJobDTO getJob(String jobId) {
+        ReportJobDTO job = jobs.get(jobId);
+        if (job == null) {
+            throw new JobNotFoundException("El reporte con id " + jobId + " no ha sido encontrado.");
+        }
+        return job;
+    }
+
+    //El archivo se busca por id (y no solo en memoria) para que las descargas sobrevivan a un reinicio
+    public Path getFile(String jobId) {
+        Path file = fileFor(jobId);
+        if (!Files.isRegularFile(file)) {
+            throw new JobNotFoundException("El archivo del reporte con id " + jobId + " no existe o ya fue eliminado.");
+        }
+        return file;
+    }
+
+    public String downloadName(String jobId) {
+        ReportJobDTO job = jobs.get(jobId);
+        if (job == null) {
+            return "reporte.pdf";
+        }
+        return job.getTipo().name().toLowerCase() + "_" + job.getFrom() + "_" + job.getTo() + ".pdf";
+    }
+
+    private void run(ReportJobDTO job) {
+        jobs.put(job.getJobId(), job.toBuilder().status(ReportJobStatus.EN_PROCESO).build());
+        ReportJobDTO.ReportJobDTOBuilder finished = job.toBuilder();
+        Path file = fileFor(job.getJobId());
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        try {
+            //Se escribe a un temporal y se renombra: nunca se sirve un PDF a medio generar
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                generate(job, out);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            finished.status(ReportJobStatus.COMPLETADO)
+                    .sizeBytes(Files.size(file))
+                    .downloadUrl(contextPath + "/reportes/jobs/" + job.getJobId() + "/archivo")
+                    .message("El reporte está listo para descargar");
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo generar el reporte {}: {}", job.getJobId(), e.getMessage());
+            deleteQuietly(partial);
+            finished.status(ReportJobStatus.FALLIDO)
+                    .message(e.getMessage());
+        }
+        ReportJobDTO result = finished.finishedAt(LocalDateTime.now()).build();
+        jobs.put(job.getJobId(), result);
+        alertWebSocketService.sendReportJobStatus(result);
+    }
+
+    private void generate(ReportJobDTO job, OutputStream out) throws IOException {
+        if (job.getTipo() == ReportJobType.VENTAS) {
+            reportCache.writePdf(ReportCache.Kind.VENTAS, job.getFrom(), job.getTo(), out,
+                    target -> reportService.generateSalesReport(job.getFrom(), job.getTo(), job.isParalelo(), target));
+        } else {
+            reportCache.writePdf(ReportCache.Kind.COMPRAS, job.getFrom(), job.getTo(), out,
+                    target -> reportService.generatePurchaseReport(job.getFrom(), job.getTo(), job.isParalelo(), target));
+        }
+    }
+
+    //Borra los archivos (y temporales huérfanos) más viejos que la retención y olvida sus trabajos
+    @Scheduled(fixedDelay = 30 * 60 * 1000)
+    public void cleanUp() {
+        Instant limit = Instant.now().minus(retention);
+        try (Stream<Path> files = Files.list(reportDir)) {
+            files.filter(file -> isOlderThan(file, limit)).forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("No se pudo limpiar el directorio de reportes: {}", e.getMessage());
+        }
+        LocalDateTime jobLimit = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(jobLimit));
+    }
+
+    private Path fileFor(String jobId) {
+        //UUID.fromString valida el id y evita rutas fuera del directorio; un id mal formado no existe
+        try {
+            return reportDir.resolve(UUID.fromString(jobId) + ".pdf");
+        } catch (IllegalArgumentException e) {
+            throw new JobNotFoundException("El reporte con id " + jobId + " no ha sido encontrado.");
+        }
+    }
+
+    private boolean isOlderThan(Path file, Instant limit) {
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            return modified.toInstant().isBefore(limit);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar {}: {}", file, e.getMessage());
+        }
+    }
+}
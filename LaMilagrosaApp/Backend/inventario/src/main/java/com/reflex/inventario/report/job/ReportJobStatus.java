@@ -0,0 +1,8 @@
+package com.reflex.inventario.report.job;
+
+public enum ReportJobStatus {
+    PENDIENTE,
+    EN_PROCESO,
+    COMPLETADO,
+    FALLIDO
+}
@@ -0,0 +1,6 @@
+package com.reflex.inventario.report.job;
+
+public enum ReportJobType {
+    VENTAS,
+    COMPRAS
+}
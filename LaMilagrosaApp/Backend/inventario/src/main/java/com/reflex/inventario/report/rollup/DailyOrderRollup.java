@@ -0,0 +1,28 @@
+package com.reflex.inventario.report.rollup;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+//Cantidad de órdenes y suma de subtotales de un día cerrado
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@IdClass(DailyOrderRollupId.class)
+@Table( name = "daily_order_rollup")
+public class DailyOrderRollup {
+    @Id
+    private LocalDate rollupDay;
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private RollupKind kind;
+    private Long orderCount;
+    @Column(precision = 16, scale = 2)
+    private BigDecimal amount;
+}
@@ -0,0 +1,16 @@
+package com.reflex.inventario.report.rollup;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailyOrderRollupId implements Serializable {
+    private LocalDate rollupDay;
+    private RollupKind kind;
+}
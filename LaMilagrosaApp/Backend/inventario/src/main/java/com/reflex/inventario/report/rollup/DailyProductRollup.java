@@ -0,0 +1,33 @@
+package com.reflex.inventario.report.rollup;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+//Unidades, monto y órdenes de un producto en un día cerrado
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@IdClass(DailyProductRollupId.class)
+@Table( name = "daily_product_rollup",
+        indexes = @Index(name = "idx_daily_product_rollup_kind_day", columnList = "kind, rollup_day"))
+public class DailyProductRollup {
+    @Id
+    private LocalDate rollupDay;
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private RollupKind kind;
+    @Id
+    private Integer productCode;
+    private String productName;//nombre al acumular: se conserva aunque el producto se elimine
+    private Long units;
+    @Column(precision = 16, scale = 2)
+    private BigDecimal amount;
+    private Long orderCount;
+}
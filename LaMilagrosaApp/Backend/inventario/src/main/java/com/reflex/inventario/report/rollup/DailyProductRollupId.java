@@ -0,0 +1,17 @@
+package com.reflex.inventario.report.rollup;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailyProductRollupId implements Serializable {
+    private LocalDate rollupDay;
+    private RollupKind kind;
+    private Integer productCode;
+}
@@ -0,0 +1,40 @@
+package com.reflex.inventario.report.rollup;
+
+import java.time.LocalDate;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+//Candados por día repartidos en franjas: rehacer un día por una orden modificada solo espera al bloque
+//del rollup que incluye ese día, no a toda la pasada
+class RollupDayLocks {
+
+    private final ReentrantLock[] stripes;
+
+    RollupDayLocks(int stripeCount) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    void withDays(LocalDate from, LocalDate to, Runnable action) {
+        //Se toman siempre en el mismo orden para evitar interbloqueos
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (LocalDate day = from; !day.isAfter(to) && indexes.size() < stripes.length; day = day.plusDays(1)) {
+            indexes.add(Math.floorMod(day.toEpochDay(), stripes.length));
+        }
+        Integer[] acquired = indexes.toArray(new Integer[0]);
+        int locked = 0;
+        try {
+            for (Integer index : acquired) {
+                stripes[index].lock();
+                locked++;
+            }
+            action.run();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[acquired[i]].unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.reflex.inventario.report.rollup;
+
+//Origen de cada acumulado: tabla de órdenes y columna que enlaza sus líneas
+public enum RollupKind {
+    VENTAS("customer_order", "customer_order_number"),
+    COMPRAS("purchase_order", "purchase_order_number");
+
+    private final String orderTable;
+    private final String detailColumn;
+
+    RollupKind(String orderTable, String detailColumn) {
+        this.orderTable = orderTable;
+        this.detailColumn = detailColumn;
+    }
+
+    public String getOrderTable() {
+        return orderTable;
+    }
+
+    public String getDetailColumn() {
+        return detailColumn;
+    }
+}
@@ -0,0 +1,270 @@
+package com.reflex.inventario.report.rollup;
+
+import com.reflex.inventario.order.OrderChangedEvent;
+import com.reflex.inventario.order.dto.OrderTotalsRow;
+import com.reflex.inventario.report.ReportProductoDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+//Acumulados diarios de ventas y compras. Los días hasta la marca de agua se leen de las tablas de rollup
+//y el resto (normalmente solo hoy) directamente de las órdenes
+@Slf4j
+@Service
+public class RollupService {
+
+    private static final int REBUILD_CHUNK_DAYS = 31;
+    private static final int DAY_LOCK_STRIPES = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RollupWatermarkRepository rollupWatermarkRepository;
+    private final TransactionTemplate requiresNew;
+    private final RollupDayLocks dayLocks = new RollupDayLocks(DAY_LOCK_STRIPES);
+
+    public RollupService(JdbcTemplate jdbcTemplate,
+                         RollupWatermarkRepository rollupWatermarkRepository,
+                         PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupWatermarkRepository = rollupWatermarkRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    //Lectura
+
+    public OrderTotalsRow totals(RollupKind kind, LocalDate from, LocalDate to) {
+        long count = 0;
+        BigDecimal amount = BigDecimal.ZERO;
+        RangeSplit split = split(kind, from, to);
+        if (split.hasRolled()) {
+            OrderTotalsRow rolled = jdbcTemplate.queryForObject("""
+                    SELECT COALESCE(SUM(order_count), 0), COALESCE(SUM(amount), 0)
+                    FROM daily_order_rollup
+                    WHERE kind = ? AND rollup_day BETWEEN ? AND ?
+                    """, (rs, i) -> new OrderTotalsRow(rs.getLong(1), rs.getBigDecimal(2)),
+                    kind.name(), from, split.rolledTo());
+            count += rolled.getCount();
+            amount = amount.add(rolled.getAmount());
+        }
+        if (split.hasRaw()) {
+            OrderTotalsRow raw = jdbcTemplate.queryForObject("""
+                    SELECT COUNT(*), COALESCE(SUM(subtotal), 0)
+                    FROM %s
+                    WHERE created_at >= ? AND created_at < ?
+                    """.formatted(kind.getOrderTable()), (rs, i) -> new OrderTotalsRow(rs.getLong(1), rs.getBigDecimal(2)),
+                    split.rawStart(), split.rawEnd());
+            count += raw.getCount();
+            amount = amount.add(raw.getAmount());
+        }
+        return new OrderTotalsRow(count, amount);
+    }
+
+    public Map<LocalDate, OrderTotalsRow> dailyTotals(RollupKind kind, LocalDate from, LocalDate to) {
+        Map<LocalDate, OrderTotalsRow> days = new TreeMap<>();
+        RangeSplit split = split(kind, from, to);
+        if (split.hasRolled()) {
+            jdbcTemplate.query("""
+                    SELECT rollup_day, order_count, amount
+                    FROM daily_order_rollup
+                    WHERE kind = ? AND rollup_day BETWEEN ? AND ?
+                    """, rs -> {
+                days.put(rs.getObject(1, LocalDate.class), new OrderTotalsRow(rs.getLong(2), rs.getBigDecimal(3)));
+            }, kind.name(), from, split.rolledTo());
+        }
+        if (split.hasRaw()) {
+            jdbcTemplate.query("""
+                    SELECT CAST(created_at AS DATE), COUNT(*), COALESCE(SUM(subtotal), 0)
+                    FROM %s
+                    WHERE created_at >= ? AND created_at < ?
+                    GROUP BY CAST(created_at AS DATE)
+                    """.formatted(kind.getOrderTable()), rs -> {
+                days.put(rs.getObject(1, LocalDate.class), new OrderTotalsRow(rs.getLong(2), rs.getBigDecimal(3)));
+            }, split.rawStart(), split.rawEnd());
+        }
+        return days;
+    }
+
+    public List<ReportProductoDTO> productTotals(RollupKind kind, LocalDate from, LocalDate to) {
+        Map<Integer, ReportProductoDTO> products = new LinkedHashMap<>();
+        RangeSplit split = split(kind, from, to);
+        if (split.hasRolled()) {
+            jdbcTemplate.query("""
+                    SELECT r.product_code, COALESCE(p.name, MAX(r.product_name)), SUM(r.units), SUM(r.amount), SUM(r.order_count)
+                    FROM daily_product_rollup r
+                    LEFT JOIN product p ON p.code = r.product_code
+                    WHERE r.kind = ? AND r.rollup_day BETWEEN ? AND ?
+                    GROUP BY r.product_code, p.name
+                    """, rs -> {
+                mergeProduct(products, rs.getInt(1), rs.getString(2), rs.getLong(3), rs.getBigDecimal(4), rs.getLong(5));
+            }, kind.name(), from, split.rolledTo());
+        }
+        if (split.hasRaw()) {
+            jdbcTemplate.query("""
+                    SELECT d.product_code, p.name, SUM(d.quantity), COALESCE(SUM(d.quantity * d.unit_price), 0), COUNT(DISTINCT o.number)
+                    FROM %s o
+                    JOIN product_detail d ON d.%s = o.number
+                    LEFT JOIN product p ON p.code = d.product_code
+                    WHERE o.created_at >= ? AND o.created_at < ? AND d.product_code IS NOT NULL
+                    GROUP BY d.product_code, p.name
+                    """.formatted(kind.getOrderTable(), kind.getDetailColumn()), rs -> {
+                mergeProduct(products, rs.getInt(1), rs.getString(2), rs.getLong(3), rs.getBigDecimal(4), rs.getLong(5));
+            }, split.rawStart(), split.rawEnd());
+        }
+        List<ReportProductoDTO> result = new ArrayList<>(products.values());
+        result.sort(Comparator.comparing(ReportProductoDTO::getAmount).reversed());
+        return result;
+    }
+
+    //Escritura
+
+    //Avanza la marca de agua hasta ayer procesando solo los días que aún no se acumularon
+    @Scheduled(fixedDelayString = "${app.reports.rollup.interval-ms:300000}")
+    public synchronized void rollUp() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        for (RollupKind kind : RollupKind.values()) {
+            LocalDate next = nextDayToRoll(kind);
+            if (next == null) {
+                saveWatermark(kind, yesterday);
+                continue;
+            }
+            while (!next.isAfter(yesterday)) {
+                LocalDate end = min(next.plusDays(REBUILD_CHUNK_DAYS - 1), yesterday);
+                LocalDate chunkStart = next;
+                dayLocks.withDays(chunkStart, end, () -> requiresNew.executeWithoutResult(status -> {
+                    rebuildDays(kind, chunkStart, end);
+                    saveWatermark(kind, end);
+                }));
+                log.info("Acumulados de {} generados del {} al {}", kind, chunkStart, end);
+                next = end.plusDays(1);
+            }
+        }
+    }
+
+    //Recalcula los días ya acumulados del rango; devuelve cuántos días se reconstruyeron
+    public synchronized int rebuild(LocalDate from, LocalDate to) {
+        int rebuilt = 0;
+        for (RollupKind kind : RollupKind.values()) {
+            LocalDate last = lastRolledDay(kind);
+            if (last == null) {
+                continue;
+            }
+            LocalDate end = min(to, last);
+            for (LocalDate start = from; !start.isAfter(end); start = start.plusDays(REBUILD_CHUNK_DAYS)) {
+                LocalDate chunkStart = start;
+                LocalDate chunkEnd = min(start.plusDays(REBUILD_CHUNK_DAYS - 1), end);
+                dayLocks.withDays(chunkStart, chunkEnd, () -> requiresNew.executeWithoutResult(status -> rebuildDays(kind, chunkStart, chunkEnd)));
+                rebuilt += (int) (chunkEnd.toEpochDay() - chunkStart.toEpochDay() + 1);
+            }
+        }
+        return rebuilt;
+    }
+
+    //Una orden de un día ya acumulado cambió: ese día se rehace antes de que el caché de reportes se invalide.
+    //Corre en el hilo de la petición, así que no toma el monitor de rollUp/rebuild: solo el candado del día.
+    //La marca de agua se lee con el candado tomado; si un bloque que incluye el día está en curso, se espera
+    //a que confirme y el día ya cuenta como acumulado. Los días de hoy nunca compiten con el rollup
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        for (RollupKind kind : RollupKind.values()) {
+            for (LocalDate day : event.days()) {
+                dayLocks.withDays(day, day, () -> {
+                    LocalDate last = lastRolledDay(kind);
+                    if (last != null && !day.isAfter(last)) {
+                        requiresNew.executeWithoutResult(status -> rebuildDays(kind, day, day));
+                    }
+                });
+            }
+        }
+    }
+
+    private void rebuildDays(RollupKind kind, LocalDate from, LocalDate to) {
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        jdbcTemplate.update("DELETE FROM daily_order_rollup WHERE kind = ? AND rollup_day BETWEEN ? AND ?",
+                kind.name(), from, to);
+        jdbcTemplate.update("DELETE FROM daily_product_rollup WHERE kind = ? AND rollup_day BETWEEN ? AND ?",
+                kind.name(), from, to);
+        jdbcTemplate.update("""
+                INSERT INTO daily_order_rollup (rollup_day, kind, order_count, amount)
+                SELECT CAST(o.created_at AS DATE), ?, COUNT(*), COALESCE(SUM(o.subtotal), 0)
+                FROM %s o
+                WHERE o.created_at >= ? AND o.created_at < ?
+                GROUP BY CAST(o.created_at AS DATE)
+                """.formatted(kind.getOrderTable()), kind.name(), start, end);
+        jdbcTemplate.update("""
+                INSERT INTO daily_product_rollup (rollup_day, kind, product_code, product_name, units, amount, order_count)
+                SELECT CAST(o.created_at AS DATE), ?, d.product_code, MAX(p.name), SUM(d.quantity),
+                       COALESCE(SUM(d.quantity * d.unit_price), 0), COUNT(DISTINCT o.number)
+                FROM %s o
+                JOIN product_detail d ON d.%s = o.number
+                LEFT JOIN product p ON p.code = d.product_code
+                WHERE o.created_at >= ? AND o.created_at < ? AND d.product_code IS NOT NULL
+                GROUP BY CAST(o.created_at AS DATE), d.product_code
+                """.formatted(kind.getOrderTable(), kind.getDetailColumn()), kind.name(), start, end);
+    }
+
+    private LocalDate nextDayToRoll(RollupKind kind) {
+        LocalDate last = lastRolledDay(kind);
+        if (last != null) {
+            return last.plusDays(1);
+        }
+        Timestamp first = jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM %s".formatted(kind.getOrderTable()), Timestamp.class);
+        return first == null ? null : first.toLocalDateTime().toLocalDate();
+    }
+
+    private LocalDate lastRolledDay(RollupKind kind) {
+        return rollupWatermarkRepository.findById(kind)
+                .map(RollupWatermark::getLastDay)
+                .orElse(null);
+    }
+
+    private void saveWatermark(RollupKind kind, LocalDate lastDay) {
+        rollupWatermarkRepository.save(RollupWatermark.builder()
+                .kind(kind)
+                .lastDay(lastDay)
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    //Parte del rango que ya está en las tablas de rollup (hasta rolledTo) y parte que se lee de las órdenes
+    public RangeSplit split(RollupKind kind, LocalDate from, LocalDate to) {
+        LocalDate last = lastRolledDay(kind);
+        LocalDate rolledTo = last == null ? null : min(to, last);
+        boolean hasRolled = rolledTo != null && !from.isAfter(rolledTo);
+        LocalDate rawFrom = hasRolled ? rolledTo.plusDays(1) : from;
+        return new RangeSplit(hasRolled, rolledTo, !rawFrom.isAfter(to),
+                Timestamp.valueOf(rawFrom.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+    }
+
+    private void mergeProduct(Map<Integer, ReportProductoDTO> products, Integer code, String name,
+                              long units, BigDecimal amount, long orders) {
+        products.merge(code, new ReportProductoDTO(code, name, units, amount, orders), (a, b) -> new ReportProductoDTO(
+                code, name, a.getUnits() + b.getUnits(), a.getAmount().add(b.getAmount()), a.getOrderCount() + b.getOrderCount()));
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    public record RangeSplit(boolean hasRolled, LocalDate rolledTo, boolean hasRaw, Timestamp rawStart, Timestamp rawEnd) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.reflex.inventario.report.rollup;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//Último día ya acumulado para cada tipo; lo posterior se lee de las órdenes
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table( name = "rollup_watermark")
+public class RollupWatermark {
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private RollupKind kind;
+    private LocalDate lastDay;
+    private LocalDateTime updatedAt;
+}
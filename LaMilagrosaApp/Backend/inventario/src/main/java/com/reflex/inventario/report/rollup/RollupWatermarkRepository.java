@@ -0,0 +1,8 @@
+package com.reflex.inventario.report.rollup;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RollupWatermarkRepository extends JpaRepository<RollupWatermark, RollupKind> {
+}
@@ -1,5 +1,6 @@
 package com.reflex.inventario.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -31,7 +32,9 @@ public class SecurityConfig {
                 .cors(withDefaults())
                 .csrf(AbstractHttpConfigurer::disable) //cross site resource forgeri??
                 .authorizeHttpRequests(req ->
-                        req.requestMatchers(
+                        //El despacho asíncrono que cierra una descarga en streaming ya fue autorizado en la petición original
+                        req.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                                .requestMatchers(
                                         "/auth/**",
                                         "/v2/api-docs",
                                         "/v3/api-docs",
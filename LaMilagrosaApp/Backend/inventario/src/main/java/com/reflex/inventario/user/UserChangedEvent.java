@@ -0,0 +1,5 @@
+package com.reflex.inventario.user;
+
+//Se publica cuando se modifica o elimina un usuario: los reportes por empleado muestran su nombre
+public record UserChangedEvent() {
+}
@@ -4,6 +4,7 @@ import com.reflex.inventario.role.Role;
 import com.reflex.inventario.role.RoleName;
 import com.reflex.inventario.role.RoleRepository;
 import com.reflex.inventario.user.User;
+import com.reflex.inventario.user.UserChangedEvent;
 import com.reflex.inventario.user.UserMapper;
 import com.reflex.inventario.user.UserRepository;
 import com.reflex.inventario.user.dto.UserReqDTO;
@@ -11,6 +12,7 @@ import com.reflex.inventario.user.dto.UserResDTO;
 import com.reflex.inventario.user.service.UserService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -23,6 +25,7 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final RoleRepository roleRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public List<UserResDTO> getAllUsers() {
@@ -43,12 +46,15 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado"));
         userMapper.updateEntity(user, dto);
-        return userMapper.toDTO(userRepository.save(user));
+        UserResDTO updated = userMapper.toDTO(userRepository.save(user));
+        eventPublisher.publishEvent(new UserChangedEvent());
+        return updated;
     }
 
     @Override
     public void deleteUser(Integer id) {
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent());
     }
 
     @Override
@@ -0,0 +1,86 @@
+package com.reflex.inventario;
+
+import com.reflex.inventario.order.dto.OrderReqDTO;
+import com.reflex.inventario.order.dto.ProductDetailDTO;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.product.ProductRepository;
+import com.reflex.inventario.productInventory.ProductInventory;
+import com.reflex.inventario.productInventory.ProductInvetoryRepository;
+import com.reflex.inventario.productInventory.service.ProductStockService;
+import com.reflex.inventario.provider.Provider;
+import com.reflex.inventario.provider.ProviderRepository;
+import com.reflex.inventario.role.RoleName;
+import com.reflex.inventario.role.RoleRepository;
+import com.reflex.inventario.security.JwtService;
+import com.reflex.inventario.user.User;
+import com.reflex.inventario.user.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+//Datos mínimos para las pruebas de integración; cada llamada crea filas nuevas para no depender del orden de las pruebas
+@TestComponent
+@RequiredArgsConstructor
+public class TestData {
+
+	private final UserRepository userRepository;
+	private final ProductRepository productRepository;
+	private final ProductInvetoryRepository productInvetoryRepository;
+	private final ProviderRepository providerRepository;
+	private final ProductStockService productStockService;
+	private final RoleRepository roleRepository;
+	private final JwtService jwtService;
+	private final TransactionTemplate transactionTemplate;
+
+	//El rol se lee en la misma transacción para que la cascada no lo trate como desvinculado
+	public User user() {
+		return transactionTemplate.execute(status -> userRepository.save(User.builder()
+				.nombre("Prueba")
+				.email(UUID.randomUUID() + "@prueba.com")
+				.password("x")
+				.roles(Set.of(roleRepository.findByName(RoleName.EMPLOYEE).orElseThrow()))
+				.build()));
+	}
+
+	public String token(User user) {
+		return jwtService.generateToken(user);
+	}
+
+	public Provider provider() {
+		return providerRepository.save(Provider.builder().name("Proveedor").build());
+	}
+
+	public Product product(String price) {
+		return productRepository.save(Product.builder().name("Producto " + UUID.randomUUID()).price(new BigDecimal(price)).build());
+	}
+
+	//Alta de lote como lo hace el servicio de inventario: el lote y su suma en el resumen de existencias
+	public ProductInventory lot(Product product, int stock, LocalDate expirationDate) {
+		ProductInventory lot = productInvetoryRepository.save(ProductInventory.builder()
+				.product(product)
+				.stock(stock)
+				.expirationDate(expirationDate)
+				.build());
+		productStockService.addLots(List.of(lot));
+		return lot;
+	}
+
+	public OrderReqDTO order(Map<Product, Integer> quantities) {
+		return OrderReqDTO.builder()
+				.date(LocalDate.now())
+				.IVA(19)
+				.expirationDate(LocalDate.now().plusDays(30))
+				.productsDetails(quantities.entrySet().stream()
+						.map(e -> ProductDetailDTO.builder().productCode(e.getKey().getCode()).quantity(e.getValue()).build())
+						.collect(Collectors.toSet()))
+				.build();
+	}
+}
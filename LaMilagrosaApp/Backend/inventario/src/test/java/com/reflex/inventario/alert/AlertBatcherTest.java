@@ -0,0 +1,76 @@
+package com.reflex.inventario.alert;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reflex.inventario.alert.cluster.ClusterMessageBridge;
+import com.reflex.inventario.alert.cluster.ClusterTransport;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AlertBatcherTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+	private final List<Message<?>> sent = new ArrayList<>();
+
+	@Test
+	void sendsOneFramePerDestinationSplitByMaxSize() throws Exception {
+		AlertBatcher batcher = new AlertBatcher(bridge(), 3, 100);
+		for (int i = 0; i < 7; i++) {
+			batcher.offer("/topic/stock", "alerta " + i);
+		}
+		batcher.offer("/topic/alertas", "otra");
+
+		batcher.flush();
+
+		assertEquals(4, sent.size());
+		assertEquals(4, batcher.getBatchesSent());
+		assertEquals(8, batcher.getAlertsSent());
+		assertEquals(0, batcher.getQueued());
+		Map<String, List<Integer>> counts = new TreeMap<>();
+		for (Message<?> message : sent) {
+			counts.computeIfAbsent(SimpMessageHeaderAccessor.getDestination(message.getHeaders()), key -> new ArrayList<>())
+					.add(frame(message).get("count").asInt());
+		}
+		assertEquals(Map.of("/topic/alertas", List.of(1), "/topic/stock", List.of(3, 3, 1)), counts);
+	}
+
+	@Test
+	void dropsTheOldestAlertsWhenTheQueueIsFull() throws Exception {
+		AlertBatcher batcher = new AlertBatcher(bridge(), 100, 5);
+		for (int i = 0; i < 8; i++) {
+			batcher.offer("/topic/stock", "alerta " + i);
+		}
+
+		batcher.flush();
+
+		assertEquals(1, sent.size());
+		JsonNode frame = frame(sent.get(0));
+		assertEquals(5, frame.get("count").asInt());
+		assertEquals(3, frame.get("dropped").asInt());
+		assertEquals("alerta 3", frame.get("items").get(0).asText());
+		assertEquals(3, batcher.getDropped());
+	}
+
+	private JsonNode frame(Message<?> message) throws Exception {
+		return objectMapper.readTree((byte[]) message.getPayload());
+	}
+
+	private ClusterMessageBridge bridge() {
+		SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> sent.add(message));
+		template.setMessageConverter(new CompositeMessageConverter(List.of(
+				new StringMessageConverter(), new MappingJackson2MessageConverter(objectMapper))));
+		return new ClusterMessageBridge(template, objectMapper, (ClusterTransport) null);
+	}
+}
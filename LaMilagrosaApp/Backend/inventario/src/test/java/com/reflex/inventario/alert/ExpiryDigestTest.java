@@ -0,0 +1,57 @@
+package com.reflex.inventario.alert;
+
+import com.reflex.inventario.productInventory.ExpiringLotRow;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExpiryDigestTest {
+
+	private final LocalDate today = LocalDate.of(2024, 5, 10);
+
+	@Test
+	void groupsLotsByProductSeparatingExpiredFromExpiring() {
+		ExpiryDigest digest = new ExpiryDigest(today, today.plusDays(7));
+		digest.add(lot(1, 10, "Leche", 5, today.minusYears(2)));
+		digest.add(lot(2, 10, "Leche", 3, today));
+		digest.add(lot(3, 10, "Leche", 4, today.plusDays(2)));
+		digest.add(lot(4, 20, "Queso", 8, today.plusDays(1)));
+
+		ExpiryDigestDTO result = digest.build(10);
+
+		assertEquals(2, result.getExpiredLots());
+		assertEquals(8, result.getExpiredUnits());
+		assertEquals(2, result.getExpiringLots());
+		assertEquals(12, result.getExpiringUnits());
+		assertEquals(2, result.getProductCount());
+		ExpiryProductDTO leche = result.getProducts().get(0);
+		assertEquals(10, leche.getProductCode());
+		assertEquals(2, leche.getExpiredLots());
+		assertEquals(8, leche.getExpiredUnits());
+		assertEquals(1, leche.getExpiringLots());
+		assertEquals(4, leche.getExpiringUnits());
+		assertEquals(today.minusYears(2), leche.getEarliestExpiration());
+	}
+
+	@Test
+	void keepsOnlyTheMostAffectedProducts() {
+		ExpiryDigest digest = new ExpiryDigest(today, today.plusDays(7));
+		for (int code = 1; code <= 30; code++) {
+			digest.add(lot(code, code, "P" + code, code, today.minusDays(1)));
+		}
+
+		ExpiryDigestDTO result = digest.build(5);
+
+		assertEquals(30, result.getProductCount());
+		assertEquals(5, result.getProducts().size());
+		assertEquals(25, result.getOmittedProducts());
+		assertEquals(30, result.getProducts().get(0).getProductCode());
+		assertEquals(465, result.getExpiredUnits());
+	}
+
+	private ExpiringLotRow lot(int id, int productCode, String name, int stock, LocalDate expiration) {
+		return new ExpiringLotRow(id, 1000 + id, productCode, name, stock, expiration);
+	}
+}
@@ -0,0 +1,137 @@
+package com.reflex.inventario.alert;
+
+import com.reflex.inventario.TestData;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.productInventory.ProductInventory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Revisión incremental de vencimientos: qué lotes vuelve a leer según la marca de agua y el estado de las alertas
+//(una por lote y tipo, pendientes hasta confirmarlas). La marca se fija en cada prueba para no depender de las demás
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class InventoryAlertSchedulerTest {
+
+	@Autowired
+	private TestData testData;
+	@Autowired
+	private InventoryAlertScheduler scheduler;
+	@Autowired
+	private InventoryAlertStateRepository inventoryAlertStateRepository;
+	@Autowired
+	private ExpiryScanWatermarkRepository expiryScanWatermarkRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Value("${app.inventory.expiring-days:7}")
+	private int expiringDays;
+
+	@Test
+	void changedScanOnlyReadsLotsThatEnteredTheWindowExpiredOrChanged() {
+		LocalDate today = LocalDate.now();
+		LocalDateTime lastRunAt = LocalDateTime.now().minusMinutes(1);
+		Product product = testData.product("1.00");
+		ProductInventory entered = lot(product, today.plusDays(expiringDays), lastRunAt.minusHours(1));
+		ProductInventory expiredToday = lot(product, today, lastRunAt.minusHours(1));
+		ProductInventory alreadyExpiring = lot(product, today.plusDays(2), lastRunAt.minusHours(1));
+		ProductInventory alreadyExpired = lot(product, today.minusDays(1), lastRunAt.minusHours(1));
+		ProductInventory changed = testData.lot(product, 5, today.minusDays(10));
+		//Modificado antes de la revisión anterior pero confirmado después de que esta leyera
+		ProductInventory committedLate = lot(product, today.minusDays(10), lastRunAt.minusSeconds(30));
+		//La revisión anterior fue ayer: la ventana llegaba hasta ayer + expiringDays
+		watermark(today.minusDays(1), lastRunAt);
+
+		scheduler.scan();
+
+		Map<Integer, ExpiryAlertType> alerts = alerts(entered, expiredToday, alreadyExpiring, alreadyExpired, changed, committedLate);
+		assertEquals(Map.of(
+				entered.getId(), ExpiryAlertType.POR_VENCER,
+				expiredToday.getId(), ExpiryAlertType.VENCIDO,
+				changed.getId(), ExpiryAlertType.VENCIDO,
+				committedLate.getId(), ExpiryAlertType.VENCIDO), alerts);
+		ExpiryScanWatermark saved = expiryScanWatermarkRepository.findById(ExpiryScanWatermark.EXPIRY).orElseThrow();
+		assertEquals(today, saved.getLastToday());
+		assertTrue(saved.getLastRunAt().isAfter(lastRunAt));
+	}
+
+	@Test
+	void secondScanDoesNotRepeatAlertsAndAckRemovesThemFromPending() {
+		LocalDate today = LocalDate.now();
+		Product product = testData.product("1.00");
+		ProductInventory expired = testData.lot(product, 4, today.minusDays(3));
+		ProductInventory expiring = testData.lot(product, 6, today.plusDays(1));
+		watermark(today, LocalDateTime.now().minusMinutes(1));
+
+		scheduler.scan();
+		LocalDateTime sentAt = inventoryAlertStateRepository.findByLotIdIn(List.of(expiring.getId())).get(0).getSentAt();
+		//El lote se modifica sin cambiar de tipo: se vuelve a leer pero no se notifica otra vez
+		jdbcTemplate.update("UPDATE product_inventory SET stock = 7, updated_at = ? WHERE id = ?",
+				Timestamp.valueOf(LocalDateTime.now()), expiring.getId());
+		scheduler.scan();
+
+		List<InventoryAlertState> states = inventoryAlertStateRepository.findByLotIdIn(List.of(expired.getId(), expiring.getId()));
+		assertEquals(2, states.size());
+		assertEquals(sentAt, inventoryAlertStateRepository.findByLotIdIn(List.of(expiring.getId())).get(0).getSentAt());
+		assertTrue(pendingLots().containsAll(List.of(expired.getId(), expiring.getId())));
+		assertPendingCountMatchesList();
+
+		assertEquals(1, scheduler.acknowledge(List.of(expiring.getId()), ExpiryAlertType.POR_VENCER, "prueba@prueba.com"));
+		assertEquals(0, scheduler.acknowledge(List.of(expiring.getId()), null, "prueba@prueba.com"));
+		InventoryAlertState acknowledged = inventoryAlertStateRepository.findByLotIdIn(List.of(expiring.getId())).get(0);
+		assertNotNull(acknowledged.getAcknowledgedAt());
+		assertEquals("prueba@prueba.com", acknowledged.getAcknowledgedBy());
+		assertFalse(pendingLots().contains(expiring.getId()));
+
+		//Sin stock la alerta deja de estar pendiente, también en el total
+		jdbcTemplate.update("UPDATE product_inventory SET stock = 0 WHERE id = ?", expired.getId());
+		assertFalse(pendingLots().contains(expired.getId()));
+		assertPendingCountMatchesList();
+	}
+
+	//Lote con updatedAt anterior a la última revisión, como si ya se hubiera revisado entonces
+	private ProductInventory lot(Product product, LocalDate expirationDate, LocalDateTime updatedAt) {
+		ProductInventory lot = testData.lot(product, 5, expirationDate);
+		jdbcTemplate.update("UPDATE product_inventory SET updated_at = ? WHERE id = ?", Timestamp.valueOf(updatedAt), lot.getId());
+		return lot;
+	}
+
+	private void watermark(LocalDate lastToday, LocalDateTime lastRunAt) {
+		expiryScanWatermarkRepository.save(ExpiryScanWatermark.builder()
+				.name(ExpiryScanWatermark.EXPIRY)
+				.lastToday(lastToday)
+				.lastRunAt(lastRunAt)
+				.build());
+	}
+
+	private Map<Integer, ExpiryAlertType> alerts(ProductInventory... lots) {
+		List<Integer> ids = Arrays.stream(lots).map(ProductInventory::getId).toList();
+		return inventoryAlertStateRepository.findByLotIdIn(ids).stream()
+				.collect(Collectors.toMap(InventoryAlertState::getLotId, InventoryAlertState::getAlertType));
+	}
+
+	private List<Integer> pendingLots() {
+		return scheduler.pending(0, 100_000).stream().map(PendingAlertDTO::getLotId).toList();
+	}
+
+	private void assertPendingCountMatchesList() {
+		assertEquals(scheduler.pending(0, 100_000).size(), inventoryAlertStateRepository.countPending());
+	}
+}
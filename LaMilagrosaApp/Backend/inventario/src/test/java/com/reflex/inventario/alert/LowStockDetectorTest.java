@@ -0,0 +1,48 @@
+package com.reflex.inventario.alert;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LowStockDetectorTest {
+
+	private final LocalDateTime now = LocalDateTime.of(2024, 5, 10, 12, 0);
+
+	@Test
+	void alertsOnlyWhenTheLevelGetsWorse() {
+		LowStockDetector detector = new LowStockDetector(Duration.ofMinutes(15));
+
+		assertTrue(detector.evaluate(1, "Leche", 20, 5, now).isEmpty());
+		assertEquals(StockLevel.BAJO, detector.evaluate(1, "Leche", 4, 5, now).orElseThrow().getLevel());
+		assertTrue(detector.evaluate(1, "Leche", 2, 5, now.plusSeconds(5)).isEmpty());
+		assertEquals(StockLevel.AGOTADO, detector.evaluate(1, "Leche", 0, 5, now.plusSeconds(10)).orElseThrow().getLevel());
+		assertTrue(detector.evaluate(1, "Leche", 0, 5, now.plusSeconds(15)).isEmpty());
+	}
+
+	@Test
+	void cooldownSuppressesFlappingAroundTheThreshold() {
+		LowStockDetector detector = new LowStockDetector(Duration.ofMinutes(15));
+
+		assertTrue(detector.evaluate(1, "Leche", 5, 5, now).isPresent());
+		assertTrue(detector.evaluate(1, "Leche", 6, 5, now.plusMinutes(1)).isEmpty());
+		assertTrue(detector.evaluate(1, "Leche", 5, 5, now.plusMinutes(2)).isEmpty());
+		assertTrue(detector.evaluate(1, "Leche", 6, 5, now.plusMinutes(3)).isEmpty());
+		assertTrue(detector.evaluate(1, "Leche", 5, 5, now.plusMinutes(20)).isPresent());
+		assertEquals(1, detector.trackedProducts());
+	}
+
+	@Test
+	void forgetsProductsBackToNormalOnceTheCooldownIsOver() {
+		LowStockDetector detector = new LowStockDetector(Duration.ofMinutes(15));
+
+		detector.evaluate(1, "Leche", 3, 5, now);
+		detector.evaluate(1, "Leche", 30, 5, now.plusMinutes(30));
+		detector.evaluate(2, "Queso", 30, 5, now);
+
+		assertEquals(0, detector.trackedProducts());
+	}
+}
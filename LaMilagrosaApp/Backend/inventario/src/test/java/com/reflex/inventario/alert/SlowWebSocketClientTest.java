@@ -0,0 +1,176 @@
+package com.reflex.inventario.alert;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Un cliente que deja de leer: la primera entrega se queda bloqueada y lo que sigue se acumula en el buffer de la sesión
+//hasta superar el límite; entonces el servidor cierra la sesión en vez de seguir guardando mensajes para ella
+@SpringBootTest(properties = {"app.websocket.send-time-limit-ms=1000", "app.websocket.send-buffer-size-kb=1"})
+@ActiveProfiles("test")
+class SlowWebSocketClientTest {
+
+	private static final String TOPIC = "/topic/prueba-cliente-lento";
+
+	@Autowired
+	@Qualifier("subProtocolWebSocketHandler")
+	private WebSocketHandler webSocketHandler;
+	@Autowired
+	@Qualifier("brokerMessagingTemplate")
+	private SimpMessagingTemplate messagingTemplate;
+	@Autowired
+	private WebSocketStatsService webSocketStatsService;
+
+	@Test
+	void clientThatStopsReadingIsDisconnected() throws Exception {
+		int limitExceeded = webSocketStatsService.stats().getLimitExceededSessions();
+		StalledSession session = new StalledSession();
+		try {
+			webSocketHandler.afterConnectionEstablished(session);
+			webSocketHandler.handleMessage(session, new TextMessage("CONNECT\naccept-version:1.2\nhost:localhost\n\n\0"));
+			assertTrue(session.connected.await(10, TimeUnit.SECONDS));
+			webSocketHandler.handleMessage(session, new TextMessage("SUBSCRIBE\nid:sub-0\ndestination:" + TOPIC + "\n\n\0"));
+
+			//La suscripción se registra de forma asíncrona: se publica hasta que el servidor cierre la sesión
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+			while (session.closeStatus == null && System.nanoTime() < deadline) {
+				messagingTemplate.convertAndSend(TOPIC, "x".repeat(200));
+				Thread.sleep(5);
+			}
+
+			assertEquals(CloseStatus.SESSION_NOT_RELIABLE, session.closeStatus);
+			assertEquals(limitExceeded + 1, webSocketStatsService.stats().getLimitExceededSessions());
+		} finally {
+			session.release.countDown();
+		}
+	}
+
+	//Sesión en la que el primer MESSAGE no termina de escribirse hasta el final de la prueba
+	private static class StalledSession implements WebSocketSession {
+
+		private final String id = UUID.randomUUID().toString();
+		private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+		private final CountDownLatch connected = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private volatile CloseStatus closeStatus;
+		private int textMessageSizeLimit = 64 * 1024;
+		private int binaryMessageSizeLimit = 64 * 1024;
+
+		@Override
+		public void sendMessage(WebSocketMessage<?> message) {
+			String payload = message.getPayload().toString();
+			if (payload.startsWith("CONNECTED")) {
+				connected.countDown();
+			} else if (payload.startsWith("MESSAGE")) {
+				try {
+					release.await(30, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		@Override
+		public void close(CloseStatus status) {
+			closeStatus = status;
+		}
+
+		@Override
+		public void close() {
+			close(CloseStatus.NORMAL);
+		}
+
+		@Override
+		public boolean isOpen() {
+			return closeStatus == null;
+		}
+
+		@Override
+		public String getId() {
+			return id;
+		}
+
+		@Override
+		public URI getUri() {
+			return URI.create("ws://localhost/api/v1/ws-alertas");
+		}
+
+		@Override
+		public HttpHeaders getHandshakeHeaders() {
+			return new HttpHeaders();
+		}
+
+		@Override
+		public Map<String, Object> getAttributes() {
+			return attributes;
+		}
+
+		@Override
+		public Principal getPrincipal() {
+			return null;
+		}
+
+		@Override
+		public InetSocketAddress getLocalAddress() {
+			return null;
+		}
+
+		@Override
+		public InetSocketAddress getRemoteAddress() {
+			return null;
+		}
+
+		@Override
+		public String getAcceptedProtocol() {
+			return null;
+		}
+
+		@Override
+		public void setTextMessageSizeLimit(int messageSizeLimit) {
+			textMessageSizeLimit = messageSizeLimit;
+		}
+
+		@Override
+		public int getTextMessageSizeLimit() {
+			return textMessageSizeLimit;
+		}
+
+		@Override
+		public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+			binaryMessageSizeLimit = messageSizeLimit;
+		}
+
+		@Override
+		public int getBinaryMessageSizeLimit() {
+			return binaryMessageSizeLimit;
+		}
+
+		@Override
+		public List<WebSocketExtension> getExtensions() {
+			return List.of();
+		}
+	}
+}
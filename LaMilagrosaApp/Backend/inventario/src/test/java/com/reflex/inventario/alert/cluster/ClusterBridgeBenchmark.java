@@ -0,0 +1,141 @@
+package com.reflex.inventario.alert.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Latencia y caudal de ClusterMessageBridge entre dos nodos en el mismo proceso con el transporte en memoria:
+//mide el costo del puente (serializar, sobre, reenviar y convertir) sin la red ni la base de datos.
+//No corre con el resto de las pruebas; se lanza a mano y deja un JSON en target/benchmarks:
+//mvn test -Dtest=ClusterBridgeBenchmark -Dbenchmark.messages=50000 -Dbenchmark.products=20
+class ClusterBridgeBenchmark {
+
+	@Test
+	void benchmarkTwoNodes() throws Exception {
+		int messages = Integer.getInteger("benchmark.messages", 20_000);
+		int warmup = Integer.getInteger("benchmark.warmup", 2_000);
+		int products = Integer.getInteger("benchmark.products", 10);
+		int rate = Integer.getInteger("benchmark.rate", 1_000);
+		ObjectMapper objectMapper = new ObjectMapper();
+
+		//En ráfaga se mide el caudal (la latencia es sobre todo cola); a ritmo fijo, la latencia sin carga
+		List<Measurement> measurements = new ArrayList<>();
+		run(objectMapper, warmup, products, 0, "calentamiento");
+		measurements.add(run(objectMapper, messages, products, 0, "rafaga"));
+		measurements.add(run(objectMapper, Math.min(messages, rate * 5), products, rate, "ritmo"));
+
+		Path dir = Path.of("target", "benchmarks");
+		Files.createDirectories(dir);
+		Path file = dir.resolve("cluster-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+		objectMapper.copy()
+				.enable(SerializationFeature.INDENT_OUTPUT)
+				.writeValue(file.toFile(), new Report(System.getProperty("benchmark.label", "local"),
+						LocalDateTime.now().toString(), System.getProperty("java.version"),
+						Runtime.getRuntime().availableProcessors(), "memoria", measurements));
+		measurements.forEach(System.out::println);
+		System.out.println("Resultados en " + file.toAbsolutePath());
+	}
+
+	//El nodo A publica (sin pausa si rate es 0); se toma la hora de llegada al broker del nodo B
+	//y al final se calcula la latencia
+	private Measurement run(ObjectMapper objectMapper, int messages, int products, int rate, String phase) throws Exception {
+		InMemoryClusterTransport cluster = new InMemoryClusterTransport();
+		long[] arrivals = new long[messages];
+		byte[][] payloads = new byte[messages][];
+		CountDownLatch delivered = new CountDownLatch(messages);
+		int[] next = {0};
+		SimpMessagingTemplate templateB = template((message, timeout) -> {
+			int i = next[0]++;//un solo hilo de entrega por nodo
+			arrivals[i] = System.nanoTime();
+			payloads[i] = (byte[]) message.getPayload();
+			delivered.countDown();
+			return true;
+		});
+		SimpMessagingTemplate templateA = template((message, timeout) -> true);
+		ClusterMessageBridge nodeA = new ClusterMessageBridge(templateA, objectMapper, cluster.node());
+		ClusterMessageBridge nodeB = new ClusterMessageBridge(templateB, objectMapper, cluster.node());
+
+		long started = System.nanoTime();
+		long interval = rate > 0 ? 1_000_000_000L / rate : 0;
+		for (int i = 0; i < messages; i++) {
+			long due = started + i * interval;
+			while (System.nanoTime() < due) {
+				LockSupport.parkNanos(due - System.nanoTime());
+			}
+			nodeA.publish("/topic/alertas", digest(i, products));
+		}
+		long published = System.nanoTime();
+		assertTrue(delivered.await(2, TimeUnit.MINUTES), "No llegaron todos los mensajes al nodo B");
+		long finished = System.nanoTime();
+		cluster.shutdown();
+
+		long[] latencies = new long[messages];
+		for (int i = 0; i < messages; i++) {
+			JsonNode body = objectMapper.readTree(payloads[i]);
+			assertEquals(i, body.get("seq").asInt());
+			latencies[i] = (arrivals[i] - body.get("sentNanos").asLong()) / 1_000;
+		}
+		Arrays.sort(latencies);
+		double seconds = (finished - started) / 1e9;
+		return new Measurement(phase, rate, messages, payloads[0].length, nodeB.getReceived(), nodeA.getFailed() + nodeB.getFailed(),
+				Math.round(messages / ((published - started) / 1e9)), Math.round(messages / seconds),
+				percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99), latencies[messages - 1]);
+	}
+
+	//Parecido a un resumen de vencimientos: unos totales y una lista de productos
+	private Map<String, Object> digest(int seq, int products) {
+		Map<String, Object> digest = new LinkedHashMap<>();
+		digest.put("seq", seq);
+		digest.put("sentNanos", System.nanoTime());
+		digest.put("expiredLots", seq % 17);
+		digest.put("expiringLots", seq % 23);
+		List<Map<String, Object>> items = new ArrayList<>(products);
+		for (int p = 0; p < products; p++) {
+			items.add(Map.of("productCode", p, "productName", "Producto " + p, "expiredUnits", p * 3, "expiringUnits", p * 5));
+		}
+		digest.put("products", items);
+		return digest;
+	}
+
+	private long percentile(long[] sorted, int percent) {
+		return sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * percent / 100.0) - 1)];
+	}
+
+	private SimpMessagingTemplate template(MessageChannel channel) {
+		SimpMessagingTemplate template = new SimpMessagingTemplate(channel);
+		template.setMessageConverter(new CompositeMessageConverter(List.of(
+				new StringMessageConverter(), new MappingJackson2MessageConverter())));
+		return template;
+	}
+
+	record Measurement(String phase, int rate, int messages, int payloadBytes, long received, long failed,
+					   long publishPerSecond, long deliveredPerSecond,
+					   long p50Micros, long p95Micros, long p99Micros, long maxMicros) {
+	}
+
+	record Report(String label, String executedAt, String javaVersion, int cpus, String transport,
+				  List<Measurement> measurements) {
+	}
+}
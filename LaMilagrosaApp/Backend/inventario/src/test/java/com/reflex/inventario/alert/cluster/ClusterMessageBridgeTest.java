@@ -0,0 +1,71 @@
+package com.reflex.inventario.alert.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ClusterMessageBridgeTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final InMemoryClusterTransport cluster = new InMemoryClusterTransport();
+
+	@AfterEach
+	void stop() throws InterruptedException {
+		cluster.shutdown();
+	}
+
+	@Test
+	void messagesReachClientsOnEveryNodeExactlyOnce() throws Exception {
+		List<Message<?>> sentA = new CopyOnWriteArrayList<>();
+		List<Message<?>> sentB = new CopyOnWriteArrayList<>();
+		ClusterMessageBridge nodeA = new ClusterMessageBridge(template(sentA), objectMapper, cluster.node());
+		ClusterMessageBridge nodeB = new ClusterMessageBridge(template(sentB), objectMapper, cluster.node());
+
+		nodeA.publish("/topic/alertas", Map.of("lotes", 3));
+		nodeA.publish("/topic/alertas", "texto");
+		cluster.shutdown();
+
+		assertEquals(2, sentA.size());
+		assertEquals(2, sentB.size());
+		assertEquals(0, nodeA.getReceived());
+		assertEquals(2, nodeB.getReceived());
+		assertEquals("/topic/alertas", SimpMessageHeaderAccessor.getDestination(sentB.get(0).getHeaders()));
+		JsonNode digest = objectMapper.readTree((byte[]) sentB.get(0).getPayload());
+		assertEquals(3, digest.get("lotes").asInt());
+		assertEquals("texto", new String((byte[]) sentB.get(1).getPayload(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void withoutTransportItOnlySendsLocally() {
+		List<Message<?>> sent = new CopyOnWriteArrayList<>();
+		ClusterMessageBridge bridge = new ClusterMessageBridge(template(sent), objectMapper, (ClusterTransport) null);
+
+		bridge.publish("/topic/ordenes", "ok");
+
+		assertEquals(1, sent.size());
+		assertFalse(bridge.isClustered());
+	}
+
+	//Mismos convertidores que el broker de la aplicación: texto tal cual y lo demás como JSON
+	static SimpMessagingTemplate template(List<Message<?>> sent) {
+		SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> sent.add(message));
+		template.setMessageConverter(new CompositeMessageConverter(List.of(
+				new StringMessageConverter(), new MappingJackson2MessageConverter())));
+		return template;
+	}
+}
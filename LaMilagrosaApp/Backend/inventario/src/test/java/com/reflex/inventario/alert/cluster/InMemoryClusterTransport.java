@@ -0,0 +1,47 @@
+package com.reflex.inventario.alert.cluster;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+//Sustituto en memoria de LISTEN/NOTIFY para las pruebas: cada nodo crea su transporte con node().
+//Como en PostgreSQL, los mensajes llegan a todos los nodos (también al que envía), en orden
+//y en otro hilo, y un nodo que se suscribe tarde no recibe lo anterior
+class InMemoryClusterTransport {
+
+	private final List<Node> nodes = new CopyOnWriteArrayList<>();
+
+	ClusterTransport node() {
+		Node node = new Node();
+		nodes.add(node);
+		return node;
+	}
+
+	void shutdown() throws InterruptedException {
+		for (Node node : nodes) {
+			node.executor.shutdown();
+			node.executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+	}
+
+	private class Node implements ClusterTransport {
+
+		private final ExecutorService executor = Executors.newSingleThreadExecutor();
+		private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void send(String message) {
+			for (Node node : nodes) {
+				node.executor.execute(() -> node.listeners.forEach(listener -> listener.accept(message)));
+			}
+		}
+
+		@Override
+		public void subscribe(Consumer<String> listener) {
+			listeners.add(listener);
+		}
+	}
+}
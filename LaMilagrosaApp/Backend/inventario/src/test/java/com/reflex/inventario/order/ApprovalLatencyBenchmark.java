@@ -0,0 +1,97 @@
+package com.reflex.inventario.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.reflex.inventario.TestData;
+import com.reflex.inventario.order.service.OrderService;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Latencia de aprobación de una orden de venta según su número de líneas, sobre H2.
+//Cada línea pide 5 unidades de un producto con tres lotes de 2, así que se reparte entre lotes (FEFO).
+//No corre con el resto de las pruebas; se lanza a mano y deja un JSON en target/benchmarks:
+//mvn test -Dtest=ApprovalLatencyBenchmark -Dbenchmark.lines=1,10,30,100 -Dbenchmark.runs=20
+@SpringBootTest
+@ActiveProfiles("benchmark")
+@Import(TestData.class)
+class ApprovalLatencyBenchmark {
+
+	@Autowired
+	private TestData testData;
+	@Autowired
+	private OrderService orderService;
+
+	@Test
+	void benchmarkApprovalByLineCount() throws Exception {
+		int[] lineCounts = Arrays.stream(System.getProperty("benchmark.lines", "1,5,10,30,60,100").split(","))
+				.map(String::trim)
+				.mapToInt(Integer::parseInt)
+				.toArray();
+		int warmup = Integer.getInteger("benchmark.warmup", 3);
+		int runs = Integer.getInteger("benchmark.runs", 15);
+		User user = testData.user();
+
+		List<Measurement> measurements = new ArrayList<>();
+		for (int lines : lineCounts) {
+			for (int i = 0; i < warmup; i++) {
+				approve(user, lines);
+			}
+			double[] millis = new double[runs];
+			for (int i = 0; i < runs; i++) {
+				millis[i] = approve(user, lines);
+			}
+			Arrays.sort(millis);
+			measurements.add(new Measurement(lines, runs, millis[0], millis[runs / 2],
+					millis[Math.min(runs - 1, (int) Math.ceil(runs * 0.95) - 1)], millis[runs - 1]));
+		}
+
+		Path dir = Path.of("target", "benchmarks");
+		Files.createDirectories(dir);
+		Path file = dir.resolve("aprobacion-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+				.writeValue(file.toFile(), new Report(System.getProperty("benchmark.label", "local"),
+						LocalDateTime.now().toString(), System.getProperty("java.version"),
+						Runtime.getRuntime().availableProcessors(), "h2", measurements));
+		measurements.forEach(System.out::println);
+		System.out.println("Resultados en " + file.toAbsolutePath());
+	}
+
+	//Prepara productos y lotes nuevos para cada orden y devuelve solo lo que tarda la aprobación
+	private double approve(User user, int lines) {
+		Map<Product, Integer> quantities = new LinkedHashMap<>();
+		for (int i = 0; i < lines; i++) {
+			Product product = testData.product("1000");
+			for (int lot = 1; lot <= 3; lot++) {
+				testData.lot(product, 2, LocalDate.now().plusDays(lot * 10L));
+			}
+			quantities.put(product, 5);
+		}
+		Integer number = orderService.addCustomerOrder(user.getEmail(), testData.order(quantities)).getNumber();
+		long started = System.nanoTime();
+		orderService.aproveCustomerOrder(number);
+		return (System.nanoTime() - started) / 1_000_000.0;
+	}
+
+	record Measurement(int lines, int runs, double minMs, double medianMs, double p95Ms, double maxMs) {
+	}
+
+	record Report(String label, String executedAt, String javaVersion, int cpus, String database,
+				  List<Measurement> measurements) {
+	}
+}
@@ -0,0 +1,132 @@
+package com.reflex.inventario.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.reflex.inventario.TestData;
+import com.reflex.inventario.order.dto.OrderReqDTO;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Caudal de registro de órdenes de venta por HTTP: una petición por orden contra la carga masiva en lotes, sobre H2.
+//Simula un punto de venta que sube su cola acumulada al recuperar la conexión.
+//No corre con el resto de las pruebas; se lanza a mano y deja un JSON en target/benchmarks:
+//mvn test -Dtest=BulkOrderIngestBenchmark -Dbenchmark.orders=2000 -Dbenchmark.chunks=50,200,1000
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("benchmark")
+@Import(TestData.class)
+class BulkOrderIngestBenchmark {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private TestData testData;
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@Test
+	void benchmarkSingleVersusBulk() throws Exception {
+		int orders = Integer.getInteger("benchmark.orders", 1000);
+		int lines = Integer.getInteger("benchmark.lines", 5);
+		int[] chunks = Arrays.stream(System.getProperty("benchmark.chunks", "50,200,1000").split(","))
+				.map(String::trim)
+				.mapToInt(Integer::parseInt)
+				.toArray();
+		User user = testData.user();
+		String token = testData.token(user);
+		List<Product> products = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			products.add(testData.product("1500"));
+		}
+		Random random = new Random(42);
+		List<OrderReqDTO> queue = new ArrayList<>();
+		for (int i = 0; i < orders; i++) {
+			Map<Product, Integer> quantities = new LinkedHashMap<>();
+			while (quantities.size() < lines) {
+				quantities.put(products.get(random.nextInt(products.size())), 1 + random.nextInt(5));
+			}
+			queue.add(testData.order(quantities));
+		}
+		String single = "http://localhost:" + port + "/api/v1/order/customer/register/" + user.getEmail();
+		String bulk = "http://localhost:" + port + "/api/v1/order/customer/register/bulk/" + user.getEmail();
+
+		//Calentamiento de ambos caminos
+		for (OrderReqDTO order : queue.subList(0, Math.min(50, orders))) {
+			post(single, token, order);
+		}
+		post(bulk, token, queue.subList(0, Math.min(50, orders)));
+
+		List<Measurement> measurements = new ArrayList<>();
+		long started = System.nanoTime();
+		for (OrderReqDTO order : queue) {
+			post(single, token, order);
+		}
+		measurements.add(measurement("individual", 1, orders, lines, started));
+		for (int chunk : chunks) {
+			started = System.nanoTime();
+			for (int from = 0; from < orders; from += chunk) {
+				post(bulk, token, queue.subList(from, Math.min(orders, from + chunk)));
+			}
+			measurements.add(measurement("masiva", chunk, orders, lines, started));
+		}
+
+		Path dir = Path.of("target", "benchmarks");
+		Files.createDirectories(dir);
+		Path file = dir.resolve("carga-masiva-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+		objectMapper.copy()
+				.enable(SerializationFeature.INDENT_OUTPUT)
+				.writeValue(file.toFile(), new Report(System.getProperty("benchmark.label", "local"),
+						LocalDateTime.now().toString(), System.getProperty("java.version"),
+						Runtime.getRuntime().availableProcessors(), "h2", measurements));
+		measurements.forEach(System.out::println);
+		System.out.println("Resultados en " + file.toAbsolutePath());
+	}
+
+	private void post(String url, String token, Object body) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+				.header("Authorization", "Bearer " + token)
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+				.build();
+		HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+		assertEquals(202, response.statusCode(), url);
+	}
+
+	private Measurement measurement(String mode, int chunk, int orders, int lines, long started) {
+		double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+		return new Measurement(mode, chunk, orders, lines, seconds, orders / seconds);
+	}
+
+	record Measurement(String mode, int ordersPerRequest, int orders, int linesPerOrder,
+					   double seconds, double ordersPerSecond) {
+	}
+
+	record Report(String label, String executedAt, String javaVersion, int cpus, String database,
+				  List<Measurement> measurements) {
+	}
+}
@@ -0,0 +1,70 @@
+package com.reflex.inventario.order;
+
+import com.reflex.inventario.TestData;
+import com.reflex.inventario.handler.exceptions.InventoryNotFoundException;
+import com.reflex.inventario.order.service.OrderService;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.productInventory.ProductInventory;
+import com.reflex.inventario.productInventory.ProductInvetoryRepository;
+import com.reflex.inventario.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class CustomerOrderApprovalTest {
+
+	@Autowired
+	private TestData testData;
+	@Autowired
+	private OrderService orderService;
+	@Autowired
+	private ProductInvetoryRepository productInvetoryRepository;
+
+	@Test
+	void approvalSplitsAcrossLotsAndSkipsExpiredOnes() {
+		User user = testData.user();
+		Product product = testData.product("1000");
+		ProductInventory expired = testData.lot(product, 10, LocalDate.now().minusDays(1));
+		//Vence hoy: la alerta ya lo reporta como vencido, así que tampoco se vende
+		ProductInventory expiresToday = testData.lot(product, 10, LocalDate.now());
+		ProductInventory first = testData.lot(product, 4, LocalDate.now().plusDays(1));
+		ProductInventory second = testData.lot(product, 10, LocalDate.now().plusDays(10));
+
+		Integer number = orderService.addCustomerOrder(user.getEmail(), testData.order(Map.of(product, 6))).getNumber();
+		orderService.aproveCustomerOrder(number);
+
+		assertEquals(10, stock(expired));
+		assertEquals(10, stock(expiresToday));
+		assertEquals(0, stock(first));
+		assertEquals(8, stock(second));
+	}
+
+	@Test
+	void expiredStockDoesNotCountTowardsTheOrder() {
+		User user = testData.user();
+		Product product = testData.product("1000");
+		ProductInventory expired = testData.lot(product, 10, LocalDate.now().minusDays(3));
+		ProductInventory valid = testData.lot(product, 2, LocalDate.now().plusDays(5));
+
+		Integer number = orderService.addCustomerOrder(user.getEmail(), testData.order(Map.of(product, 5))).getNumber();
+
+		assertThrows(InventoryNotFoundException.class, () -> orderService.aproveCustomerOrder(number));
+		assertEquals(10, stock(expired));
+		assertEquals(2, stock(valid));
+	}
+
+	private int stock(ProductInventory lot) {
+		return productInvetoryRepository.findById(lot.getId()).orElseThrow().getStock();
+	}
+}
@@ -0,0 +1,79 @@
+package com.reflex.inventario.order;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+//Suma de líneas (precio x cantidad) como la hacen los reportes: float en double (antes), BigDecimal y centavos.
+//mvn -Pbenchmark clean test-compile exec:exec
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class MoneyBenchmark {
+
+	@Param({"10000000"})
+	private int lines;
+
+	private float[] floatPrices;
+	private BigDecimal[] decimalPrices;
+	private long[] centPrices;
+	private int[] quantities;
+
+	@Setup
+	public void setUp() {
+		SplittableRandom random = new SplittableRandom(42);
+		floatPrices = new float[lines];
+		decimalPrices = new BigDecimal[lines];
+		centPrices = new long[lines];
+		quantities = new int[lines];
+		for (int i = 0; i < lines; i++) {
+			long cents = random.nextLong(1, 100_000);
+			centPrices[i] = cents;
+			decimalPrices[i] = BigDecimal.valueOf(cents, 2);
+			floatPrices[i] = decimalPrices[i].floatValue();
+			quantities[i] = random.nextInt(1, 50);
+		}
+	}
+
+	@Benchmark
+	public double floatTimesIntIntoDouble() {
+		double total = 0;
+		for (int i = 0; i < lines; i++) {
+			total += floatPrices[i] * quantities[i];
+		}
+		return total;
+	}
+
+	@Benchmark
+	public BigDecimal bigDecimal() {
+		BigDecimal total = BigDecimal.ZERO;
+		for (int i = 0; i < lines; i++) {
+			total = total.add(decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+		}
+		return total;
+	}
+
+	@Benchmark
+	public long cents() {
+		long total = 0;
+		for (int i = 0; i < lines; i++) {
+			total = Math.addExact(total, Money.lineCents(centPrices[i], quantities[i]));
+		}
+		return total;
+	}
+}
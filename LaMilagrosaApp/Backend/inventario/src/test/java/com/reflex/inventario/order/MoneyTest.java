@@ -0,0 +1,73 @@
+package com.reflex.inventario.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+	private static final int LINES = 10_000_000;
+
+	@Test
+	void sumsTenMillionLinesExactly() {
+		long unitCents = Money.toCents(new BigDecimal("0.10"));
+		long cents = 0;
+		double floats = 0;
+		for (int i = 0; i < LINES; i++) {
+			cents += Money.lineCents(unitCents, 1);
+			floats += 0.1f * 1;
+		}
+
+		assertEquals(new BigDecimal("1000000.00"), Money.fromCents(cents));
+		//La suma anterior (float * int en double) se desvía del valor real
+		assertNotEquals(1_000_000.0, floats);
+	}
+
+	@Test
+	void matchesBigDecimalOnRandomLines() {
+		SplittableRandom random = new SplittableRandom(42);
+		long cents = 0;
+		BigDecimal expected = BigDecimal.ZERO;
+		for (int i = 0; i < LINES; i++) {
+			long unitCents = random.nextLong(1, 1_000_000);
+			int quantity = random.nextInt(1, 500);
+			cents = Math.addExact(cents, Money.lineCents(unitCents, quantity));
+			expected = expected.add(BigDecimal.valueOf(unitCents, 2).multiply(BigDecimal.valueOf(quantity)));
+		}
+
+		assertEquals(expected, Money.fromCents(cents));
+	}
+
+	@Test
+	void roundsHalfUpToCents() {
+		assertEquals(1235, Money.toCents(new BigDecimal("12.345")));
+		assertEquals(1234, Money.toCents(new BigDecimal("12.3449")));
+		assertEquals(-1235, Money.toCents(new BigDecimal("-12.345")));
+		assertEquals(0, Money.toCents(null));
+		assertEquals(new BigDecimal("12.30"), Money.fromCents(Money.toCents(new BigDecimal("12.3"))));
+	}
+
+	@Test
+	void percentMatchesBigDecimalRounding() {
+		for (long cents = -5_000; cents <= 5_000; cents += 7) {
+			for (int percent : new int[]{0, 5, 12, 19, 21}) {
+				BigDecimal expected = BigDecimal.valueOf(cents, 2)
+						.multiply(BigDecimal.valueOf(percent))
+						.divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+				assertEquals(expected, Money.fromCents(Money.percentOf(cents, percent)));
+			}
+		}
+	}
+
+	@Test
+	void failsInsteadOfOverflowing() {
+		assertThrows(ArithmeticException.class, () -> Money.lineCents(Long.MAX_VALUE / 2, 3));
+		assertThrows(ArithmeticException.class, () -> Money.toCents(new BigDecimal("1e30")));
+	}
+}
@@ -0,0 +1,140 @@
+package com.reflex.inventario.order;
+
+import com.reflex.inventario.TestData;
+import com.reflex.inventario.handler.exceptions.InvalidCursorException;
+import com.reflex.inventario.order.dto.OrderFilterDTO;
+import com.reflex.inventario.order.dto.OrderPageDTO;
+import com.reflex.inventario.order.dto.OrderReqDTO;
+import com.reflex.inventario.order.dto.OrderResDTO;
+import com.reflex.inventario.order.service.OrderService;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.provider.Provider;
+import com.reflex.inventario.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Cada filtro sobre los dos tipos de orden; las consultas se acotan al usuario de la prueba
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class OrderFilterTest {
+
+	private static final LocalDate JAN = LocalDate.of(2001, 1, 10);
+	private static final LocalDate FEB = LocalDate.of(2001, 2, 10);
+	private static final LocalDate MAR = LocalDate.of(2001, 3, 10);
+
+	@Autowired
+	private TestData testData;
+	@Autowired
+	private OrderService orderService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void customerOrderFilters() {
+		User user = testData.user();
+		Product product = testData.product("100");
+		Integer jan = customerOrder(user, product, JAN, false);
+		Integer feb = customerOrder(user, product, FEB, true);
+		Integer mar = customerOrder(user, product, MAR, false);
+
+		assertEquals(List.of(mar, feb, jan), customerNumbers(OrderFilterDTO.builder().userId(user.getId()).build()));
+		assertEquals(List.of(feb), customerNumbers(OrderFilterDTO.builder().userId(user.getId()).aproved(true).build()));
+		assertEquals(List.of(mar, feb), customerNumbers(OrderFilterDTO.builder().userId(user.getId()).from(FEB).build()));
+		assertEquals(List.of(feb, jan), customerNumbers(OrderFilterDTO.builder().userId(user.getId()).to(FEB).build()));
+		//Las ventas no tienen proveedor: el filtro se ignora en lugar de romper la consulta
+		assertEquals(List.of(mar, feb, jan), customerNumbers(OrderFilterDTO.builder().userId(user.getId()).providerId(1).build()));
+	}
+
+	@Test
+	void purchaseOrderFilters() {
+		User user = testData.user();
+		Product product = testData.product("100");
+		Provider provider = testData.provider();
+		Provider other = testData.provider();
+		Integer jan = purchaseOrder(user, provider, product, JAN, false);
+		Integer feb = purchaseOrder(user, provider, product, FEB, true);
+		Integer mar = purchaseOrder(user, other, product, MAR, false);
+
+		assertEquals(List.of(mar, feb, jan), purchaseNumbers(OrderFilterDTO.builder().userId(user.getId()).build()));
+		assertEquals(List.of(feb), purchaseNumbers(OrderFilterDTO.builder().userId(user.getId()).aproved(true).build()));
+		assertEquals(List.of(mar, feb), purchaseNumbers(OrderFilterDTO.builder().userId(user.getId()).from(FEB).build()));
+		assertEquals(List.of(feb, jan), purchaseNumbers(OrderFilterDTO.builder().userId(user.getId()).to(FEB).build()));
+		assertEquals(List.of(mar), purchaseNumbers(OrderFilterDTO.builder().providerId(other.getId()).build()));
+		assertEquals(List.of(feb, jan), purchaseNumbers(OrderFilterDTO.builder().userId(user.getId()).providerId(provider.getId()).build()));
+	}
+
+	@Test
+	void cursorWalksPagesWithoutRepeatingOrders() {
+		User user = testData.user();
+		Product product = testData.product("100");
+		Integer jan = customerOrder(user, product, JAN, false);
+		Integer feb = customerOrder(user, product, FEB, false);
+		Integer mar = customerOrder(user, product, MAR, false);
+		OrderFilterDTO filter = OrderFilterDTO.builder().userId(user.getId()).build();
+
+		OrderPageDTO first = orderService.getCustomerOrders(filter, null, 2);
+		assertEquals(List.of(mar, feb), first.getContent().stream().map(OrderResDTO::getNumber).toList());
+		assertNotNull(first.getNextCursor());
+		OrderPageDTO second = orderService.getCustomerOrders(filter, first.getNextCursor(), 2);
+		assertEquals(List.of(jan), second.getContent().stream().map(OrderResDTO::getNumber).toList());
+		assertNull(second.getNextCursor());
+	}
+
+	@Test
+	void invalidCursorIsRejected() throws Exception {
+		OrderFilterDTO filter = new OrderFilterDTO();
+		assertThrows(InvalidCursorException.class, () -> orderService.getCustomerOrders(filter, "no-es-un-cursor", 10));
+		assertThrows(InvalidCursorException.class, () -> orderService.getPurchaseOrders(filter, "no-es-un-cursor", 10));
+
+		String token = testData.token(testData.user());
+		mockMvc.perform(get("/order/purchase/findAllOrders").param("cursor", "no-es-un-cursor")
+						.header("Authorization", "Bearer " + token))
+				.andExpect(status().isBadRequest());
+	}
+
+	private Integer customerOrder(User user, Product product, LocalDate day, boolean approved) {
+		Integer number = orderService.addCustomerOrder(user.getEmail(), testData.order(Map.of(product, 1))).getNumber();
+		jdbcTemplate.update("UPDATE customer_order SET created_at = ?, aproved = ? WHERE number = ?",
+				Timestamp.valueOf(day.atTime(12, 0)), approved, number);
+		return number;
+	}
+
+	private Integer purchaseOrder(User user, Provider provider, Product product, LocalDate day, boolean approved) {
+		OrderReqDTO order = testData.order(Map.of(product, 1));
+		order.setProviderId(provider.getId());
+		Integer number = orderService.addPurchaseOrder(user.getEmail(), order).getNumber();
+		jdbcTemplate.update("UPDATE purchase_order SET created_at = ?, aproved = ? WHERE number = ?",
+				Timestamp.valueOf(day.atTime(12, 0)), approved, number);
+		return number;
+	}
+
+	private List<Integer> customerNumbers(OrderFilterDTO filter) {
+		return orderService.getCustomerOrders(filter, null, 50).getContent().stream().map(OrderResDTO::getNumber).toList();
+	}
+
+	private List<Integer> purchaseNumbers(OrderFilterDTO filter) {
+		return orderService.getPurchaseOrders(filter, null, 50).getContent().stream().map(OrderResDTO::getNumber).toList();
+	}
+}
@@ -0,0 +1,84 @@
+package com.reflex.inventario.order;
+
+import com.reflex.inventario.TestData;
+import com.reflex.inventario.order.dto.OrderDetailDTO;
+import com.reflex.inventario.order.dto.OrderReqDTO;
+import com.reflex.inventario.order.service.OrderService;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.user.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Cuenta las sentencias que Hibernate prepara al leer y al registrar una orden de 50 líneas
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class OrderStatementCountTest {
+
+	@Autowired
+	private TestData testData;
+	@Autowired
+	private OrderService orderService;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void fiftyLineDetailIsReadWithOneStatement() {
+		User user = testData.user();
+		Integer number = orderService.addCustomerOrder(user.getEmail(), order(50)).getNumber();
+		Statistics statistics = statistics();
+
+		statistics.clear();
+		OrderDetailDTO detail = orderService.getCustomerOrderDetail(number);
+
+		assertEquals(50, detail.getLines().size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void fiftyLineOrderIsInsertedInBatches() {
+		User user = testData.user();
+		Statistics statistics = statistics();
+		long oneLine = insertStatements(user, order(1));
+		long fiftyLines = insertStatements(user, order(50));
+
+		//Una fila de orden y 50 de detalle, pero las sentencias no crecen con las líneas:
+		//los INSERT viajan en batch y los productos se leen en una sola consulta.
+		//La holgura de una es la secuencia de detalles, que puede pedir un nuevo bloque de ids
+		assertEquals(1, statistics.getEntityStatistics(CustomerOrder.class.getName()).getInsertCount());
+		assertEquals(50, statistics.getEntityStatistics(ProductDetail.class.getName()).getInsertCount());
+		assertTrue(fiftyLines <= oneLine + 1, "1 línea: " + oneLine + " sentencias, 50 líneas: " + fiftyLines);
+	}
+
+	private long insertStatements(User user, OrderReqDTO order) {
+		Statistics statistics = statistics();
+		statistics.clear();
+		orderService.addCustomerOrders(user.getEmail(), List.of(order));
+		return statistics.getPrepareStatementCount();
+	}
+
+	private OrderReqDTO order(int lines) {
+		Map<Product, Integer> quantities = new LinkedHashMap<>();
+		for (int i = 0; i < lines; i++) {
+			quantities.put(testData.product("1000"), 1 + i % 3);
+		}
+		return testData.order(quantities);
+	}
+
+	private Statistics statistics() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+}
@@ -0,0 +1,128 @@
+package com.reflex.inventario.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.reflex.inventario.datagen.DataGenResult;
+import com.reflex.inventario.datagen.DataGenSpec;
+import com.reflex.inventario.datagen.DataGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Resumen de ventas de un período: el cálculo anterior (cargar órdenes, líneas y productos y sumar precio * cantidad
+//en memoria) contra la suma del subtotal guardado en cada orden, sobre H2 con datos del generador.
+//No corre con el resto de las pruebas; se lanza a mano y deja un JSON en target/benchmarks:
+//mvn test -Dtest=OrderTotalsBenchmark -Dbenchmark.lines=100000,1000000 -DargLine=-Xmx3g
+@SpringBootTest
+@ActiveProfiles({"benchmark", "datagen"})
+class OrderTotalsBenchmark {
+
+	private static final int LINES_PER_ORDER = 5;
+
+	@Autowired
+	private DataGenerator dataGenerator;
+	@Autowired
+	private CustomerOrderRepository customerOrderRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void benchmarkSummary() throws Exception {
+		int[] sizes = Arrays.stream(System.getProperty("benchmark.lines", "1000000").split(","))
+				.map(String::trim)
+				.mapToInt(Integer::parseInt)
+				.toArray();
+		int runs = Integer.getInteger("benchmark.runs", 3);
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+
+		List<Measurement> measurements = new ArrayList<>();
+		List<DataGenResult> datasets = new ArrayList<>();
+		for (int size : sizes) {
+			dataGenerator.clear();
+			DataGenResult data = dataGenerator.generate(DataGenSpec.builder()
+					.products(Math.max(100, size / 500))
+					.categories(20)
+					.lotsPerProduct(1)
+					.users(10)
+					.providers(5)
+					.customerOrders(size / LINES_PER_ORDER)
+					.purchaseOrders(0)
+					.linesPerOrder(LINES_PER_ORDER)
+					.days(365)
+					.seed(42)
+					.batchSize(1000)
+					.build());
+			datasets.add(data);
+			LocalDateTime from = data.getFrom().atStartOfDay();
+			LocalDateTime to = data.getTo().atTime(23, 59, 59);
+
+			//Cada corrida del cálculo anterior usa un contexto de persistencia nuevo, como una petición
+			Supplier<BigDecimal> lines = () -> readOnly.execute(status -> customerOrderRepository.findByCreatedAtBetween(from, to).stream()
+					.flatMap(order -> order.getProductsDetails().stream())
+					.map(detail -> detail.getProduct().getPrice().multiply(BigDecimal.valueOf(detail.getQuantity())))
+					.reduce(BigDecimal.ZERO, BigDecimal::add));
+			Supplier<BigDecimal> stored = () -> jdbcTemplate.queryForObject(
+					"SELECT COALESCE(SUM(subtotal), 0) FROM customer_order WHERE created_at BETWEEN ? AND ?",
+					BigDecimal.class, Timestamp.valueOf(from), Timestamp.valueOf(to));
+
+			//Las ventas generadas usan el precio vigente del producto: los dos cálculos deben coincidir
+			assertEquals(0, lines.get().compareTo(stored.get()));
+			measurements.add(measure("lineas-en-memoria", data, runs, lines));
+			measurements.add(measure("subtotal-guardado", data, runs, stored));
+		}
+
+		Path dir = Path.of("target", "benchmarks");
+		Files.createDirectories(dir);
+		Path file = dir.resolve("totales-orden-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+		new ObjectMapper().findAndRegisterModules()
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.enable(SerializationFeature.INDENT_OUTPUT)
+				.writeValue(file.toFile(), new Report(System.getProperty("benchmark.label", "local"),
+						LocalDateTime.now().toString(), System.getProperty("java.version"),
+						Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory() / (1024 * 1024),
+						"h2", datasets, measurements));
+		measurements.forEach(System.out::println);
+		System.out.println("Resultados en " + file.toAbsolutePath());
+	}
+
+	private Measurement measure(String mode, DataGenResult data, int runs, Supplier<BigDecimal> summary) {
+		double[] millis = new double[runs];
+		BigDecimal total = BigDecimal.ZERO;
+		for (int i = 0; i < runs; i++) {
+			long started = System.nanoTime();
+			total = summary.get();
+			millis[i] = (System.nanoTime() - started) / 1_000_000.0;
+		}
+		Arrays.sort(millis);
+		return new Measurement(mode, data.getCustomerOrders(), data.getLines(), runs,
+				millis[0], millis[runs / 2], millis[runs - 1], total);
+	}
+
+	record Measurement(String mode, int orders, long lines, int runs,
+					   double minMs, double medianMs, double maxMs, BigDecimal total) {
+	}
+
+	record Report(String label, String executedAt, String javaVersion, int cpus, long maxHeapMb, String database,
+				  List<DataGenResult> datasets, List<Measurement> measurements) {
+	}
+}
@@ -0,0 +1,149 @@
+package com.reflex.inventario.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.reflex.inventario.TestData;
+import com.reflex.inventario.handler.exceptions.InventoryNotFoundException;
+import com.reflex.inventario.handler.exceptions.StockConflictException;
+import com.reflex.inventario.order.service.OrderService;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Caudal de aprobaciones concurrentes sobre pocos productos muy disputados, sobre H2.
+//El stock alcanza para la mitad de lo pedido, así que también se ejercitan los rechazos.
+//Al final de cada corrida se comprueba que no se vendió de más.
+//No corre con el resto de las pruebas; se lanza a mano y deja un JSON en target/benchmarks:
+//mvn test -Dtest=StockContentionBenchmark -Dbenchmark.threads=16,32,64 -Dbenchmark.orders=2000 -Dbenchmark.products=8
+@SpringBootTest
+@ActiveProfiles("benchmark")
+@Import(TestData.class)
+class StockContentionBenchmark {
+
+	private static final int UNITS_PER_LINE = 2;
+
+	@Autowired
+	private TestData testData;
+	@Autowired
+	private OrderService orderService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void benchmarkConcurrentApprovals() throws Exception {
+		int[] threadCounts = Arrays.stream(System.getProperty("benchmark.threads", "16,32,64").split(","))
+				.map(String::trim)
+				.mapToInt(Integer::parseInt)
+				.toArray();
+		int orders = Integer.getInteger("benchmark.orders", 1000);
+		int productCount = Integer.getInteger("benchmark.products", 8);
+		int linesPerOrder = Math.min(productCount, Integer.getInteger("benchmark.lines", 2));
+		User user = testData.user();
+
+		List<Measurement> measurements = new ArrayList<>();
+		for (int threads : threadCounts) {
+			List<Product> products = new ArrayList<>();
+			for (int i = 0; i < productCount; i++) {
+				Product product = testData.product("1000");
+				int stock = orders * linesPerOrder * UNITS_PER_LINE / productCount / 2;
+				testData.lot(product, stock / 2, LocalDate.now().plusDays(10));
+				testData.lot(product, stock - stock / 2, LocalDate.now().plusDays(20));
+				products.add(product);
+			}
+			int initialStock = stock(products);
+			List<Integer> numbers = new ArrayList<>();
+			for (int i = 0; i < orders; i++) {
+				Map<Product, Integer> quantities = new LinkedHashMap<>();
+				while (quantities.size() < linesPerOrder) {
+					quantities.put(products.get(ThreadLocalRandom.current().nextInt(productCount)), UNITS_PER_LINE);
+				}
+				numbers.add(orderService.addCustomerOrder(user.getEmail(), testData.order(quantities)).getNumber());
+			}
+
+			AtomicInteger approved = new AtomicInteger();
+			AtomicInteger rejected = new AtomicInteger();
+			AtomicInteger conflicts = new AtomicInteger();
+			ExecutorService pool = Executors.newFixedThreadPool(threads);
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> futures = new ArrayList<>();
+			for (Integer number : numbers) {
+				futures.add(pool.submit(() -> {
+					start.await();
+					try {
+						orderService.aproveCustomerOrder(number);
+						approved.incrementAndGet();
+					} catch (InventoryNotFoundException e) {
+						rejected.incrementAndGet();
+					} catch (StockConflictException e) {
+						conflicts.incrementAndGet();
+					}
+					return null;
+				}));
+			}
+			long started = System.nanoTime();
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+			double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+			pool.shutdown();
+
+			int finalStock = stock(products);
+			int minLot = jdbcTemplate.queryForObject("SELECT MIN(stock) FROM product_inventory", Integer.class);
+			assertTrue(minLot >= 0);
+			assertEquals(initialStock - finalStock, approved.get() * linesPerOrder * UNITS_PER_LINE);
+			measurements.add(new Measurement(threads, orders, productCount, linesPerOrder, approved.get(), rejected.get(),
+					conflicts.get(), seconds, orders / seconds, initialStock, finalStock));
+		}
+
+		Path dir = Path.of("target", "benchmarks");
+		Files.createDirectories(dir);
+		Path file = dir.resolve("contencion-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+				.writeValue(file.toFile(), new Report(System.getProperty("benchmark.label", "local"),
+						LocalDateTime.now().toString(), System.getProperty("java.version"),
+						Runtime.getRuntime().availableProcessors(), "h2", measurements));
+		measurements.forEach(System.out::println);
+		System.out.println("Resultados en " + file.toAbsolutePath());
+	}
+
+	private int stock(List<Product> products) {
+		return products.stream()
+				.mapToInt(product -> jdbcTemplate.queryForObject(
+						"SELECT SUM(stock) FROM product_inventory WHERE inventory_product_id = ?", Integer.class, product.getCode()))
+				.sum();
+	}
+
+	record Measurement(int threads, int orders, int products, int linesPerOrder, int approved, int rejected,
+					   int conflicts, double seconds, double approvalsPerSecond, int initialStock, int finalStock) {
+	}
+
+	record Report(String label, String executedAt, String javaVersion, int cpus, String database,
+				  List<Measurement> measurements) {
+	}
+}
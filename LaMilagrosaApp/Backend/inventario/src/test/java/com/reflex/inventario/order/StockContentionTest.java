@@ -0,0 +1,181 @@
+package com.reflex.inventario.order;
+
+import com.reflex.inventario.TestData;
+import com.reflex.inventario.handler.exceptions.InventoryNotFoundException;
+import com.reflex.inventario.handler.exceptions.StockConflictException;
+import com.reflex.inventario.order.service.OrderService;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.productInventory.InventoryAllocation;
+import com.reflex.inventario.productInventory.InventoryStockWriter;
+import com.reflex.inventario.productInventory.ProductInventory;
+import com.reflex.inventario.productInventory.dto.ProductInventoryReqDTO;
+import com.reflex.inventario.productInventory.service.ProductInventoryService;
+import com.reflex.inventario.productInventory.service.ProductStockService;
+import com.reflex.inventario.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Muchas aprobaciones a la vez sobre el mismo producto: nunca se vende más de lo que hay
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class StockContentionTest {
+
+	private static final int THREADS = 32;
+
+	@Autowired
+	private TestData testData;
+	@Autowired
+	private OrderService orderService;
+	@Autowired
+	private InventoryStockWriter inventoryStockWriter;
+	@Autowired
+	private ProductStockService productStockService;
+	@Autowired
+	private ProductInventoryService productInventoryService;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void concurrentApprovalsNeverOversell() throws Exception {
+		User user = testData.user();
+		Product product = testData.product("1000");
+		testData.lot(product, 40, LocalDate.now().plusDays(5));
+		testData.lot(product, 60, LocalDate.now().plusDays(20));
+		List<Integer> orders = new ArrayList<>();
+		for (int i = 0; i < 60; i++) {
+			orders.add(orderService.addCustomerOrder(user.getEmail(), testData.order(Map.of(product, 3))).getNumber());
+		}
+
+		List<Boolean> results = runConcurrently(orders.stream().<Callable<Boolean>>map(number -> () -> {
+			try {
+				orderService.aproveCustomerOrder(number);
+				return true;
+			} catch (InventoryNotFoundException e) {
+				return false;
+			}
+		}).toList());
+
+		long approved = results.stream().filter(ok -> ok).count();
+		int remaining = lotStock(product);
+		assertTrue(remaining >= 0);
+		assertEquals(100 - remaining, approved * 3);
+		//Solo se rechaza lo que de verdad no alcanzaba
+		assertEquals(33, approved);
+		assertEquals(remaining, productStockService.getStock(product.getCode()).getTotalUnits());
+		assertEquals(approved, countApproved(orders));
+	}
+
+	//Sin los candados en memoria (otro nodo): el UPDATE condicional por sí solo tampoco deja stock negativo
+	@Test
+	void conditionalUpdateAloneNeverOversells() throws Exception {
+		Product product = testData.product("1000");
+		ProductInventory lot = testData.lot(product, 50, LocalDate.now().plusDays(5));
+		InventoryAllocation unit = new InventoryAllocation(lot.getId(), product.getCode(), 1, lot.getExpirationDate());
+
+		List<Callable<Boolean>> tasks = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			tasks.add(() -> {
+				try {
+					transactionTemplate.executeWithoutResult(status -> inventoryStockWriter.decrementStock(List.of(unit)));
+					return true;
+				} catch (StockConflictException e) {
+					return false;
+				}
+			});
+		}
+		List<Boolean> results = runConcurrently(tasks);
+
+		assertEquals(50, results.stream().filter(ok -> ok).count());
+		assertEquals(0, lotStock(product));
+	}
+
+	//Ajustes manuales del lote mientras se descuenta: ninguno pisa un descuento y el resumen termina igual al lote
+	@Test
+	void manualAdjustmentsDuringApprovalsKeepTheSummaryInStep() throws Exception {
+		Product product = testData.product("1000");
+		ProductInventory lot = testData.lot(product, 500, LocalDate.now().plusDays(5));
+		InventoryAllocation unit = new InventoryAllocation(lot.getId(), product.getCode(), 1, lot.getExpirationDate());
+		ProductInventoryReqDTO adjustment = ProductInventoryReqDTO.builder().stock(500).build();
+
+		List<Callable<Boolean>> tasks = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			tasks.add(() -> {
+				transactionTemplate.executeWithoutResult(status -> {
+					inventoryStockWriter.decrementStock(List.of(unit));
+					productStockService.removeAllocations(List.of(unit));
+				});
+				return true;
+			});
+			if (i % 5 == 0) {
+				tasks.add(() -> {
+					try {
+						productInventoryService.updateInventory(lot.getId(), adjustment);
+						return true;
+					} catch (StockConflictException e) {
+						return false;
+					}
+				});
+			}
+		}
+		runConcurrently(tasks);
+
+		int remaining = lotStock(product);
+		assertTrue(remaining >= 300);
+		assertEquals(remaining, productStockService.getStock(product.getCode()).getTotalUnits());
+	}
+
+	private <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<T>> futures = new ArrayList<>();
+			for (Callable<T> task : tasks) {
+				futures.add(pool.submit(() -> {
+					start.await();
+					return task.call();
+				}));
+			}
+			start.countDown();
+			List<T> results = new ArrayList<>();
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private int lotStock(Product product) {
+		return jdbcTemplate.queryForObject("SELECT SUM(stock) FROM product_inventory WHERE inventory_product_id = ?",
+				Integer.class, product.getCode());
+	}
+
+	private long countApproved(List<Integer> orders) {
+		return orders.stream()
+				.filter(number -> Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+						"SELECT aproved FROM customer_order WHERE number = ?", Boolean.class, number)))
+				.count();
+	}
+}
@@ -0,0 +1,223 @@
+package com.reflex.inventario.order.idempotency;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reflex.inventario.TestData;
+import com.reflex.inventario.handler.exceptions.IdempotencyKeyReusedException;
+import com.reflex.inventario.order.dto.OrderReqDTO;
+import com.reflex.inventario.order.dto.OrderResDTO;
+import com.reflex.inventario.order.dto.ProductDetailDTO;
+import com.reflex.inventario.order.service.OrderService;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Reintentos con la misma clave, reuso con otro cuerpo y registro en la transacción de la orden.
+//Las pruebas del servicio usan instancias persistentes propias, como si fueran nodos distintos
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class IdempotencyServiceTest {
+
+	@Autowired
+	private TestData testData;
+	@Autowired
+	private OrderService orderService;
+	@Autowired
+	private IdempotencyRecordRepository idempotencyRecordRepository;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void retryReturnsTheFirstOrderWithoutCreatingAnother() {
+		IdempotencyService service = persistentService();
+		User user = testData.user();
+		OrderReqDTO order = testData.order(Map.of(testData.product("100"), 2));
+
+		OrderResDTO first = execute(service, user, "clave-1", order);
+		OrderResDTO retry = execute(service, user, "clave-1", order);
+		//Otra instancia sin memoria lo resuelve desde la tabla
+		OrderResDTO otherNode = execute(persistentService(), user, "clave-1", order);
+
+		assertEquals(first.getNumber(), retry.getNumber());
+		assertEquals(first.getNumber(), otherNode.getNumber());
+		assertEquals(1, orderCount(user));
+	}
+
+	@Test
+	void detailOrderDoesNotChangeTheFingerprint() {
+		IdempotencyService service = persistentService();
+		User user = testData.user();
+		Product a = testData.product("100");
+		Product b = testData.product("200");
+		OrderReqDTO order = testData.order(Map.of(a, 1));
+		order.setProductsDetails(details(a, b));
+		OrderReqDTO reordered = testData.order(Map.of(a, 1));
+		reordered.setProductsDetails(details(b, a));
+
+		Integer first = execute(service, user, "clave-orden", order).getNumber();
+
+		assertEquals(first, execute(persistentService(), user, "clave-orden", reordered).getNumber());
+		assertEquals(1, orderCount(user));
+	}
+
+	@Test
+	void sameKeyWithAnotherBodyIsRejected() {
+		IdempotencyService service = persistentService();
+		User user = testData.user();
+		Product product = testData.product("100");
+		execute(service, user, "clave-2", testData.order(Map.of(product, 2)));
+
+		OrderReqDTO changed = testData.order(Map.of(product, 3));
+		assertThrows(IdempotencyKeyReusedException.class, () -> execute(service, user, "clave-2", changed));
+		assertThrows(IdempotencyKeyReusedException.class, () -> execute(persistentService(), user, "clave-2", changed));
+		assertEquals(1, orderCount(user));
+	}
+
+	@Test
+	void recordConflictRollsBackTheOrder() throws Exception {
+		User user = testData.user();
+		OrderReqDTO order = testData.order(Map.of(testData.product("100"), 1));
+		IdempotencyService first = persistentService();
+		IdempotencyService second = persistentService();
+		ExecutorService otherNode = Executors.newSingleThreadExecutor();
+		try {
+			//Mientras la primera instancia crea su orden, la segunda completa la misma petición;
+			//el INSERT de la primera choca con ese registro y su orden no debe quedar confirmada
+			assertThrows(DataIntegrityViolationException.class, () -> first.execute("customer:" + user.getEmail(), "clave-3", order, () -> {
+				OrderResDTO created = orderService.addCustomerOrder(user.getEmail(), order);
+				try {
+					otherNode.submit(() -> execute(second, user, "clave-3", order)).get(30, TimeUnit.SECONDS);
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+				return created;
+			}));
+		} finally {
+			otherNode.shutdownNow();
+		}
+
+		assertEquals(1, orderCount(user));
+		assertEquals(execute(first, user, "clave-3", order).getNumber(), execute(second, user, "clave-3", order).getNumber());
+	}
+
+	@Test
+	void longEmailAndKeyFitTheColumn() {
+		IdempotencyService service = persistentService();
+		User user = testData.user();
+		OrderReqDTO order = testData.order(Map.of(testData.product("100"), 1));
+		String scope = "customer:" + "x".repeat(240) + user.getEmail();
+		String key = "k".repeat(200);
+
+		Integer first = service.execute(scope, key, order, () -> orderService.addCustomerOrder(user.getEmail(), order)).getNumber();
+
+		assertEquals(first, persistentService().execute(scope, key, order, () -> orderService.addCustomerOrder(user.getEmail(), order)).getNumber());
+		assertEquals(1, orderCount(user));
+	}
+
+	@Test
+	void concurrentDuplicatesCreateOneOrder() throws Exception {
+		IdempotencyService service = persistentService();
+		User user = testData.user();
+		OrderReqDTO order = testData.order(Map.of(testData.product("100"), 1));
+		int threads = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				results.add(pool.submit(() -> {
+					start.await();
+					return execute(service, user, "clave-4", order).getNumber();
+				}));
+			}
+			start.countDown();
+			Set<Integer> numbers = new LinkedHashSet<>();
+			for (Future<Integer> result : results) {
+				numbers.add(result.get(30, TimeUnit.SECONDS));
+			}
+			assertEquals(1, numbers.size());
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(1, orderCount(user));
+	}
+
+	@Test
+	void reusedKeyIs422OverHttp() throws Exception {
+		User user = testData.user();
+		Product product = testData.product("100");
+		String token = testData.token(user);
+
+		JsonNode first = register(user, token, testData.order(Map.of(product, 1)), 202);
+		JsonNode retry = register(user, token, testData.order(Map.of(product, 1)), 202);
+		register(user, token, testData.order(Map.of(product, 5)), 422);
+
+		assertEquals(first.get("number"), retry.get("number"));
+		assertEquals(1, orderCount(user));
+	}
+
+	private JsonNode register(User user, String token, OrderReqDTO order, int expected) throws Exception {
+		String body = mockMvc.perform(post("/order/customer/register/" + user.getEmail())
+						.header("Authorization", "Bearer " + token)
+						.header("Idempotency-Key", "clave-http")
+						.contentType("application/json")
+						.content(objectMapper.writeValueAsBytes(order)))
+				.andExpect(status().is(expected))
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body);
+	}
+
+	private OrderResDTO execute(IdempotencyService service, User user, String key, OrderReqDTO order) {
+		return service.execute("customer:" + user.getEmail(), key, order,
+				() -> orderService.addCustomerOrder(user.getEmail(), order));
+	}
+
+	private IdempotencyService persistentService() {
+		return new IdempotencyService(idempotencyRecordRepository, objectMapper, transactionTemplate, 100, 60, true);
+	}
+
+	private static Set<ProductDetailDTO> details(Product... products) {
+		Set<ProductDetailDTO> details = new LinkedHashSet<>();
+		for (Product product : products) {
+			details.add(ProductDetailDTO.builder().productCode(product.getCode()).quantity(1).build());
+		}
+		return details;
+	}
+
+	private int orderCount(User user) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_order WHERE user_id = ?", Integer.class, user.getId());
+	}
+}
@@ -0,0 +1,100 @@
+package com.reflex.inventario.order.job;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reflex.inventario.TestData;
+import com.reflex.inventario.order.service.OrderService;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.productInventory.ProductInventory;
+import com.reflex.inventario.productInventory.ProductInvetoryRepository;
+import com.reflex.inventario.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//De punta a punta: la petición responde 202 con el trabajo y el estado se consulta hasta que termina
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ApprovalJobApiTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private TestData testData;
+	@Autowired
+	private OrderService orderService;
+	@Autowired
+	private ProductInvetoryRepository productInvetoryRepository;
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void asyncApprovalCompletesAndTakesTheStock() throws Exception {
+		User user = testData.user();
+		Product product = testData.product("500");
+		ProductInventory lot = testData.lot(product, 10, LocalDate.now().plusDays(10));
+		Integer number = orderService.addCustomerOrder(user.getEmail(), testData.order(Map.of(product, 4))).getNumber();
+		String token = testData.token(user);
+
+		JsonNode job = await(submit(number, token), token);
+
+		assertEquals("COMPLETADO", job.get("status").asText());
+		assertEquals(6, productInvetoryRepository.findById(lot.getId()).orElseThrow().getStock());
+	}
+
+	@Test
+	void failedApprovalEndsAsFailedJob() throws Exception {
+		User user = testData.user();
+		Product product = testData.product("500");
+		Integer number = orderService.addCustomerOrder(user.getEmail(), testData.order(Map.of(product, 4))).getNumber();
+		String token = testData.token(user);
+
+		JsonNode job = await(submit(number, token), token);
+
+		assertEquals("FALLIDO", job.get("status").asText());
+	}
+
+	@Test
+	void unknownJobIs404() throws Exception {
+		String token = testData.token(testData.user());
+		mockMvc.perform(get("/order/jobs/no-existe").header("Authorization", "Bearer " + token))
+				.andExpect(status().isNotFound());
+	}
+
+	private String submit(Integer number, String token) throws Exception {
+		String body = mockMvc.perform(post("/order/customer/aproveOrder/" + number + "/async")
+						.header("Authorization", "Bearer " + token))
+				.andExpect(status().isAccepted())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body).get("jobId").asText();
+	}
+
+	private JsonNode await(String jobId, String token) throws Exception {
+		for (int i = 0; i < 200; i++) {
+			String body = mockMvc.perform(get("/order/jobs/" + jobId).header("Authorization", "Bearer " + token))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+			JsonNode job = objectMapper.readTree(body);
+			String state = job.get("status").asText();
+			if (!state.equals("PENDIENTE") && !state.equals("EN_PROCESO")) {
+				return job;
+			}
+			Thread.sleep(50);
+		}
+		throw new AssertionError("El trabajo " + jobId + " no terminó");
+	}
+}
@@ -0,0 +1,102 @@
+package com.reflex.inventario.order.job;
+
+import com.reflex.inventario.alert.AlertWebSocketService;
+import com.reflex.inventario.handler.exceptions.ApprovalQueueFullException;
+import com.reflex.inventario.handler.exceptions.InventoryNotFoundException;
+import com.reflex.inventario.handler.exceptions.JobNotFoundException;
+import com.reflex.inventario.order.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class ApprovalJobServiceTest {
+
+	private final OrderService orderService = mock(OrderService.class);
+	private final AlertWebSocketService alertWebSocketService = mock(AlertWebSocketService.class);
+	private final ThreadPoolTaskExecutor executor = executor(1, 1);
+	private final ApprovalJobService service = new ApprovalJobService(orderService, executor, alertWebSocketService);
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void approvalRunsOnTheWorkerAndNotifiesWhenDone() {
+		ApprovalJobDTO submitted = service.submitCustomerOrderApproval(7);
+		assertEquals(ApprovalJobStatus.PENDIENTE, submitted.getStatus());
+
+		ApprovalJobDTO finished = awaitNotification();
+		verify(orderService).aproveCustomerOrder(7);
+		assertEquals(submitted.getJobId(), finished.getJobId());
+		assertEquals(ApprovalJobStatus.COMPLETADO, finished.getStatus());
+		assertNotNull(finished.getFinishedAt());
+		assertEquals(ApprovalJobStatus.COMPLETADO, service.getJob(submitted.getJobId()).getStatus());
+	}
+
+	@Test
+	void failedApprovalIsReportedOnTheJob() {
+		doThrow(new InventoryNotFoundException("Sin unidades")).when(orderService).aproveCustomerOrder(8);
+
+		String jobId = service.submitCustomerOrderApproval(8).getJobId();
+
+		ApprovalJobDTO finished = awaitNotification();
+		assertEquals(ApprovalJobStatus.FALLIDO, finished.getStatus());
+		assertEquals("Sin unidades", finished.getMessage());
+		assertEquals(ApprovalJobStatus.FALLIDO, service.getJob(jobId).getStatus());
+	}
+
+	@Test
+	void saturatedQueueRejectsWithoutKeepingTheJob() throws Exception {
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			running.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			return null;
+		}).when(orderService).aproveCustomerOrder(1);
+
+		//Un trabajo ocupa al único hilo, el segundo llena la cola y el tercero ya no cabe
+		service.submitCustomerOrderApproval(1);
+		running.await(10, TimeUnit.SECONDS);
+		String queued = service.submitCustomerOrderApproval(2).getJobId();
+		assertThrows(ApprovalQueueFullException.class, () -> service.submitCustomerOrderApproval(3));
+
+		release.countDown();
+		verify(orderService, timeout(10_000)).aproveCustomerOrder(2);
+		assertNotNull(service.getJob(queued));
+	}
+
+	@Test
+	void unknownJobIsNotFound() {
+		assertThrows(JobNotFoundException.class, () -> service.getJob("no-existe"));
+	}
+
+	private ApprovalJobDTO awaitNotification() {
+		ArgumentCaptor<ApprovalJobDTO> captor = ArgumentCaptor.forClass(ApprovalJobDTO.class);
+		verify(alertWebSocketService, timeout(10_000)).sendOrderJobStatus(captor.capture());
+		return captor.getValue();
+	}
+
+	private static ThreadPoolTaskExecutor executor(int workers, int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(workers);
+		executor.setMaxPoolSize(workers);
+		executor.setQueueCapacity(queueCapacity);
+		executor.initialize();
+		return executor;
+	}
+}
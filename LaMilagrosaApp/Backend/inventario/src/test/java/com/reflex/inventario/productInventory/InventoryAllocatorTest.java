@@ -0,0 +1,46 @@
+package com.reflex.inventario.productInventory;
+
+import com.reflex.inventario.handler.exceptions.InventoryNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InventoryAllocatorTest {
+
+	private final InventoryAllocator allocator = new InventoryAllocator();
+
+	private final List<InventoryLot> lots = List.of(
+			new InventoryLot(1, 10, 5, LocalDate.of(2030, 1, 1)),
+			new InventoryLot(2, 10, 8, LocalDate.of(2030, 2, 1)),
+			new InventoryLot(3, 10, 20, LocalDate.of(2030, 3, 1)));
+
+	@Test
+	void takesFromFirstExpiringLotWhenItIsEnough() {
+		List<InventoryAllocation> allocations = allocator.allocate(10, "Queso", 4, lots);
+
+		assertEquals(1, allocations.size());
+		assertEquals(1, allocations.get(0).getInventoryId());
+		assertEquals(4, allocations.get(0).getQuantity());
+	}
+
+	@Test
+	void splitsLineAcrossLotsInExpirationOrder() {
+		List<InventoryAllocation> allocations = allocator.allocate(10, "Queso", 15, lots);
+
+		assertEquals(3, allocations.size());
+		assertEquals(5, allocations.get(0).getQuantity());
+		assertEquals(8, allocations.get(1).getQuantity());
+		assertEquals(2, allocations.get(2).getQuantity());
+		assertEquals(3, allocations.get(2).getInventoryId());
+	}
+
+	@Test
+	void failsWhenLotsTogetherDoNotHoldEnough() {
+		assertThrows(InventoryNotFoundException.class, () -> allocator.allocate(10, "Queso", 34, lots));
+	}
+
+}
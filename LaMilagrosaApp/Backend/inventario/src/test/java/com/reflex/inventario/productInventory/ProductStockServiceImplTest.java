@@ -0,0 +1,130 @@
+package com.reflex.inventario.productInventory;
+
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.product.ProductRepository;
+import com.reflex.inventario.productInventory.dto.ProductStockResDTO;
+import com.reflex.inventario.productInventory.service.ProductStockService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductStockServiceImplTest {
+
+	@Autowired
+	private ProductStockService productStockService;
+	@Autowired
+	private ProductRepository productRepository;
+	@Autowired
+	private ProductInvetoryRepository productInvetoryRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void upsertCreatesTheRowAndThenAddsToIt() {
+		Product product = product();
+		LocalDate far = LocalDate.now().plusDays(60);
+		LocalDate soon = LocalDate.now().plusDays(3);
+
+		productStockService.addUnits(product.getCode(), 10, far);
+		productStockService.addUnits(product.getCode(), 4, soon);
+
+		ProductStockResDTO stock = productStockService.getStock(product.getCode());
+		assertEquals(14, stock.getTotalUnits());
+		assertEquals(4, stock.getExpiringUnits());
+		assertEquals(soon, stock.getEarliestExpiration());
+	}
+
+	@Test
+	void removingAllocationsRecomputesEarliestExpirationFromLots() {
+		Product product = product();
+		ProductInventory first = lot(product, 5, LocalDate.now().plusDays(20));
+		ProductInventory second = lot(product, 5, LocalDate.now().plusDays(40));
+		productStockService.addLots(List.of(first, second));
+
+		jdbcTemplate.update("UPDATE product_inventory SET stock = 0 WHERE id = ?", first.getId());
+		productStockService.removeAllocations(List.of(new InventoryAllocation(first.getId(), product.getCode(), 5, first.getExpirationDate())));
+
+		ProductStockResDTO stock = productStockService.getStock(product.getCode());
+		assertEquals(5, stock.getTotalUnits());
+		assertEquals(second.getExpirationDate(), stock.getEarliestExpiration());
+	}
+
+	@Test
+	void reconcileRebuildsDriftedAndMissingRows() {
+		Product drifted = product();
+		Product missing = product();
+		Product empty = product();
+		productStockService.addLots(List.of(lot(drifted, 8, LocalDate.now().plusDays(2))));
+		lot(missing, 3, LocalDate.now().plusDays(30));
+		jdbcTemplate.update("UPDATE product_stock SET total_units = 99 WHERE product_code = ?", drifted.getCode());
+
+		productStockService.reconcile();
+
+		assertEquals(8, productStockService.getStock(drifted.getCode()).getTotalUnits());
+		assertEquals(8, productStockService.getStock(drifted.getCode()).getExpiringUnits());
+		assertEquals(3, productStockService.getStock(missing.getCode()).getTotalUnits());
+		assertEquals(0, productStockService.getStock(empty.getCode()).getTotalUnits());
+		assertNull(productStockService.getStock(empty.getCode()).getEarliestExpiration());
+		assertEquals(0, productStockService.reconcile());
+	}
+
+	@Test
+	void reconcileDoesNotLoseConcurrentMovements() throws Exception {
+		Product product = product();
+		Product drifted = product();
+		LocalDate expiration = LocalDate.now().plusDays(90);
+		productStockService.addLots(List.of(lot(product, 1, expiration), lot(drifted, 1, expiration)));
+
+		//Cada movimiento crea su lote y suma al resumen en la misma transacción, como lo hace el servicio de inventario.
+		//Otro producto se descuadra antes de cada cuadre para que este reescriba el resumen completo
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < 400; i++) {
+			futures.add(pool.submit(() -> transactionTemplate.executeWithoutResult(status ->
+					productStockService.addLots(List.of(lot(product, 1, expiration))))));
+			if (i % 20 == 0) {
+				futures.add(pool.submit(() -> {
+					jdbcTemplate.update("UPDATE product_stock SET total_units = 0 WHERE product_code = ?", drifted.getCode());
+					return productStockService.reconcile();
+				}));
+			}
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		pool.shutdown();
+
+		assertEquals(401, productStockService.getStock(product.getCode()).getTotalUnits());
+		assertEquals(0, productStockService.reconcile());
+	}
+
+	private Product product() {
+		return productRepository.save(Product.builder().name("Producto").price(BigDecimal.ONE).build());
+	}
+
+	private ProductInventory lot(Product product, int stock, LocalDate expirationDate) {
+		return productInvetoryRepository.save(ProductInventory.builder()
+				.product(product)
+				.stock(stock)
+				.expirationDate(expirationDate)
+				.build());
+	}
+}
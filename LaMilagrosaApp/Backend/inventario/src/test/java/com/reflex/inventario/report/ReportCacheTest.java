@@ -0,0 +1,72 @@
+package com.reflex.inventario.report;
+
+import com.reflex.inventario.order.OrderChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReportCacheTest {
+
+	private final LocalDate from = LocalDate.of(2024, 1, 1);
+	private final LocalDate to = LocalDate.of(2024, 1, 31);
+
+	@Test
+	void returnsCachedSummaryUntilAnOrderChangesInsideTheRange() {
+		ReportCache cache = new ReportCache(10, 1, 1, 5, 24);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.get(ReportCache.Kind.RESUMEN, from, to, loads::incrementAndGet);
+		cache.get(ReportCache.Kind.RESUMEN, from, to, loads::incrementAndGet);
+		cache.onOrderChanged(new OrderChangedEvent(Set.of(LocalDate.of(2024, 2, 10))));
+		cache.get(ReportCache.Kind.RESUMEN, from, to, loads::incrementAndGet);
+		assertEquals(1, loads.get());
+
+		cache.onOrderChanged(new OrderChangedEvent(Set.of(LocalDate.of(2024, 1, 15))));
+		cache.get(ReportCache.Kind.RESUMEN, from, to, loads::incrementAndGet);
+		assertEquals(2, loads.get());
+
+		ReportCacheStatsDTO stats = cache.stats();
+		assertEquals(2, stats.getHits());
+		assertEquals(2, stats.getMisses());
+		assertEquals(1, stats.getInvalidations());
+	}
+
+	@Test
+	void servesPdfBytesFromCacheOnSecondDownload() throws IOException {
+		ReportCache cache = new ReportCache(10, 1, 1, 5, 24);
+		AtomicInteger generated = new AtomicInteger();
+		ReportCache.PdfGenerator generator = out -> {
+			generated.incrementAndGet();
+			out.write(new byte[]{1, 2, 3});
+		};
+
+		ByteArrayOutputStream first = new ByteArrayOutputStream();
+		ByteArrayOutputStream second = new ByteArrayOutputStream();
+		cache.writePdf(ReportCache.Kind.VENTAS, from, to, first, generator);
+		cache.writePdf(ReportCache.Kind.VENTAS, from, to, second, generator);
+
+		assertEquals(1, generated.get());
+		assertArrayEquals(first.toByteArray(), second.toByteArray());
+		assertEquals(3, cache.stats().getBytes());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedEntryWhenFull() {
+		ReportCache cache = new ReportCache(2, 1, 1, 5, 24);
+
+		cache.get(ReportCache.Kind.RESUMEN, from, to, () -> "enero");
+		cache.get(ReportCache.Kind.RESUMEN, from.plusMonths(1), to.plusMonths(1), () -> "febrero");
+		cache.get(ReportCache.Kind.RESUMEN, from, to, () -> "enero");
+		cache.get(ReportCache.Kind.RESUMEN, from.plusMonths(2), to.plusMonths(2), () -> "marzo");
+
+		assertEquals("enero", cache.get(ReportCache.Kind.RESUMEN, from, to, () -> "recalculado"));
+		assertEquals(1, cache.stats().getEvictions());
+	}
+}
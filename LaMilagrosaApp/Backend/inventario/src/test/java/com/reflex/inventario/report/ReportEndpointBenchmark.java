@@ -0,0 +1,148 @@
+package com.reflex.inventario.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.reflex.inventario.datagen.DataGenResult;
+import com.reflex.inventario.datagen.DataGenSpec;
+import com.reflex.inventario.datagen.DataGenerator;
+import com.reflex.inventario.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Mide de punta a punta (HTTP, seguridad, consultas y PDF) los reportes sobre H2 con datos generados.
+//No corre con el resto de las pruebas; se lanza a mano y deja un JSON en target/benchmarks:
+//mvn test -Dtest=ReportEndpointBenchmark -Dbenchmark.sizes=1000,10000,100000 -Dbenchmark.label=$(git rev-parse --short HEAD)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"benchmark", "datagen"})
+class ReportEndpointBenchmark {
+
+	private static final List<String> ENDPOINTS = List.of(
+			"/reportes/ventas",
+			"/reportes/ventas?paralelo=true",
+			"/reportes/compras",
+			"/reportes/resumen");
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private DataGenerator dataGenerator;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private JwtService jwtService;
+	@Autowired
+	private UserDetailsService userDetailsService;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@Test
+	void benchmarkReports() throws Exception {
+		int[] sizes = Arrays.stream(System.getProperty("benchmark.sizes", "1000,10000").split(","))
+				.map(String::trim)
+				.mapToInt(Integer::parseInt)
+				.toArray();
+		int warmup = Integer.getInteger("benchmark.warmup", 1);
+		int runs = Integer.getInteger("benchmark.runs", 5);
+
+		List<Measurement> measurements = new ArrayList<>();
+		List<DataGenResult> datasets = new ArrayList<>();
+		for (int size : sizes) {
+			dataGenerator.clear();
+			DataGenResult data = dataGenerator.generate(DataGenSpec.builder()
+					.products(Math.max(100, size / 50))
+					.categories(20)
+					.lotsPerProduct(3)
+					.users(10)
+					.providers(20)
+					.customerOrders(size)
+					.purchaseOrders(Math.max(1, size / 4))
+					.linesPerOrder(5)
+					.days(365)
+					.seed(42)
+					.batchSize(1000)
+					.build());
+			datasets.add(data);
+			String token = token();
+
+			for (String endpoint : ENDPOINTS) {
+				String url = "http://localhost:" + port + "/api/v1" + endpoint
+						+ (endpoint.contains("?") ? "&" : "?") + "from=" + data.getFrom() + "&to=" + data.getTo();
+				for (int i = 0; i < warmup; i++) {
+					call(url, token);
+				}
+				long[] millis = new long[runs];
+				long bytes = 0;
+				for (int i = 0; i < runs; i++) {
+					long started = System.nanoTime();
+					bytes = call(url, token);
+					millis[i] = (System.nanoTime() - started) / 1_000_000;
+				}
+				Arrays.sort(millis);
+				measurements.add(new Measurement(size, data.getLines(), endpoint, runs,
+						millis[0], millis[runs / 2], millis[Math.min(runs - 1, (int) Math.ceil(runs * 0.95) - 1)],
+						millis[runs - 1], bytes));
+			}
+		}
+
+		Path dir = Path.of("target", "benchmarks");
+		Files.createDirectories(dir);
+		Path file = dir.resolve("reportes-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+		new ObjectMapper().findAndRegisterModules()
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.enable(SerializationFeature.INDENT_OUTPUT)
+				.writeValue(file.toFile(), new Report(System.getProperty("benchmark.label", "local"),
+						LocalDateTime.now().toString(), System.getProperty("java.version"),
+						Runtime.getRuntime().availableProcessors(), "h2", datasets, measurements));
+		System.out.println("Resultados en " + file.toAbsolutePath());
+	}
+
+	private String token() {
+		String email = jdbcTemplate.queryForObject(
+				"SELECT email FROM _user WHERE email LIKE '%@datagen.local' ORDER BY id LIMIT 1", String.class);
+		return jwtService.generateToken(userDetailsService.loadUserByUsername(email));
+	}
+
+	//Lee la respuesta completa (tiempo hasta el último byte) sin guardarla
+	private long call(String url, String token) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+				.header("Authorization", "Bearer " + token)
+				.GET()
+				.build();
+		HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+		try (InputStream body = response.body()) {
+			long bytes = body.transferTo(OutputStream.nullOutputStream());
+			assertEquals(200, response.statusCode(), url);
+			return bytes;
+		}
+	}
+
+	record Measurement(int orders, long lines, String endpoint, int runs,
+					   long minMs, long medianMs, long p95Ms, long maxMs, long bytes) {
+	}
+
+	record Report(String label, String executedAt, String javaVersion, int cpus, String database,
+				  List<DataGenResult> datasets, List<Measurement> measurements) {
+	}
+}
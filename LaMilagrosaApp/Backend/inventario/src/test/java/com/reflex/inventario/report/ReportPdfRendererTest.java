@@ -0,0 +1,108 @@
+package com.reflex.inventario.report;
+
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import com.reflex.inventario.order.dto.ReportLineRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportPdfRendererTest {
+
+	private final ReportPdfRenderer renderer = new ReportPdfRenderer();
+	private final ForkJoinPool pool = new ForkJoinPool(3);
+	private final ReportPdfRenderer.ReportHeader header =
+			new ReportPdfRenderer.ReportHeader("Reporte de Ventas", "Total órdenes: ", "Total global ventas: ");
+	private final LocalDate from = LocalDate.of(2024, 1, 1);
+	private final LocalDate to = LocalDate.of(2024, 1, 31);
+
+	@AfterEach
+	void shutdown() {
+		pool.shutdown();
+	}
+
+	@Test
+	void parallelOutputHasSameTextAsSequential() throws IOException {
+		List<List<ReportOrderBlock>> chunks = chunks(7, 40);
+
+		ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+		ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+		renderer.render(header, from, to, 280, chunks.iterator(), sequential);
+		renderer.renderParallel(header, from, to, 280, chunks.iterator(), pool, parallel);
+
+		List<String> lines = lines(sequential.toByteArray());
+		List<String> parallelLines = lines(parallel.toByteArray());
+		assertTrue(lines.stream().anyMatch(line -> line.startsWith("Total global ventas:")));
+		//Las órdenes salen en el orden del documento: #1 a #280, sin segmentos intercambiados
+		List<String> orders = orderLines(lines);
+		assertEquals(280, orders.size());
+		for (int i = 0; i < orders.size(); i++) {
+			assertTrue(orders.get(i).startsWith("Orden #" + (i + 1) + " "), orders.get(i));
+		}
+		assertEquals(orders, orderLines(parallelLines));
+		//El resto del texto se compara como multiconjunto: el paginado cambia entre modos (cada segmento empieza
+		//en página nueva) y el extractor reordena párrafos y tablas dentro de cada página
+		assertEquals(sorted(lines), sorted(parallelLines));
+	}
+
+	@Test
+	void parallelModeWritesHeaderAndTotalWhenThereAreNoOrders() throws IOException {
+		ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+		renderer.renderParallel(header, from, to, 0, List.<List<ReportOrderBlock>>of().iterator(), pool, parallel);
+
+		List<String> lines = lines(parallel.toByteArray());
+		assertTrue(lines.contains("Total órdenes: 0"));
+		assertTrue(lines.contains("Total global ventas: $0.00"));
+	}
+
+	private List<List<ReportOrderBlock>> chunks(int count, int ordersPerChunk) {
+		List<List<ReportOrderBlock>> chunks = new ArrayList<>();
+		int number = 1;
+		for (int c = 0; c < count; c++) {
+			List<ReportOrderBlock> chunk = new ArrayList<>();
+			for (int o = 0; o < ordersPerChunk; o++, number++) {
+				List<ReportLineRow> lines = List.of(
+						new ReportLineRow(number, "Queso", 2, new BigDecimal("3.50")),
+						new ReportLineRow(number, "Leche", number % 5 + 1, new BigDecimal("1.25")));
+				chunk.add(ReportOrderBlock.of(number, LocalDateTime.of(2024, 1, 1, 8, 0).plusMinutes(number), lines));
+			}
+			chunks.add(chunk);
+		}
+		return chunks;
+	}
+
+	private static List<String> orderLines(List<String> lines) {
+		return lines.stream().filter(line -> line.startsWith("Orden #")).toList();
+	}
+
+	private static List<String> sorted(List<String> lines) {
+		return lines.stream().sorted().toList();
+	}
+
+	//Líneas de texto en el orden del documento, página por página
+	private List<String> lines(byte[] pdf) throws IOException {
+		PdfReader reader = new PdfReader(pdf);
+		PdfTextExtractor extractor = new PdfTextExtractor(reader);
+		List<String> lines = new ArrayList<>();
+		for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+			for (String line : extractor.getTextFromPage(page).split("\n")) {
+				if (!line.isBlank()) {
+					lines.add(line.replaceAll("\\s+", " ").trim());
+				}
+			}
+		}
+		reader.close();
+		return lines;
+	}
+}
@@ -0,0 +1,90 @@
+package com.reflex.inventario.report;
+
+import com.reflex.inventario.order.dto.ReportLineRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+//PDF de ventas impreso de corrido (threads = 0) contra por segmentos en paralelo con 1, 2, 4 y 8 hilos en el pool.
+//La aceleración por núcleos es el tiempo con threads = 0 dividido por el de cada fila (sin E/S ni base de datos).
+//mvn -Pbenchmark clean test-compile exec:exec -Dbenchmark=ReportRenderBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ReportRenderBenchmark {
+
+	private static final int CHUNK_SIZE = 200;//el de ReportService
+
+	@Param({"20000"})
+	private int orders;
+
+	@Param({"0", "1", "2", "4", "8"})
+	private int threads;
+
+	private final ReportPdfRenderer renderer = new ReportPdfRenderer();
+	private final ReportPdfRenderer.ReportHeader header =
+			new ReportPdfRenderer.ReportHeader("Reporte de Ventas", "Total órdenes: ", "Total global ventas: ");
+	private final LocalDate from = LocalDate.of(2024, 1, 1);
+	private final LocalDate to = LocalDate.of(2024, 12, 31);
+	private List<List<ReportOrderBlock>> chunks;
+	private ForkJoinPool pool;
+
+	@Setup
+	public void setUp() {
+		chunks = new ArrayList<>();
+		List<ReportOrderBlock> chunk = new ArrayList<>(CHUNK_SIZE);
+		for (int number = 1; number <= orders; number++) {
+			List<ReportLineRow> lines = List.of(
+					new ReportLineRow(number, "Queso fresco", 2, new BigDecimal("3.50")),
+					new ReportLineRow(number, "Leche entera", number % 5 + 1, new BigDecimal("1.25")),
+					new ReportLineRow(number, "Pan de molde", number % 3 + 1, new BigDecimal("2.10")));
+			chunk.add(ReportOrderBlock.of(number, LocalDateTime.of(2024, 1, 1, 8, 0).plusMinutes(number), lines));
+			if (chunk.size() == CHUNK_SIZE) {
+				chunks.add(chunk);
+				chunk = new ArrayList<>(CHUNK_SIZE);
+			}
+		}
+		if (!chunk.isEmpty()) {
+			chunks.add(chunk);
+		}
+		pool = threads > 0 ? new ForkJoinPool(threads) : null;
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	@Benchmark
+	public void render() throws IOException {
+		if (pool == null) {
+			renderer.render(header, from, to, orders, chunks.iterator(), OutputStream.nullOutputStream());
+		} else {
+			renderer.renderParallel(header, from, to, orders, chunks.iterator(), pool, OutputStream.nullOutputStream());
+		}
+	}
+}
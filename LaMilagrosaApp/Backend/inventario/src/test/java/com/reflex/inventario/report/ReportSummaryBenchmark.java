@@ -0,0 +1,168 @@
+package com.reflex.inventario.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.reflex.inventario.datagen.DataGenResult;
+import com.reflex.inventario.datagen.DataGenSpec;
+import com.reflex.inventario.datagen.DataGenerator;
+import com.reflex.inventario.order.CustomerOrder;
+import com.reflex.inventario.order.CustomerOrderRepository;
+import com.reflex.inventario.order.ProductDetail;
+import com.reflex.inventario.order.PurchaseOrder;
+import com.reflex.inventario.order.PurchaseOrderRepository;
+import com.reflex.inventario.report.rollup.RollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Resumen de /reportes/resumen (conteos y montos de ventas y compras) de tres formas: el cálculo anterior en memoria
+//(todas las órdenes con sus líneas), el agregado SQL sobre el subtotal de cada orden y el resumen actual
+//(acumulados diarios + tramo reciente). Sobre H2 con datos del generador.
+//No corre con el resto de las pruebas; se lanza a mano y deja un JSON en target/benchmarks:
+//mvn test -Dtest=ReportSummaryBenchmark -Dbenchmark.orders=100000 -Dbenchmark.lines=1000000 -DargLine=-Xmx3g
+@SpringBootTest
+@ActiveProfiles({"benchmark", "datagen"})
+class ReportSummaryBenchmark {
+
+	@Autowired
+	private DataGenerator dataGenerator;
+	@Autowired
+	private ReportService reportService;
+	@Autowired
+	private RollupService rollupService;
+	@Autowired
+	private CustomerOrderRepository customerOrderRepository;
+	@Autowired
+	private PurchaseOrderRepository purchaseOrderRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void benchmarkSummary() throws Exception {
+		int orders = Integer.getInteger("benchmark.orders", 100_000);
+		int lines = Integer.getInteger("benchmark.lines", 1_000_000);
+		int runs = Integer.getInteger("benchmark.runs", 3);
+		dataGenerator.clear();
+		DataGenResult data = dataGenerator.generate(DataGenSpec.builder()
+				.products(2000)
+				.categories(20)
+				.lotsPerProduct(1)
+				.users(10)
+				.providers(20)
+				.customerOrders(orders - orders / 5)
+				.purchaseOrders(orders / 5)
+				.linesPerOrder(Math.max(1, lines / orders))
+				.days(365)
+				.seed(42)
+				.batchSize(1000)
+				.build());
+		rollupService.rollUp();
+		LocalDate from = data.getFrom();
+		LocalDate to = data.getTo();
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+
+		Supplier<ReportResumenDTO> inMemory = () -> readOnly.execute(status -> {
+			Totals ventas = sumLines(customerOrderRepository.findByCreatedAtBetween(from.atStartOfDay(), to.atTime(23, 59, 59)),
+					CustomerOrder::getProductsDetails);
+			Totals compras = sumLines(purchaseOrderRepository.findByCreatedAtBetween(from.atStartOfDay(), to.atTime(23, 59, 59)),
+					PurchaseOrder::getProductsDetails);
+			return summary(ventas, compras);
+		});
+		Supplier<ReportResumenDTO> aggregate = () -> summary(aggregate("customer_order", from, to), aggregate("purchase_order", from, to));
+		Supplier<ReportResumenDTO> current = () -> reportService.obtenerResumenEntreFechas(from, to);
+
+		ReportResumenDTO expected = inMemory.get();
+		assertSame(expected, aggregate.get());
+		assertSame(expected, current.get());
+		List<Measurement> measurements = List.of(
+				measure("en-memoria", runs, inMemory),
+				measure("agregado-sql", runs, aggregate),
+				measure("acumulados", runs, current));
+
+		Path dir = Path.of("target", "benchmarks");
+		Files.createDirectories(dir);
+		Path file = dir.resolve("resumen-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+		new ObjectMapper().findAndRegisterModules()
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.enable(SerializationFeature.INDENT_OUTPUT)
+				.writeValue(file.toFile(), new Report(System.getProperty("benchmark.label", "local"),
+						LocalDateTime.now().toString(), System.getProperty("java.version"),
+						Runtime.getRuntime().availableProcessors(), "h2", data, measurements));
+		measurements.forEach(System.out::println);
+		System.out.println("Resultados en " + file.toAbsolutePath());
+	}
+
+	private static <T> Totals sumLines(List<T> orders, Function<T, Set<ProductDetail>> details) {
+		BigDecimal amount = orders.stream()
+				.flatMap(order -> details.apply(order).stream())
+				.map(detail -> detail.getUnitPrice().multiply(BigDecimal.valueOf(detail.getQuantity())))
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+		return new Totals(orders.size(), amount);
+	}
+
+	private Totals aggregate(String table, LocalDate from, LocalDate to) {
+		return jdbcTemplate.queryForObject("""
+				SELECT COUNT(*), COALESCE(SUM(subtotal), 0) FROM %s WHERE created_at >= ? AND created_at < ?
+				""".formatted(table), (rs, i) -> new Totals(rs.getLong(1), rs.getBigDecimal(2)),
+				Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+	}
+
+	private static ReportResumenDTO summary(Totals ventas, Totals compras) {
+		return ReportResumenDTO.builder()
+				.totalVentas(ventas.count())
+				.totalCompras(compras.count())
+				.montoVentas(ventas.amount())
+				.montoCompras(compras.amount())
+				.build();
+	}
+
+	private static void assertSame(ReportResumenDTO expected, ReportResumenDTO actual) {
+		assertEquals(expected.getTotalVentas(), actual.getTotalVentas());
+		assertEquals(expected.getTotalCompras(), actual.getTotalCompras());
+		assertEquals(0, expected.getMontoVentas().compareTo(actual.getMontoVentas()));
+		assertEquals(0, expected.getMontoCompras().compareTo(actual.getMontoCompras()));
+	}
+
+	private Measurement measure(String mode, int runs, Supplier<ReportResumenDTO> summary) {
+		double[] millis = new double[runs];
+		for (int i = 0; i < runs; i++) {
+			long started = System.nanoTime();
+			summary.get();
+			millis[i] = (System.nanoTime() - started) / 1_000_000.0;
+		}
+		Arrays.sort(millis);
+		return new Measurement(mode, runs, millis[0], millis[runs / 2], millis[runs - 1]);
+	}
+
+	private record Totals(long count, BigDecimal amount) {
+	}
+
+	record Measurement(String mode, int runs, double minMs, double medianMs, double maxMs) {
+	}
+
+	record Report(String label, String executedAt, String javaVersion, int cpus, String database,
+				  DataGenResult dataset, List<Measurement> measurements) {
+	}
+}
@@ -0,0 +1,175 @@
+package com.reflex.inventario.report;
+
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import com.reflex.inventario.TestData;
+import com.reflex.inventario.order.CustomerOrder;
+import com.reflex.inventario.order.CustomerOrderRepository;
+import com.reflex.inventario.order.ProductDetail;
+import com.reflex.inventario.order.PurchaseOrder;
+import com.reflex.inventario.order.PurchaseOrderRepository;
+import com.reflex.inventario.order.dto.OrderReqDTO;
+import com.reflex.inventario.order.service.OrderService;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.provider.Provider;
+import com.reflex.inventario.report.rollup.RollupService;
+import com.reflex.inventario.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//El resumen por agregados SQL (acumulados + tramo reciente) da lo mismo que el cálculo anterior en memoria:
+//cargar las órdenes del rango y sumar precio * cantidad de cada línea
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ReportSummaryTest {
+
+	private static final LocalDate FROM = LocalDate.of(2003, 5, 2);
+
+	@Autowired
+	private TestData testData;
+	@Autowired
+	private OrderService orderService;
+	@Autowired
+	private ReportService reportService;
+	@Autowired
+	private RollupService rollupService;
+	@Autowired
+	private CustomerOrderRepository customerOrderRepository;
+	@Autowired
+	private PurchaseOrderRepository purchaseOrderRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void aggregateSummaryMatchesTheInMemorySum() {
+		User user = testData.user();
+		Provider provider = testData.provider();
+		Product cheap = testData.product("1.10");
+		Product expensive = testData.product("2499.99");
+		LocalDate today = LocalDate.now();
+		//Un día antes del rango, días ya acumulados y órdenes de hoy que se leen sin acumular
+		for (LocalDate day : List.of(FROM.minusDays(1), FROM, FROM.plusDays(1), FROM.plusDays(40), today)) {
+			sale(user, Map.of(cheap, 3, expensive, 1), day);
+			sale(user, Map.of(cheap, 7), day);
+			purchase(user, provider, Map.of(expensive, 2), day);
+		}
+		//Un cambio de precio posterior no altera lo ya vendido
+		jdbcTemplate.update("UPDATE product SET price = 99 WHERE code = ?", cheap.getCode());
+		rollupService.rollUp();
+		rollupService.rebuild(FROM.minusDays(1), today);
+
+		ReportResumenDTO summary = reportService.obtenerResumenEntreFechas(FROM, today);
+		InMemory sales = transactionTemplate.execute(status -> inMemory(customerOrderRepository.findByCreatedAtBetween(
+				FROM.atStartOfDay(), today.atTime(23, 59)), CustomerOrder::getProductsDetails));
+		InMemory purchases = transactionTemplate.execute(status -> inMemory(purchaseOrderRepository.findByCreatedAtBetween(
+				FROM.atStartOfDay(), today.atTime(23, 59)), PurchaseOrder::getProductsDetails));
+
+		assertEquals(sales.count(), summary.getTotalVentas());
+		assertEquals(purchases.count(), summary.getTotalCompras());
+		assertEquals(0, sales.amount().compareTo(summary.getMontoVentas()), summary.getMontoVentas() + " vs " + sales.amount());
+		assertEquals(0, purchases.amount().compareTo(summary.getMontoCompras()), summary.getMontoCompras() + " vs " + purchases.amount());
+	}
+
+	@Test
+	void emptyRangeIsZero() {
+		ReportResumenDTO summary = reportService.obtenerResumenEntreFechas(LocalDate.of(1990, 1, 1), LocalDate.of(1990, 1, 31));
+
+		assertEquals(0, summary.getTotalVentas());
+		assertEquals(0, summary.getTotalCompras());
+		assertEquals(0, BigDecimal.ZERO.compareTo(summary.getMontoVentas()));
+		assertEquals(0, BigDecimal.ZERO.compareTo(summary.getMontoCompras()));
+	}
+
+	@Test
+	void pdfReportsIncludeTheLastMinuteOfTheDay() throws IOException {
+		LocalDate day = LocalDate.of(2003, 8, 10);
+		User user = testData.user();
+		Provider provider = testData.provider();
+		Product product = testData.product("4.00");
+		//23:59:30 entra en el día; las 00:00 del día siguiente no
+		for (LocalDateTime createdAt : List.of(day.atTime(23, 59, 30), day.plusDays(1).atStartOfDay())) {
+			sale(user, Map.of(product, 1), createdAt);
+			purchase(user, provider, Map.of(product, 1), createdAt);
+		}
+
+		ByteArrayOutputStream sales = new ByteArrayOutputStream();
+		ByteArrayOutputStream purchases = new ByteArrayOutputStream();
+		reportService.generateSalesReport(day, day, false, sales);
+		reportService.generatePurchaseReport(day, day, false, purchases);
+
+		assertTrue(lines(sales.toByteArray()).contains("Total órdenes: 1"));
+		assertTrue(lines(purchases.toByteArray()).contains("Total compras: 1"));
+	}
+
+	private static <T> InMemory inMemory(List<T> orders, Function<T, Set<ProductDetail>> details) {
+		BigDecimal amount = orders.stream()
+				.flatMap(order -> details.apply(order).stream())
+				.map(detail -> detail.getUnitPrice().multiply(BigDecimal.valueOf(detail.getQuantity())))
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+		return new InMemory(orders.size(), amount);
+	}
+
+	private void sale(User user, Map<Product, Integer> lines, LocalDate day) {
+		sale(user, lines, noon(day));
+	}
+
+	private void sale(User user, Map<Product, Integer> lines, LocalDateTime createdAt) {
+		Integer number = orderService.addCustomerOrder(user.getEmail(), testData.order(lines)).getNumber();
+		jdbcTemplate.update("UPDATE customer_order SET created_at = ? WHERE number = ?", Timestamp.valueOf(createdAt), number);
+	}
+
+	private void purchase(User user, Provider provider, Map<Product, Integer> lines, LocalDate day) {
+		purchase(user, provider, lines, noon(day));
+	}
+
+	private void purchase(User user, Provider provider, Map<Product, Integer> lines, LocalDateTime createdAt) {
+		OrderReqDTO order = testData.order(lines);
+		order.setProviderId(provider.getId());
+		Integer number = orderService.addPurchaseOrder(user.getEmail(), order).getNumber();
+		jdbcTemplate.update("UPDATE purchase_order SET created_at = ? WHERE number = ?", Timestamp.valueOf(createdAt), number);
+	}
+
+	private static List<String> lines(byte[] pdf) throws IOException {
+		PdfReader reader = new PdfReader(pdf);
+		PdfTextExtractor extractor = new PdfTextExtractor(reader);
+		List<String> lines = new ArrayList<>();
+		for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+			for (String line : extractor.getTextFromPage(page).split("\n")) {
+				lines.add(line.replaceAll("\\s+", " ").trim());
+			}
+		}
+		reader.close();
+		return lines;
+	}
+
+	//Las de hoy quedan al inicio del día: el mediodía podría estar todavía en el futuro
+	private static LocalDateTime noon(LocalDate day) {
+		return day.equals(LocalDate.now()) ? day.atStartOfDay() : day.atTime(12, 0);
+	}
+
+	private record InMemory(long count, BigDecimal amount) {
+	}
+}
@@ -0,0 +1,218 @@
+package com.reflex.inventario.report.analytics;
+
+import com.reflex.inventario.TestData;
+import com.reflex.inventario.category.Category;
+import com.reflex.inventario.category.CategoryRepository;
+import com.reflex.inventario.handler.exceptions.InvalidReportParameterException;
+import com.reflex.inventario.order.service.OrderService;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.product.dto.ProductReqDTO;
+import com.reflex.inventario.product.service.ProductService;
+import com.reflex.inventario.report.rollup.RollupService;
+import com.reflex.inventario.user.User;
+import com.reflex.inventario.user.dto.UserReqDTO;
+import com.reflex.inventario.user.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+//Top de productos, ventas por categoría y por empleado sobre días ya acumulados (rangos cerrados, que el caché guarda más tiempo).
+//Cada prueba usa su propio día (año 2007) para que el ranking solo tenga sus ventas
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class AnalyticsServiceTest {
+
+	@Autowired
+	private TestData testData;
+	@Autowired
+	private AnalyticsService analyticsService;
+	@Autowired
+	private RollupService rollupService;
+	@Autowired
+	private OrderService orderService;
+	@Autowired
+	private ProductService productService;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private CategoryRepository categoryRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void topProductsOrdersByTheMetricAndKeepsTheLimit() {
+		LocalDate day = LocalDate.of(2007, 2, 3);
+		User user = testData.user();
+		Product many = testData.product("1.00");
+		Product expensive = testData.product("50.00");
+		Product middle = testData.product("4.00");
+		Product tied = testData.product("2.00");
+		sale(user, Map.of(many, 10, expensive, 2), day);
+		sale(user, Map.of(middle, 5, tied, 5), day);
+		rollUp(day);
+
+		List<TopProductDTO> byUnits = analyticsService.topProducts(day, day, AnalyticsMetric.UNIDADES, 3);
+		List<TopProductDTO> byAmount = analyticsService.topProducts(day, day, AnalyticsMetric.INGRESOS, 2);
+
+		assertEquals(List.of(many.getCode(), middle.getCode(), tied.getCode()), codes(byUnits));
+		assertEquals(List.of(1L, 2L, 2L), byUnits.stream().map(TopProductDTO::getUnitsRank).toList());//empate en 5 unidades
+		assertEquals(List.of(expensive.getCode(), middle.getCode()), codes(byAmount));
+		TopProductDTO top = byAmount.get(0);
+		assertEquals(2, top.getUnits());
+		assertEquals(0, new BigDecimal("100.00").compareTo(top.getAmount()));
+		assertEquals(4, top.getUnitsRank());
+		assertEquals(1, top.getAmountRank());
+		//100 de 140 vendidos
+		assertEquals(0, new BigDecimal("71.43").compareTo(top.getAmountShare()));
+	}
+
+	@Test
+	void deletedProductStaysInTheTopWithItsRolledName() {
+		LocalDate day = LocalDate.of(2007, 2, 10);
+		User user = testData.user();
+		Product kept = testData.product("3.00");
+		Product deleted = testData.product("5.00");
+		sale(user, Map.of(kept, 1, deleted, 4), day);
+		rollUp(day);
+
+		productService.deleteProduct(deleted.getCode());
+
+		List<TopProductDTO> top = analyticsService.topProducts(day, day, AnalyticsMetric.INGRESOS, 5);
+		assertEquals(List.of(deleted.getCode(), kept.getCode()), codes(top));
+		assertEquals(deleted.getName(), top.get(0).getProductName());
+		assertEquals(0, new BigDecimal("20.00").compareTo(top.get(0).getAmount()));
+	}
+
+	@Test
+	void limitOutsideTheAllowedRangeIsRejected() {
+		LocalDate day = LocalDate.of(2007, 2, 3);
+		assertThrows(InvalidReportParameterException.class, () -> analyticsService.topProducts(day, day, AnalyticsMetric.UNIDADES, 0));
+		assertThrows(InvalidReportParameterException.class, () -> analyticsService.topProducts(day, day, AnalyticsMetric.UNIDADES, 101));
+		assertThrows(InvalidReportParameterException.class, () -> analyticsService.topProducts(day, day.minusDays(1), AnalyticsMetric.UNIDADES, 5));
+	}
+
+	@Test
+	void productWithSeveralCategoriesCountsOnceAndSharesAddUpTo100() {
+		LocalDate day = LocalDate.of(2007, 3, 3);
+		User user = testData.user();
+		Category first = category("Lácteos");
+		Category second = category("Ofertas");
+		Product both = testData.product("30.00");
+		Product onlySecond = testData.product("10.00");
+		Product none = testData.product("60.00");
+		link(both, first);
+		link(both, second);
+		link(onlySecond, second);
+		sale(user, Map.of(both, 1, onlySecond, 1, none, 1), day);
+		rollUp(day);
+
+		List<CategorySalesDTO> categories = analyticsService.salesByCategory(day, day);
+
+		assertEquals(3, categories.size());
+		CategorySalesDTO withoutCategory = categories.get(0);
+		assertEquals(null, withoutCategory.getCategoryId());
+		assertEquals(0, new BigDecimal("60.00").compareTo(withoutCategory.getAmount()));
+		//El producto con dos categorías suma solo en la de menor id
+		assertEquals(first.getId(), categories.get(1).getCategoryId());
+		assertEquals(1, categories.get(1).getProductCount());
+		assertEquals(0, new BigDecimal("30.00").compareTo(categories.get(1).getAmount()));
+		assertEquals(second.getId(), categories.get(2).getCategoryId());
+		assertEquals(1, categories.get(2).getProductCount());
+		assertEquals(0, new BigDecimal("100").compareTo(categories.stream()
+				.map(CategorySalesDTO::getAmountShare)
+				.reduce(BigDecimal.ZERO, BigDecimal::add)));
+	}
+
+	@Test
+	void renamingAProductRefreshesCachedClosedRanges() {
+		LocalDate day = LocalDate.of(2007, 4, 3);
+		User user = testData.user();
+		Product product = testData.product("8.00");
+		sale(user, Map.of(product, 1), day);
+		rollUp(day);
+		assertEquals(product.getName(), analyticsService.topProducts(day, day, AnalyticsMetric.UNIDADES, 5).get(0).getProductName());
+
+		productService.updateProduct(product.getCode(), ProductReqDTO.builder()
+				.name("Renombrado")
+				.price(product.getPrice())
+				.build());
+
+		assertEquals("Renombrado", analyticsService.topProducts(day, day, AnalyticsMetric.UNIDADES, 5).get(0).getProductName());
+	}
+
+	@Test
+	void reassigningACategoryRefreshesCachedClosedRanges() {
+		LocalDate day = LocalDate.of(2007, 5, 3);
+		User user = testData.user();
+		Category before = category("Antes");
+		Category after = category("Después");
+		Product product = testData.product("8.00");
+		link(product, before);
+		sale(user, Map.of(product, 1), day);
+		rollUp(day);
+		assertEquals(List.of(before.getId()), categoryIds(analyticsService.salesByCategory(day, day)));
+
+		productService.updateProduct(product.getCode(), ProductReqDTO.builder()
+				.name(product.getName())
+				.price(product.getPrice())
+				.categoryId(after.getId())
+				.build());
+
+		assertEquals(List.of(after.getId()), categoryIds(analyticsService.salesByCategory(day, day)));
+	}
+
+	@Test
+	void renamingAnEmployeeRefreshesCachedClosedRanges() {
+		LocalDate day = LocalDate.of(2007, 6, 3);
+		User user = testData.user();
+		sale(user, Map.of(testData.product("8.00"), 1), day);
+		assertEquals(user.getNombre(), analyticsService.salesByEmployee(day, day, 5).get(0).getUserName());
+
+		userService.updateUser(user.getId(), UserReqDTO.builder()
+				.nombre("Renombrado")
+				.email(user.getEmail())
+				.build());
+
+		assertEquals("Renombrado", analyticsService.salesByEmployee(day, day, 5).get(0).getUserName());
+	}
+
+	private void sale(User user, Map<Product, Integer> lines, LocalDate day) {
+		Integer number = orderService.addCustomerOrder(user.getEmail(), testData.order(lines)).getNumber();
+		jdbcTemplate.update("UPDATE customer_order SET created_at = ? WHERE number = ?", Timestamp.valueOf(day.atTime(12, 0)), number);
+	}
+
+	//La marca de agua puede venir de otra clase de prueba que ya acumuló estos días
+	private void rollUp(LocalDate day) {
+		rollupService.rollUp();
+		rollupService.rebuild(day, day);
+	}
+
+	private Category category(String name) {
+		return categoryRepository.save(Category.builder().name(name).build());
+	}
+
+	private void link(Product product, Category category) {
+		jdbcTemplate.update("INSERT INTO product_category (product_code, category_id) VALUES (?, ?)", product.getCode(), category.getId());
+	}
+
+	private static List<Integer> codes(List<TopProductDTO> rows) {
+		return rows.stream().map(TopProductDTO::getProductCode).toList();
+	}
+
+	private static List<Integer> categoryIds(List<CategorySalesDTO> rows) {
+		return rows.stream().map(CategorySalesDTO::getCategoryId).toList();
+	}
+}
@@ -0,0 +1,184 @@
+package com.reflex.inventario.report.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reflex.inventario.TestData;
+import com.reflex.inventario.order.service.OrderService;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Descarga en streaming de /reportes/export: contenido CSV y NDJSON, gzip, celdas con fórmulas y el pool que la escribe.
+//Cada prueba usa su propio día (año 2006) para que el archivo solo tenga sus órdenes
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ReportExportApiTest {
+
+	private static final String HEADER = "numero,fecha,usuario,proveedor,producto,cantidad,precio_unitario,subtotal";
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private TestData testData;
+	@Autowired
+	private OrderService orderService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	@Qualifier("exportExecutor")
+	private ThreadPoolTaskExecutor exportExecutor;
+
+	@Test
+	void csvHasOneRowPerLineWithTheStoredPrice() throws Exception {
+		LocalDate day = LocalDate.of(2006, 2, 3);
+		User user = testData.user();
+		Product product = testData.product("12.50");
+		Integer number = sale(user, Map.of(product, 3), day);
+		long written = exportExecutor.getThreadPoolExecutor().getCompletedTaskCount();
+
+		MockHttpServletResponse response = export(user, day, "CSV", false);
+
+		assertEquals(200, response.getStatus());
+		assertEquals("text/csv;charset=UTF-8", response.getContentType());
+		assertEquals("attachment; filename=\"ventas_" + day + "_" + day + ".csv\"", response.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+		List<String> rows = csvRows(response.getContentAsByteArray());
+		assertEquals(List.of(HEADER,
+				number + "," + day.atTime(12, 0) + ",Prueba,," + product.getName() + ",3,12.50,37.50"), rows);
+		//La escritura corrió en el pool de exportaciones
+		assertTrue(exportExecutor.getThreadPoolExecutor().getCompletedTaskCount() > written);
+	}
+
+	@Test
+	void csvCellsThatLookLikeFormulasAreEscaped() throws Exception {
+		LocalDate day = LocalDate.of(2006, 3, 3);
+		User user = testData.user();
+		Map<Product, Integer> lines = new LinkedHashMap<>();
+		for (String name : List.of("=HYPERLINK(\"http://x\",\"y\")", "+1", "-2", "@SUM(A1)", "Arroz, 1kg")) {
+			Product product = testData.product("1.00");
+			jdbcTemplate.update("UPDATE product SET name = ? WHERE code = ?", name, product.getCode());
+			lines.put(product, 1);
+		}
+		sale(user, lines, day);
+
+		List<String> products = csvRows(export(user, day, "CSV", false).getContentAsByteArray()).stream()
+				.skip(1)
+				.map(row -> row.substring(row.indexOf(",,") + 2, row.lastIndexOf(",1,1.00,1.00")))
+				.sorted()
+				.toList();
+
+		assertEquals(List.of("\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\"", "\"Arroz, 1kg\"", "'+1", "'-2", "'@SUM(A1)"), products);
+	}
+
+	@Test
+	void ndjsonHasOneObjectPerLine() throws Exception {
+		LocalDate day = LocalDate.of(2006, 4, 3);
+		User user = testData.user();
+		Product product = testData.product("4.25");
+		Integer number = sale(user, Map.of(product, 2), day);
+
+		MockHttpServletResponse response = export(user, day, "NDJSON", false);
+
+		assertEquals("application/x-ndjson;charset=UTF-8", response.getContentType());
+		String[] lines = response.getContentAsString(StandardCharsets.UTF_8).split("\n");
+		assertEquals(1, lines.length);
+		JsonNode row = objectMapper.readTree(lines[0]);
+		assertEquals(number, row.get("numero").asInt());
+		assertEquals(product.getName(), row.get("producto").asText());
+		assertTrue(row.get("proveedor").isNull());
+		assertEquals(2, row.get("cantidad").asInt());
+		assertEquals(0, new BigDecimal("8.50").compareTo(row.get("subtotal").decimalValue()));
+	}
+
+	@Test
+	void gzipWrapsTheSameContent() throws Exception {
+		LocalDate day = LocalDate.of(2006, 5, 3);
+		User user = testData.user();
+		sale(user, Map.of(testData.product("3.00"), 1, testData.product("5.00"), 2), day);
+
+		byte[] plain = export(user, day, "CSV", false).getContentAsByteArray();
+		MockHttpServletResponse gzip = export(user, day, "CSV", true);
+
+		assertEquals("application/gzip", gzip.getContentType());
+		assertTrue(gzip.getHeader(HttpHeaders.CONTENT_DISPOSITION).endsWith(".csv.gz\""));
+		assertArrayEquals(plain, gunzip(gzip.getContentAsByteArray()));
+	}
+
+	@Test
+	void invalidRangeIs400BeforeStreaming() throws Exception {
+		String token = testData.token(testData.user());
+		mockMvc.perform(get("/reportes/export")
+						.header("Authorization", "Bearer " + token)
+						.param("from", "2006-02-03")
+						.param("to", "2006-02-01"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private Integer sale(User user, Map<Product, Integer> lines, LocalDate day) {
+		Integer number = orderService.addCustomerOrder(user.getEmail(), testData.order(lines)).getNumber();
+		jdbcTemplate.update("UPDATE customer_order SET created_at = ? WHERE number = ?", Timestamp.valueOf(day.atTime(12, 0)), number);
+		return number;
+	}
+
+	private MockHttpServletResponse export(User user, LocalDate day, String formato, boolean gzip) throws Exception {
+		String token = testData.token(user);
+		MvcResult started = mockMvc.perform(get("/reportes/export")
+						.header("Authorization", "Bearer " + token)
+						.param("from", day.toString())
+						.param("to", day.toString())
+						.param("formato", formato)
+						.param("gzip", String.valueOf(gzip)))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		return mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andReturn().getResponse();
+	}
+
+	//Sin el BOM inicial que se agrega para Excel
+	private static List<String> csvRows(byte[] content) {
+		String text = new String(content, StandardCharsets.UTF_8);
+		assertEquals('\uFEFF', text.charAt(0));
+		return List.of(text.substring(1).split("\r\n"));
+	}
+
+	private static byte[] gunzip(byte[] content) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+			return in.readAllBytes();
+		}
+	}
+}
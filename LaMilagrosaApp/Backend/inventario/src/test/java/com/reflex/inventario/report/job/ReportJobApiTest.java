@@ -0,0 +1,171 @@
+package com.reflex.inventario.report.job;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reflex.inventario.TestData;
+import com.reflex.inventario.order.service.OrderService;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Ciclo de vida del reporte en segundo plano: 202 al encolar, consulta hasta COMPLETADO y descarga completa o por Range
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ReportJobApiTest {
+
+	private static final String CONTEXT_PATH = "/api/v1";
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private TestData testData;
+	@Autowired
+	private OrderService orderService;
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void jobCompletesAndItsDownloadUrlServesThePdf() throws Exception {
+		User user = testData.user();
+		Product product = testData.product("12.50");
+		orderService.addCustomerOrder(user.getEmail(), testData.order(Map.of(product, 2)));
+		String token = testData.token(user);
+		LocalDate today = LocalDate.now();
+
+		JsonNode job = await(submit(today, today, token), token);
+
+		assertEquals("COMPLETADO", job.get("status").asText());
+		String jobId = job.get("jobId").asText();
+		//La URL incluye el context-path: el cliente la usa tal cual
+		assertEquals(CONTEXT_PATH + "/reportes/jobs/" + jobId + "/archivo", job.get("downloadUrl").asText());
+		MockHttpServletResponse file = download(job, token, null);
+		assertEquals(200, file.getStatus());
+		assertEquals("application/pdf", file.getContentType());
+		assertEquals("attachment; filename=\"ventas_" + today + "_" + today + ".pdf\"", file.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+		assertEquals("bytes", file.getHeader(HttpHeaders.ACCEPT_RANGES));
+		assertEquals(job.get("sizeBytes").asLong(), file.getContentAsByteArray().length);
+		assertTrue(new String(file.getContentAsByteArray(), 0, 5).startsWith("%PDF"));
+	}
+
+	@Test
+	void rangeRequestsReturnPartialContent() throws Exception {
+		User user = testData.user();
+		String token = testData.token(user);
+		LocalDate today = LocalDate.now();
+		JsonNode job = await(submit(today, today, token), token);
+		byte[] pdf = download(job, token, null).getContentAsByteArray();
+		int length = pdf.length;
+
+		MockHttpServletResponse head = download(job, token, "bytes=0-9");
+		assertEquals(206, head.getStatus());
+		assertEquals("bytes 0-9/" + length, head.getHeader(HttpHeaders.CONTENT_RANGE));
+		assertArrayEquals(Arrays.copyOfRange(pdf, 0, 10), head.getContentAsByteArray());
+
+		//Reanudar una descarga cortada: desde un byte hasta el final
+		MockHttpServletResponse rest = download(job, token, "bytes=10-");
+		assertEquals(206, rest.getStatus());
+		assertEquals("bytes 10-" + (length - 1) + "/" + length, rest.getHeader(HttpHeaders.CONTENT_RANGE));
+		assertArrayEquals(Arrays.copyOfRange(pdf, 10, length), rest.getContentAsByteArray());
+
+		MockHttpServletResponse tail = download(job, token, "bytes=-5");
+		assertEquals(206, tail.getStatus());
+		assertArrayEquals(Arrays.copyOfRange(pdf, length - 5, length), tail.getContentAsByteArray());
+
+		MockHttpServletResponse outside = download(job, token, "bytes=" + length + "-");
+		assertEquals(416, outside.getStatus());
+		assertEquals("bytes */" + length, outside.getHeader(HttpHeaders.CONTENT_RANGE));
+
+		//Varios rangos no se atienden por separado: se devuelve el archivo completo
+		MockHttpServletResponse multiple = download(job, token, "bytes=0-1,4-5");
+		assertEquals(200, multiple.getStatus());
+		assertArrayEquals(pdf, multiple.getContentAsByteArray());
+	}
+
+	@Test
+	void invalidRangeOfDatesIs400() throws Exception {
+		String token = testData.token(testData.user());
+		mockMvc.perform(post("/reportes/jobs")
+						.header("Authorization", "Bearer " + token)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(body(LocalDate.now(), LocalDate.now().minusDays(1))))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void unknownJobIs404() throws Exception {
+		String token = testData.token(testData.user());
+		mockMvc.perform(get("/reportes/jobs/no-existe").header("Authorization", "Bearer " + token))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void malformedJobIdDownloadIs404() throws Exception {
+		String token = testData.token(testData.user());
+		mockMvc.perform(get(CONTEXT_PATH + "/reportes/jobs/no-es-uuid/archivo")
+						.contextPath(CONTEXT_PATH)
+						.header("Authorization", "Bearer " + token))
+				.andExpect(status().isNotFound());
+	}
+
+	private String submit(LocalDate from, LocalDate to, String token) throws Exception {
+		String response = mockMvc.perform(post("/reportes/jobs")
+						.header("Authorization", "Bearer " + token)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(body(from, to)))
+				.andExpect(status().isAccepted())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(response).get("jobId").asText();
+	}
+
+	private String body(LocalDate from, LocalDate to) throws Exception {
+		return objectMapper.writeValueAsString(Map.of("tipo", "VENTAS", "from", from.toString(), "to", to.toString()));
+	}
+
+	private JsonNode await(String jobId, String token) throws Exception {
+		for (int i = 0; i < 400; i++) {
+			String response = mockMvc.perform(get("/reportes/jobs/" + jobId).header("Authorization", "Bearer " + token))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+			JsonNode job = objectMapper.readTree(response);
+			String state = job.get("status").asText();
+			if (!state.equals("PENDIENTE") && !state.equals("EN_PROCESO")) {
+				return job;
+			}
+			Thread.sleep(50);
+		}
+		throw new AssertionError("El reporte " + jobId + " no terminó");
+	}
+
+	//Se pide la URL devuelta por el trabajo, con el context-path que MockMvc no agrega por su cuenta
+	private MockHttpServletResponse download(JsonNode job, String token, String range) throws Exception {
+		var request = get(job.get("downloadUrl").asText())
+				.contextPath(CONTEXT_PATH)
+				.header("Authorization", "Bearer " + token);
+		if (range != null) {
+			request.header(HttpHeaders.RANGE, range);
+		}
+		return mockMvc.perform(request).andReturn().getResponse();
+	}
+}
@@ -0,0 +1,214 @@
+package com.reflex.inventario.report.rollup;
+
+import com.reflex.inventario.TestData;
+import com.reflex.inventario.order.OrderChangedEvent;
+import com.reflex.inventario.order.dto.OrderTotalsRow;
+import com.reflex.inventario.order.service.OrderService;
+import com.reflex.inventario.product.Product;
+import com.reflex.inventario.product.service.ProductService;
+import com.reflex.inventario.report.ReportProductoDTO;
+import com.reflex.inventario.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Marca de agua, partición del rango entre acumulados y órdenes, reconstrucción tras borrados y días viejo/nuevo
+//de una orden movida. Cada prueba usa sus propios días (año 2005) para no mezclarse con las demás clases
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class RollupServiceTest {
+
+	@Autowired
+	private TestData testData;
+	@Autowired
+	private RollupService rollupService;
+	@Autowired
+	private RollupWatermarkRepository rollupWatermarkRepository;
+	@Autowired
+	private OrderService orderService;
+	@Autowired
+	private ProductService productService;
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void rollUpOnlyProcessesDaysAfterTheWatermark() {
+		LocalDate day = LocalDate.of(2005, 3, 10);
+		User user = testData.user();
+		Product product = testData.product("10.00");
+		sale(user, product, 2, day);
+		rollUpAndRebuild(day);
+
+		assertEquals(LocalDate.now().minusDays(1), rollupWatermarkRepository.findById(RollupKind.VENTAS).orElseThrow().getLastDay());
+		assertTotals(1, "20.00", rollupService.totals(RollupKind.VENTAS, day, day));
+
+		//Una orden que aparece en un día ya acumulado sin evento no se vuelve a leer en la siguiente pasada
+		sale(user, product, 3, day);
+		rollupService.rollUp();
+		assertTotals(1, "20.00", rollupService.totals(RollupKind.VENTAS, day, day));
+
+		assertEquals(2, rollupService.rebuild(day, day));//ventas y compras
+		assertTotals(2, "50.00", rollupService.totals(RollupKind.VENTAS, day, day));
+	}
+
+	@Test
+	void rangeSplitsIntoRolledDaysAndTodaysOrders() {
+		LocalDate day = LocalDate.of(2005, 4, 10);
+		LocalDate today = LocalDate.now();
+		User user = testData.user();
+		Product product = testData.product("5.00");
+		sale(user, product, 1, day);
+		rollUpAndRebuild(day);
+
+		RollupService.RangeSplit split = rollupService.split(RollupKind.VENTAS, day, today);
+		assertTrue(split.hasRolled());
+		assertEquals(today.minusDays(1), split.rolledTo());
+		assertTrue(split.hasRaw());
+		assertEquals(Timestamp.valueOf(today.atStartOfDay()), split.rawStart());
+		assertFalse(rollupService.split(RollupKind.VENTAS, today, today).hasRolled());
+
+		OrderTotalsRow before = rollupService.totals(RollupKind.VENTAS, day, today);
+		//Hoy todavía no está acumulado: la orden se ve sin correr el rollup
+		orderService.addCustomerOrder(user.getEmail(), testData.order(Map.of(product, 4)));
+		OrderTotalsRow after = rollupService.totals(RollupKind.VENTAS, day, today);
+
+		assertEquals(before.getCount() + 1, after.getCount());
+		assertEquals(0, before.getAmount().add(new BigDecimal("20.00")).compareTo(after.getAmount()));
+		Map<LocalDate, OrderTotalsRow> daily = rollupService.dailyTotals(RollupKind.VENTAS, day, today);
+		assertTotals(1, "5.00", daily.get(day));
+		assertTrue(daily.containsKey(today));
+		assertEquals(5, units(rollupService.productTotals(RollupKind.VENTAS, day, today), product));//1 acumulada + 4 de hoy
+	}
+
+	@Test
+	void deletingAnOrderRebuildsItsDay() {
+		LocalDate day = LocalDate.of(2005, 5, 10);
+		User user = testData.user();
+		Product product = testData.product("7.00");
+		Integer number = sale(user, product, 1, day);
+		sale(user, product, 2, day);
+		rollUpAndRebuild(day);
+		assertTotals(2, "21.00", rollupService.totals(RollupKind.VENTAS, day, day));
+
+		orderService.deleteCustomerOrder(number);
+
+		assertTotals(1, "14.00", rollupService.totals(RollupKind.VENTAS, day, day));
+		assertEquals(2, units(rollupService.productTotals(RollupKind.VENTAS, day, day), product));
+	}
+
+	@Test
+	void orderChangeDoesNotWaitForARunningRollup() throws Exception {
+		LocalDate day = LocalDate.of(2005, 5, 20);
+		User user = testData.user();
+		Product product = testData.product("6.00");
+		Integer number = sale(user, product, 1, day);
+		sale(user, product, 2, day);
+		rollUpAndRebuild(day);
+
+		//Otro hilo retiene el monitor de rollUp/rebuild como lo haría una pasada larga
+		RollupService target = AopTestUtils.getTargetObject(rollupService);
+		CountDownLatch held = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Void> rollup = CompletableFuture.runAsync(() -> {
+			synchronized (target) {
+				held.countDown();
+				try {
+					release.await(30, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		try {
+			held.await(10, TimeUnit.SECONDS);
+			CompletableFuture.runAsync(() -> orderService.deleteCustomerOrder(number)).get(10, TimeUnit.SECONDS);
+			assertTotals(1, "12.00", rollupService.totals(RollupKind.VENTAS, day, day));
+		} finally {
+			release.countDown();
+			rollup.get(10, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	void movedOrderRebuildsTheOldAndTheNewDay() {
+		LocalDate oldDay = LocalDate.of(2005, 6, 10);
+		LocalDate newDay = LocalDate.of(2005, 6, 20);
+		User user = testData.user();
+		Product product = testData.product("3.00");
+		Integer number = sale(user, product, 1, oldDay);
+		rollUpAndRebuild(oldDay);
+		rollupService.rebuild(newDay, newDay);
+
+		//Lo que publica el servicio de órdenes al modificar: createdAt anterior y nuevo
+		jdbcTemplate.update("UPDATE customer_order SET created_at = ? WHERE number = ?", Timestamp.valueOf(newDay.atTime(12, 0)), number);
+		eventPublisher.publishEvent(OrderChangedEvent.of(List.of(oldDay.atTime(12, 0), newDay.atTime(12, 0))));
+
+		assertTotals(0, "0", rollupService.totals(RollupKind.VENTAS, oldDay, oldDay));
+		assertTotals(1, "3.00", rollupService.totals(RollupKind.VENTAS, newDay, newDay));
+		assertEquals(0, units(rollupService.productTotals(RollupKind.VENTAS, oldDay, oldDay), product));
+		assertEquals(1, units(rollupService.productTotals(RollupKind.VENTAS, newDay, newDay), product));
+	}
+
+	@Test
+	void deletedProductKeepsItsRolledSales() {
+		LocalDate day = LocalDate.of(2005, 7, 10);
+		User user = testData.user();
+		Product product = testData.product("9.00");
+		sale(user, product, 3, day);
+		rollUpAndRebuild(day);
+
+		productService.deleteProduct(product.getCode());
+
+		ReportProductoDTO sold = rollupService.productTotals(RollupKind.VENTAS, day, day).stream()
+				.filter(row -> row.getProductCode().equals(product.getCode()))
+				.findFirst().orElseThrow();
+		assertEquals(product.getName(), sold.getProductName());
+		assertEquals(3, sold.getUnits());
+		assertEquals(0, new BigDecimal("27.00").compareTo(sold.getAmount()));
+	}
+
+	private void rollUpAndRebuild(LocalDate day) {
+		//La marca de agua puede venir de otra clase de prueba que ya acumuló estos días
+		rollupService.rollUp();
+		rollupService.rebuild(day, day);
+	}
+
+	private Integer sale(User user, Product product, int quantity, LocalDate day) {
+		Integer number = orderService.addCustomerOrder(user.getEmail(), testData.order(Map.of(product, quantity))).getNumber();
+		jdbcTemplate.update("UPDATE customer_order SET created_at = ? WHERE number = ?", Timestamp.valueOf(day.atTime(12, 0)), number);
+		return number;
+	}
+
+	private static long units(List<ReportProductoDTO> rows, Product product) {
+		return rows.stream()
+				.filter(row -> row.getProductCode().equals(product.getCode()))
+				.mapToLong(ReportProductoDTO::getUnits)
+				.sum();
+	}
+
+	private static void assertTotals(long count, String amount, OrderTotalsRow totals) {
+		assertEquals(count, totals.getCount());
+		assertEquals(0, new BigDecimal(amount).compareTo(totals.getAmount()), totals.getAmount().toPlainString());
+	}
+}
@@ -39,13 +39,15 @@ export const registerCustomerOrder = async (orderData) => {
 };
 
 
-export const getAllCustomerOrders = async () => {
+export const getAllCustomerOrders = async (cursor) => {
   try {
     const response = await axios.get(
       `${API_URL}/findAllOrders`,
-      { headers: getAuthHeaders() }
+      { headers: getAuthHeaders(), params: { cursor } }
     );
-    return response.data;
+    // Respuesta paginada: { content, nextCursor }; nextCursor es null en la última página
+    const { content, nextCursor } = response.data;
+    return { content, nextCursor };
   } catch (error) {
     console.error('Error al obtener las órdenes del cliente:', error);
     throw error;
@@ -12,15 +12,18 @@ const getAuthHeaders = () => {
 };
 
 /**
- * Obtener todas las órdenes de compra
- * GET /order/purchase/findAllOrders
+ * Obtener una página de órdenes de compra (paginadas por cursor)
+ * GET /order/purchase/findAllOrders?cursor=
  */
-export const getAllPurchaseOrders = async () => {
+export const getAllPurchaseOrders = async (cursor) => {
   try {
     const response = await axios.get(`${API_URL}/findAllOrders`, {
       headers: getAuthHeaders(),
+      params: { cursor },
     });
-    return response.data;
+    // Respuesta paginada: { content, nextCursor }; nextCursor es null en la última página
+    const { content, nextCursor } = response.data;
+    return { content, nextCursor };
   } catch (error) {
     console.error('Error al obtener órdenes de compra:', error);
     throw error;
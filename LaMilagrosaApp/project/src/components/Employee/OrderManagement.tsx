@@ -29,6 +29,8 @@ const OrderManagement: React.FC = () => {
    const [products, setProducts] = useState<Product[]>([]);
   const [cart, setCart] = useState<PurchaseItem[]>([]);
   const [orders, setOrders] = useState<any[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [providers, setProviders] = useState<Provider[]>([]);
   const [selectedProvider, setSelectedProvider] = useState<string>('');
   const [searchTerm, setSearchTerm] = useState('');
@@ -37,7 +39,7 @@ const OrderManagement: React.FC = () => {
   useEffect(() => {
     const fetchData = async () => {
       try {
-        const [productData, orderData, providerData] = await Promise.all([
+        const [productData, orderPage, providerData] = await Promise.all([
           getAllProducts(),
           getAllPurchaseOrders(),
           getAllProviders()
@@ -51,7 +53,8 @@ const OrderManagement: React.FC = () => {
         }));
 
         setProducts(adaptedProducts);
-        setOrders(orderData);
+        setOrders(orderPage.content);
+        setNextCursor(orderPage.nextCursor);
         setProviders(providerData);
       } catch (err) {
         console.error('Error al cargar datos:', err);
@@ -61,15 +64,32 @@ const OrderManagement: React.FC = () => {
     fetchData();
   }, []);
 
+  // Vuelve a la primera página (las órdenes más recientes)
   const refreshOrders = async () => {
     try {
-      const data = await getAllPurchaseOrders();
-      setOrders(data);
+      const page = await getAllPurchaseOrders();
+      setOrders(page.content);
+      setNextCursor(page.nextCursor);
     } catch (err) {
       console.error('Error al actualizar órdenes:', err);
     }
   };
 
+  // Agrega la siguiente página al final de la tabla
+  const loadMoreOrders = async () => {
+    if (!nextCursor) return;
+    try {
+      setLoadingMore(true);
+      const page = await getAllPurchaseOrders(nextCursor);
+      setOrders(prev => [...prev, ...page.content]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      console.error('Error al cargar más órdenes:', err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const formatPrice = (price: number) =>
     new Intl.NumberFormat('es-CO', {
       style: 'currency',
@@ -368,6 +388,17 @@ const OrderManagement: React.FC = () => {
           </tbody>
         </table>
       </div>
+      {nextCursor && (
+        <div className="flex justify-center mt-4">
+          <button
+            onClick={loadMoreOrders}
+            disabled={loadingMore}
+            className={`bg-gray-100 text-gray-700 px-4 py-2 rounded-lg hover:bg-gray-200 transition-colors ${loadingMore ? 'opacity-50 cursor-not-allowed' : ''}`}
+          >
+            {loadingMore ? 'Cargando...' : 'Cargar más órdenes'}
+          </button>
+        </div>
+      )}
     </div>
   </div>
 );
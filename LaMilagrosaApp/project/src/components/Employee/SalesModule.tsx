@@ -22,6 +22,8 @@ const SalesModule: React.FC = () => {
   const [discount, setDiscount] = useState(0);
   const [loading, setLoading] = useState(false);
   const [orders, setOrders] = useState<any[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   const categories = ['all', 'Jamones', 'Embutidos', 'Quesos', 'Conservas', 'Vinos', 'Aceites'];
 
@@ -44,25 +46,33 @@ const SalesModule: React.FC = () => {
       }
     };
 
-    const fetchOrders = async () => {
-      try {
-        const data = await getAllCustomerOrders();
-        setOrders(data);
-      } catch (error) {
-        console.error('Error al cargar órdenes:', error);
-      }
-    };
-
     fetchProducts();
-    fetchOrders();
+    refreshOrders();
   }, []);
 
+  // Vuelve a la primera página (las órdenes más recientes)
   const refreshOrders = async () => {
     try {
-      const data = await getAllCustomerOrders();
-      setOrders(data);
+      const page = await getAllCustomerOrders();
+      setOrders(page.content);
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      console.error('Error al cargar órdenes:', error);
+    }
+  };
+
+  // Agrega la siguiente página al final del historial
+  const loadMoreOrders = async () => {
+    if (!nextCursor) return;
+    try {
+      setLoadingMore(true);
+      const page = await getAllCustomerOrders(nextCursor);
+      setOrders(current => [...current, ...page.content]);
+      setNextCursor(page.nextCursor);
     } catch (error) {
-      console.error('Error al actualizar órdenes:', error);
+      console.error('Error al cargar más órdenes:', error);
+    } finally {
+      setLoadingMore(false);
     }
   };
 
@@ -361,6 +371,17 @@ const SalesModule: React.FC = () => {
                 ))}
               </tbody>
             </table>
+            {nextCursor && (
+              <div className="flex justify-center mt-4">
+                <button
+                  onClick={loadMoreOrders}
+                  disabled={loadingMore}
+                  className={`bg-gray-100 text-gray-700 px-4 py-2 rounded-lg hover:bg-gray-200 transition-colors ${loadingMore ? 'opacity-50 cursor-not-allowed' : ''}`}
+                >
+                  {loadingMore ? 'Cargando...' : 'Cargar más órdenes'}
+                </button>
+              </div>
+            )}
           </div>
         )}
       </div>